@@ -0,0 +1,61 @@
+package reversi;
+
+import java.util.ArrayList;
+
+/**
+ * AlgorithmBenchmark: a class that searches the same positions at fixed depths with
+ * alpha-beta minimax and with principal variation search, and compares the positions
+ * searched and the scores found
+ * @author Grace Bocek
+ */
+public class AlgorithmBenchmark {
+
+    /**
+     * runs the benchmark
+     * @param args deepest search depth and number of positions, both optional (String[])
+     */
+    public static void main(String[] args) {
+        int maxDepth = 7;
+        int positionCount = 16;
+        if (args.length > 0) {
+            maxDepth = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            positionCount = Integer.parseInt(args[1]);
+        }
+        ArrayList<Board> positions = SmpBenchmark.midgamePositions(positionCount, 20);
+        System.out.println(positions.size() + " positions");
+        System.out.printf("%6s %14s %14s %10s %10s %8s %10s%n", "depth", "alpha-beta", "pvs",
+                "a-b ms", "pvs ms", "ratio", "same score");
+        int[] algorithms = {Search.alphaBeta, Search.principalVariation};
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long[] nodes = new long[2];
+            double[] millis = new double[2];
+            int[][] scores = new int[2][positions.size()];
+            for (int a = 0; a < 2; a++) {
+                Reversi reversi = new Reversi(64);
+                reversi.setMoveTimeLimit(0);
+                reversi.setMaxDepth(depth);
+                reversi.setSeed(1);
+                reversi.setSearchAlgorithm(algorithms[a]);
+                //ProbCut only prunes principal variation search, so compare full-width searches
+                reversi.setProbCut(null);
+                long start = System.nanoTime();
+                for (int i = 0; i < positions.size(); i++) {
+                    reversi.findBestMove(new Board(positions.get(i)));
+                    nodes[a] += reversi.getNodesSearched();
+                    scores[a][i] = reversi.getLastScore();
+                }
+                millis[a] = (System.nanoTime() - start) / 1e6;
+            }
+            int same = 0;
+            for (int i = 0; i < positions.size(); i++) {
+                if (scores[0][i] == scores[1][i]) {
+                    same++;
+                }
+            }
+            System.out.printf("%6d %14d %14d %10.0f %10.0f %8.2f %10s%n", depth, nodes[0], nodes[1],
+                    millis[0], millis[1], (double) nodes[0] / nodes[1], same + "/" + positions.size());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package reversi;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * BatchBenchmark: JMH benchmarks for PositionBatch on positions from random games,
+ * against the same work done one position at a time. The fork adds the Vector API
+ * module so the batches are vectorized
+ * @author Grace Bocek
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchBenchmark {
+    private static final int positionCount = 4096;
+    private long[] players;
+    private long[] opponents;
+    private int[] squares;
+    private long[] moves;
+    private int[] counts;
+    private int[] mobility;
+    private int[] frontier;
+    private PatternEvaluator evaluator;
+
+    /**
+     * plays random games and keeps every position, with one of its valid moves
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        players = new long[positionCount];
+        opponents = new long[positionCount];
+        squares = new int[positionCount];
+        int[] valid = new int[64];
+        int n = 0;
+        while (n < positionCount) {
+            Board board = new Board(false);
+            int moveCount = board.getValidMoves(valid);
+            while (moveCount > 0 && n < positionCount) {
+                players[n] = board.getUsersTurn() ? board.getWhiteDiscs() : board.getBlackDiscs();
+                opponents[n] = board.getUsersTurn() ? board.getBlackDiscs() : board.getWhiteDiscs();
+                squares[n] = valid[random.nextInt(moveCount)];
+                n++;
+                board.makeMove(valid[random.nextInt(moveCount)]);
+                moveCount = board.getValidMoves(valid);
+            }
+        }
+        moves = new long[positionCount];
+        counts = new int[positionCount];
+        mobility = new int[positionCount];
+        frontier = new int[positionCount];
+        evaluator = PatternEvaluator.getDefault();
+    }
+
+    @Benchmark
+    public void batchMoveMasks(Blackhole blackhole) {
+        PositionBatch.moveMasks(players, opponents, moves, positionCount);
+        blackhole.consume(moves);
+    }
+
+    @Benchmark
+    public void scalarMoveMasks(Blackhole blackhole) {
+        for (int i = 0; i < positionCount; i++) {
+            moves[i] = Board.moveMask(players[i], opponents[i]);
+        }
+        blackhole.consume(moves);
+    }
+
+    @Benchmark
+    public void batchFlipCounts(Blackhole blackhole) {
+        PositionBatch.flipCounts(players, opponents, squares, counts, positionCount);
+        blackhole.consume(counts);
+    }
+
+    @Benchmark
+    public void scalarFlipCounts(Blackhole blackhole) {
+        for (int i = 0; i < positionCount; i++) {
+            counts[i] = Long.bitCount(Board.flipMask(players[i], opponents[i], 1L << squares[i]));
+        }
+        blackhole.consume(counts);
+    }
+
+    @Benchmark
+    public void batchMobilityAndFrontier(Blackhole blackhole) {
+        PositionBatch.mobilityAndFrontier(players, opponents, mobility, frontier, positionCount);
+        blackhole.consume(frontier);
+    }
+
+    @Benchmark
+    public void batchEvaluate(Blackhole blackhole) {
+        PositionBatch.evaluate(evaluator, players, opponents, counts, positionCount);
+        blackhole.consume(counts);
+    }
+
+    @Benchmark
+    public void scalarEvaluate(Blackhole blackhole) {
+        for (int i = 0; i < positionCount; i++) {
+            counts[i] = evaluator.evaluate(players[i], opponents[i]);
+        }
+        blackhole.consume(counts);
+    }
+}
@@ -0,0 +1,132 @@
+package reversi;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * BoardBenchmark: JMH benchmarks for move generation, moves, copying and scoring on
+ * the recorded midgame positions. Each operation runs once on every position
+ * @author Grace Bocek
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private Board[] boards;
+    private Move[] firstMoves;
+    private int[] firstSquares;
+    private int[] moveArray = new int[64];
+    private PatternEvaluator evaluator;
+
+    /**
+     * loads the recorded positions and picks a move to play in each
+     */
+    @Setup
+    public void setup() {
+        boards = MidgamePositions.boards();
+        firstMoves = new Move[boards.length];
+        firstSquares = new int[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            firstMoves[i] = boards[i].getValidMoves().get(0);
+            firstSquares[i] = firstMoves[i].getSquare();
+        }
+        evaluator = PatternEvaluator.getDefault();
+    }
+
+    @Benchmark
+    public void findValidMoves(Blackhole blackhole) {
+        for (Board board : boards) {
+            board.findValidMoves();
+            blackhole.consume(board.getValidMoves());
+        }
+    }
+
+    @Benchmark
+    public void validMoveArray(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.getValidMoves(moveArray));
+        }
+    }
+
+    @Benchmark
+    public void validMoveMask(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.getValidMoveMask());
+        }
+    }
+
+    @Benchmark
+    public void copyBoard(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(new Board(board));
+        }
+    }
+
+    /**
+     * updateBoard changes the board for good, so this plays the move on a fresh copy;
+     * subtract copyBoard to get the cost of the move itself
+     */
+    @Benchmark
+    public void copyAndUpdateBoard(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            Board copy = new Board(boards[i]);
+            copy.updateBoard(firstMoves[i]);
+            blackhole.consume(copy);
+        }
+    }
+
+    @Benchmark
+    public void makeAndUnmakeMove(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            boards[i].makeMove(firstSquares[i]);
+            blackhole.consume(boards[i].getHash());
+            boards[i].unmakeMove();
+        }
+    }
+
+    @Benchmark
+    public void getComputerScore(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.getComputerScore());
+        }
+    }
+
+    /**
+     * adds up pieceScore over every disc, which getComputerScore keeps up to date
+     * incrementally instead
+     */
+    @Benchmark
+    public void pieceScoreScan(Blackhole blackhole) {
+        for (Board board : boards) {
+            int score = 0;
+            long discs = board.getBlackDiscs() | board.getWhiteDiscs();
+            while (discs != 0) {
+                int square = Long.numberOfTrailingZeros(discs);
+                int pieceScore = board.pieceScore(square / 8, square % 8);
+                score += (board.getBlackDiscs() & 1L << square) != 0 ? pieceScore : -pieceScore;
+                discs &= discs - 1;
+            }
+            blackhole.consume(score);
+        }
+    }
+
+    @Benchmark
+    public void patternEvaluate(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(evaluator.evaluate(board.getBlackDiscs(), board.getWhiteDiscs()));
+        }
+    }
+}
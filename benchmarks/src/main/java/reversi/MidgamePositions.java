@@ -0,0 +1,31 @@
+package reversi;
+
+/**
+ * MidgamePositions: recorded midgame positions, 20 to 34 moves into random games, with the
+ * computer to move. The benchmarks use these so their numbers can be compared between runs
+ * @author Grace Bocek
+ */
+public class MidgamePositions {
+    public static final String[] positions = {
+        "----O-------OXX---X-O----XXXO-X--XOOOXO--XX-X---XO-X-O---------- X",
+        "--------------O---XXXOO----XOXO----OXXX---OOOXXO-O-O-XXX-----X-- X",
+        "-O-------XOO--O---XOOO---OOXOXXO---OXXXX---OXO------O-O----O---O X",
+        "---OOO--O--OOXO--O-OXX-O-XOXXXOO-OXXXX--O-O--X----XO------------ X",
+        "---OO---X-XOXX--OOOOXO----OOO----OXXOOX--XXOOOO-X--X-X--------X- X",
+        "---XO-XX--X-OXXXO-XXXXOXXOXXOOXO--OXO-O---OOOO-----O-------O---- X",
+        "--OX----XXOX-----OOOX-O-XOOOOOXX-OOOOOX-OOOOO-XXXO--O--------O-- X",
+        "----OOO--X-XOO----XOOX--XXOXXXOOOOXXOXX-O-XXOXX-----OXX----XO-X- X",
+    };
+
+    /**
+     * creates a board for each recorded position
+     * @return boards for the recorded positions (Board[])
+     */
+    public static Board[] boards() {
+        Board[] out = new Board[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            out[i] = new Board(positions[i]);
+        }
+        return out;
+    }
+}
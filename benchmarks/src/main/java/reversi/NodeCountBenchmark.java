@@ -0,0 +1,49 @@
+package reversi;
+
+import java.util.ArrayList;
+
+/**
+ * NodeCountBenchmark: a class that counts the positions the computer searches at fixed
+ * depths with and without move ordering
+ * @author Grace Bocek
+ */
+public class NodeCountBenchmark {
+
+    /**
+     * runs the benchmark
+     * @param args deepest search depth and number of positions, both optional (String[])
+     */
+    public static void main(String[] args) {
+        int maxDepth = 7;
+        int positionCount = 16;
+        if (args.length > 0) {
+            maxDepth = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            positionCount = Integer.parseInt(args[1]);
+        }
+        ArrayList<Board> positions = SmpBenchmark.midgamePositions(positionCount, 20);
+        System.out.println(positions.size() + " positions");
+        System.out.printf("%6s %14s %14s %10s %10s %8s%n", "depth", "random nodes", "ordered nodes",
+                "random ms", "ordered ms", "ratio");
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long[] nodes = new long[2];
+            double[] millis = new double[2];
+            for (int ordered = 0; ordered < 2; ordered++) {
+                Reversi reversi = new Reversi(64);
+                reversi.setMoveTimeLimit(0);
+                reversi.setMaxDepth(depth);
+                reversi.setSeed(1);
+                reversi.setMoveOrdering(ordered == 1);
+                long start = System.nanoTime();
+                for (Board position : positions) {
+                    reversi.findBestMove(new Board(position));
+                    nodes[ordered] += reversi.getNodesSearched();
+                }
+                millis[ordered] = (System.nanoTime() - start) / 1e6;
+            }
+            System.out.printf("%6d %14d %14d %10.0f %10.0f %8.2f%n", depth, nodes[0], nodes[1],
+                    millis[0], millis[1], (double) nodes[0] / nodes[1]);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package reversi;
+
+import java.util.ArrayList;
+
+/**
+ * ProbCutBenchmark: a class that gives the computer the same time for each of a set of
+ * positions with and without Multi-ProbCut, and compares the depth it reaches and how
+ * often it picks the same move
+ * @author Grace Bocek
+ */
+public class ProbCutBenchmark {
+
+    /**
+     * runs the benchmark
+     * @param args time per position in ms and number of positions, both optional (String[])
+     */
+    public static void main(String[] args) {
+        long moveTimeLimit = 1000;
+        int positionCount = 16;
+        if (args.length > 0) {
+            moveTimeLimit = Long.parseLong(args[0]);
+        }
+        if (args.length > 1) {
+            positionCount = Integer.parseInt(args[1]);
+        }
+        ArrayList<Board> positions = SmpBenchmark.midgamePositions(positionCount, 20);
+        System.out.println(positions.size() + " positions, " + moveTimeLimit + " ms each");
+        ProbCut[] settings = {null, ProbCut.getDefault()};
+        String[] names = {"full width", "probcut"};
+        int[][] moves = new int[2][positions.size()];
+        System.out.printf("%12s %10s %14s %12s%n", "", "avg depth", "nodes", "nodes/s");
+        for (int s = 0; s < settings.length; s++) {
+            Reversi reversi = new Reversi(64);
+            reversi.setMoveTimeLimit(moveTimeLimit);
+            reversi.setMaxDepth(Search.maxDepth);
+            reversi.setSeed(1);
+            reversi.setProbCut(settings[s]);
+            long depths = 0;
+            long nodes = 0;
+            long nanos = 0;
+            for (int i = 0; i < positions.size(); i++) {
+                moves[s][i] = reversi.findBestMove(new Board(positions.get(i))).getSquare();
+                SearchStatistics statistics = reversi.getStatistics();
+                depths += statistics.getDepth();
+                nodes += statistics.getNodes();
+                nanos += statistics.getElapsedNanos();
+            }
+            System.out.printf("%12s %10.2f %14d %12.0f%n", names[s], (double) depths / positions.size(),
+                    nodes, nodes / (nanos / 1e9));
+        }
+        int same = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            if (moves[0][i] == moves[1][i]) {
+                same++;
+            }
+        }
+        System.out.println("same move: " + same + "/" + positions.size());
+    }
+}
@@ -0,0 +1,62 @@
+package reversi;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * SearchBenchmark: JMH benchmark for the computer's minimax search at fixed depths over
+ * the recorded midgame positions. The transposition table is cleared before every
+ * invocation so each one does the full search
+ * @author Grace Bocek
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"2", "4", "6"})
+    private int depth;
+    private Board[] boards;
+    private Reversi reversi;
+
+    /**
+     * loads the recorded positions and sets up a single-threaded fixed-depth search
+     */
+    @Setup
+    public void setup() {
+        boards = MidgamePositions.boards();
+        reversi = new Reversi(4);
+        reversi.setMoveTimeLimit(0);
+        reversi.setMaxDepth(depth);
+        reversi.setSeed(1);
+    }
+
+    /**
+     * clears what the last invocation searched
+     */
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        reversi.clearTranspositionTable();
+    }
+
+    @Benchmark
+    public void minimax(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(reversi.findBestMove(board));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package reversi;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * SmpBenchmark: a class that times fixed-depth computer searches with 1, 2, 4, 8 and 16
+ * threads and prints the speedup of each parallel mode over a single thread
+ * @author Grace Bocek
+ */
+public class SmpBenchmark {
+    private static final int[] threadCounts = {1, 2, 4, 8, 16};
+
+    /**
+     * runs the benchmark
+     * @param args search depth and number of positions, both optional (String[])
+     */
+    public static void main(String[] args) {
+        int depth = 7;
+        int positionCount = 8;
+        if (args.length > 0) {
+            depth = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            positionCount = Integer.parseInt(args[1]);
+        }
+        ArrayList<Board> positions = midgamePositions(positionCount, 20);
+        System.out.println("depth " + depth + ", " + positions.size() + " positions, "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+        System.out.println();
+        //warm up the JIT so the single-thread times aren't inflated
+        Reversi warmup = new Reversi(64);
+        warmup.setMoveTimeLimit(0);
+        warmup.setMaxDepth(depth);
+        for (Board position : positions) {
+            warmup.findBestMove(new Board(position));
+        }
+        int[] modes = {Reversi.rootSplitting, Reversi.lazySmp};
+        String[] modeNames = {"root splitting", "lazy smp"};
+        for (int m = 0; m < modes.length; m++) {
+            System.out.println(modeNames[m]);
+            System.out.printf("%8s %10s %14s %12s %8s%n", "threads", "ms", "nodes", "nodes/s", "speedup");
+            double baseMillis = 0;
+            for (int threads : threadCounts) {
+                Reversi reversi = new Reversi(64);
+                reversi.setThreads(threads);
+                reversi.setParallelMode(modes[m]);
+                reversi.setMoveTimeLimit(0);
+                reversi.setMaxDepth(depth);
+                reversi.setSeed(1);
+                long nodes = 0;
+                long start = System.nanoTime();
+                for (Board position : positions) {
+                    reversi.findBestMove(new Board(position));
+                    nodes += reversi.getNodesSearched();
+                }
+                double millis = (System.nanoTime() - start) / 1e6;
+                if (threads == 1) {
+                    baseMillis = millis;
+                }
+                System.out.printf("%8d %10.0f %14d %12.0f %8.2f%n", threads, millis, nodes,
+                        nodes / millis * 1000, baseMillis / millis);
+                reversi.setThreads(1);
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * plays random moves from the starting board to reach positions where it's the
+     * computer's turn
+     * @param count number of positions (int)
+     * @param moves number of random moves to play before each position (int)
+     * @return positions with a valid computer move (ArrayList)
+     */
+    static ArrayList<Board> midgamePositions(int count, int moves) {
+        Random random = new Random(2023);
+        ArrayList<Board> out = new ArrayList<>();
+        while (out.size() < count) {
+            Board board = new Board();
+            for (int i = 0; i < moves && !board.gameOver(); i++) {
+                board.findValidMoves();
+                ArrayList<Move> validMoves = board.getValidMoves();
+                if (validMoves.size() == 0) {
+                    board.switchTurn();
+                }
+                else {
+                    board.updateBoard(validMoves.get(random.nextInt(validMoves.size())));
+                }
+            }
+            if (board.getUsersTurn()) {
+                board.switchTurn();
+            }
+            board.findValidMoves();
+            if (!board.gameOver() && board.getValidMoves().size() > 0) {
+                out.add(board);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,94 @@
+package reversi;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * WideBoardBenchmark: JMH benchmarks for move generation, moves and scoring on boards of
+ * each size, over positions halfway through random games. Size 8 can be compared with
+ * BoardBenchmark to see what the multi-word bitsets cost
+ * @author Grace Bocek
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WideBoardBenchmark {
+    private static final int positionCount = 64;
+    @Param({"6", "8", "10", "12", "16"})
+    public int size;
+    private WideBoard[] boards;
+    private int[] firstMoves;
+    private int[] moveArray;
+
+    /**
+     * plays random games halfway through and picks a move to play in each position
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        boards = new WideBoard[positionCount];
+        firstMoves = new int[positionCount];
+        moveArray = new int[size * size];
+        for (int i = 0; i < positionCount; i++) {
+            WideBoard board = new WideBoard(size, false);
+            int moveCount = board.getValidMoves(moveArray);
+            while (moveCount > 0) {
+                int[] count = board.count();
+                if ((count[0] + count[1]) * 2 >= size * size) {
+                    break;
+                }
+                board.makeMove(moveArray[random.nextInt(moveCount)]);
+                moveCount = board.getValidMoves(moveArray);
+                if (moveCount == 0) {
+                    board.switchTurn();
+                    moveCount = board.getValidMoves(moveArray);
+                }
+            }
+            if (moveCount == 0) {
+                //a game that ended early; start this position again
+                i--;
+                continue;
+            }
+            boards[i] = new WideBoard(board.toPositionString());
+            firstMoves[i] = moveArray[0];
+        }
+    }
+
+    @Benchmark
+    public void validMoveArray(Blackhole blackhole) {
+        for (WideBoard board : boards) {
+            blackhole.consume(board.getValidMoves(moveArray));
+        }
+    }
+
+    @Benchmark
+    public void makeAndUnmakeMove(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            boards[i].makeMove(firstMoves[i]);
+            blackhole.consume(boards[i].getHash());
+            boards[i].unmakeMove();
+        }
+    }
+
+    @Benchmark
+    public void getComputerScore(Blackhole blackhole) {
+        for (WideBoard board : boards) {
+            blackhole.consume(board.getComputerScore());
+        }
+    }
+}
@@ -0,0 +1,696 @@
+package reversi;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+/**
+ * Board: a class that represents the board in a reversi game
+ * @author Grace Bocek x500
+ */
+public class Board {
+    private long whiteDiscs;
+    private long blackDiscs;
+    private static final int size = 8;
+    //boards of other sizes are WideBoards
+    public static final int cellCount = size * size;
+    private static final char white = 'O';
+    private static final char black = 'X';
+    private static final char empty = '-';
+    private boolean usersTurn;
+    private ArrayList<Move> validMoves;
+    private boolean gameOver;
+    private int whiteCount;
+    private int blackCount;
+    //undo stack for makeMove/unmakeMove, deep enough for every move and pass of a game
+    private static final int maxUndo = 128;
+    private long[] undoFlips;
+    private int[] undoInfo;
+    private long[] undoHashes;
+    private int undoTop;
+    //Zobrist hash of the discs and the player to move
+    private long hash;
+    //computer's positional score, kept up to date as moves are made
+    private int computerScore;
+    private int[] undoScores;
+    private static final long[] whiteKeys = new long[64];
+    private static final long[] blackKeys = new long[64];
+    private static final long usersTurnKey;
+
+    //squares are numbered row * 8 + col, so bit 0 is 1-a and bit 63 is 8-h
+    private static final long notColA = 0xFEFEFEFEFEFEFEFEL;
+    private static final long notColH = 0x7F7F7F7F7F7F7F7FL;
+    //bit shift for each of the 8 directions: right, left, down, up and the four diagonals
+    private static final int[] shifts = {1, -1, 8, -8, 9, 7, -7, -9};
+    //cells that a disc shifted in each direction can land on without wrapping around a row
+    private static final long[] wrapMasks = {notColA, notColH, -1L, -1L, notColA, notColH, notColA, notColH};
+    //the four corners and the three cells next to each of them
+    private static final long[] corners = {1L, 1L << 7, 1L << 56, 1L << 63};
+    private static final long[] cornerRegions = {0x302L, 0xC040L, 0x0203L << 48, 0x40C0L << 48};
+
+    static {
+        //fixed seed so hashes are the same every run
+        SplittableRandom keyRandom = new SplittableRandom(0x5EED);
+        for (int i = 0; i < 64; i++) {
+            whiteKeys[i] = keyRandom.nextLong();
+            blackKeys[i] = keyRandom.nextLong();
+        }
+        usersTurnKey = keyRandom.nextLong();
+    }
+
+    /**
+     * constructor for a new board where the user moves first
+     */
+    public Board() {
+        this(true);
+    }
+
+    /**
+     * constructor for a new board
+     * @param usersTurn whether the user moves first (bool)
+     */
+    public Board(boolean usersTurn) {
+        initializeBoard();
+        whiteCount = 2;
+        blackCount = 2;
+        this.usersTurn = usersTurn;
+        gameOver = false;
+        validMoves = new ArrayList<>();
+        undoFlips = new long[maxUndo];
+        undoInfo = new int[maxUndo];
+        undoHashes = new long[maxUndo];
+        hash = computeHash();
+        undoScores = new int[maxUndo];
+        computerScore = computeScore();
+        findValidMoves();
+    }
+
+    /**
+     * constructor for a copy of an old board
+     * @param old board to be copied (Board)
+     */
+    public Board(Board old) {
+        whiteDiscs = old.whiteDiscs;
+        blackDiscs = old.blackDiscs;
+        whiteCount = old.whiteCount;
+        blackCount = old.blackCount;
+        usersTurn = old.usersTurn;
+        gameOver = old.gameOver;
+        validMoves = new ArrayList<>();
+        undoFlips = new long[maxUndo];
+        undoInfo = new int[maxUndo];
+        undoHashes = new long[maxUndo];
+        hash = computeHash();
+        undoScores = new int[maxUndo];
+        computerScore = computeScore();
+        findValidMoves();
+    }
+
+    /**
+     * constructor for a board from a position string: 64 cells row by row, each 'O', 'X'
+     * or '-', followed by the piece of the player to move. Spaces and line breaks are ignored
+     * @param position position string (String)
+     */
+    public Board(String position) {
+        String cells = position.replaceAll("\\s", "");
+        if (cells.length() != 65) {
+            throw new IllegalArgumentException("position needs 64 cells and a player to move: " + position);
+        }
+        for (int i = 0; i < 64; i++) {
+            char piece = cells.charAt(i);
+            if (piece == white) {
+                whiteDiscs |= 1L << i;
+            }
+            else if (piece == black) {
+                blackDiscs |= 1L << i;
+            }
+            else if (piece != empty) {
+                throw new IllegalArgumentException("unknown piece '" + piece + "' in position: " + position);
+            }
+        }
+        char toMove = cells.charAt(64);
+        if (toMove != white && toMove != black) {
+            throw new IllegalArgumentException("unknown player to move '" + toMove + "' in position: " + position);
+        }
+        whiteCount = Long.bitCount(whiteDiscs);
+        blackCount = Long.bitCount(blackDiscs);
+        usersTurn = toMove == white;
+        gameOver = whiteCount + blackCount == cellCount;
+        validMoves = new ArrayList<>();
+        undoFlips = new long[maxUndo];
+        undoInfo = new int[maxUndo];
+        undoHashes = new long[maxUndo];
+        hash = computeHash();
+        undoScores = new int[maxUndo];
+        computerScore = computeScore();
+        findValidMoves();
+    }
+
+    /**
+     * represents the board as a position string that the Board(String) constructor reads
+     * @return position string (String)
+     */
+    public String toPositionString() {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            out.append(cell(i / size, i % size));
+        }
+        out.append(' ');
+        out.append(usersTurn ? white : black);
+        return out.toString();
+    }
+
+    /**
+     * represents the reversi board as a string
+     * @return reversi string representation
+     */
+    public String toString() {
+        String header = "  ";
+        for (int i = 0; i < size; i++) {
+            header += (char)(i + 97) + " ";
+        }
+        header += "\n";
+        String out = header;
+        for (int i = 0; i < size; i++) {
+            out += (i + 1) + " ";
+            for (int j = 0; j < size; j++) {
+                out += cell(i, j) + " ";
+            }
+            out += (i + 1) + "\n";
+        }
+        out += header;
+        out += "\n" + white + " count: " + whiteCount + "   " + black + " count: " + blackCount + "\n";
+        return out;
+    }
+
+    /**
+     * gets the piece in a cell
+     * @param row row of the cell (int)
+     * @param col column of the cell (int)
+     * @return piece in the cell (char)
+     */
+    private char cell(int row, int col) {
+        long bit = squareBit(row, col);
+        if ((whiteDiscs & bit) != 0) {
+            return white;
+        }
+        if ((blackDiscs & bit) != 0) {
+            return black;
+        }
+        return empty;
+    }
+
+    /**
+     * sets up a reversi board with two black and two white pieces on the middle diagonals
+     */
+    private void initializeBoard() {
+        int mid = (size - 1)/2;
+        whiteDiscs = squareBit(mid, mid) | squareBit(mid + 1, mid + 1);
+        blackDiscs = squareBit(mid, mid + 1) | squareBit(mid + 1, mid);
+    }
+
+    /**
+     * gets the bit that represents a cell
+     * @param row row of the cell (int)
+     * @param col column of the cell (int)
+     * @return bit for the cell (long)
+     */
+    private static long squareBit(int row, int col) {
+        return 1L << (row * size + col);
+    }
+
+    /**
+     * computes the Zobrist hash of the board from scratch
+     * @return hash of the discs and the player to move (long)
+     */
+    private long computeHash() {
+        long out = usersTurn ? usersTurnKey : 0;
+        for (int i = 0; i < 64; i++) {
+            if ((whiteDiscs & (1L << i)) != 0) {
+                out ^= whiteKeys[i];
+            }
+            else if ((blackDiscs & (1L << i)) != 0) {
+                out ^= blackKeys[i];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * gets the Zobrist hash of the board, which is kept up to date as moves are made
+     * @return hash of the discs and the player to move (long)
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * finds the symmetry that turns the board into its canonical form. Moves stored under
+     * the canonical hash are turned with it, and turned back with its inverse
+     * @return canonical symmetry, 0-7 (int)
+     */
+    public int getSymmetry() {
+        return Symmetry.canonical(blackDiscs, whiteDiscs);
+    }
+
+    /**
+     * gets a hash of the board that is the same for every rotation and reflection of it,
+     * so caches and the opening book hold one entry for all of them
+     * @return canonical hash of the discs and the player to move (long)
+     */
+    public long getCanonicalHash() {
+        return getCanonicalHash(getSymmetry());
+    }
+
+    /**
+     * gets the canonical hash of the board when its canonical symmetry is already known
+     * @param symmetry canonical symmetry, from getSymmetry (int)
+     * @return canonical hash of the discs and the player to move (long)
+     */
+    long getCanonicalHash(int symmetry) {
+        long key = Symmetry.key(blackDiscs, whiteDiscs, symmetry);
+        return usersTurn ? key ^ usersTurnKey : key;
+    }
+
+    /**
+     * shifts every disc in a bitboard one cell in a direction, dropping discs that would
+     * wrap around to another row
+     * @param discs bitboard to shift (long)
+     * @param dir index of the direction (int)
+     * @return shifted bitboard (long)
+     */
+    private static long shift(long discs, int dir) {
+        int amount = shifts[dir];
+        if (amount > 0) {
+            return (discs << amount) & wrapMasks[dir];
+        }
+        return (discs >>> -amount) & wrapMasks[dir];
+    }
+
+    /**
+     * spreads discs in a direction through a run of propagator cells, doubling the
+     * distance covered at each step (Kogge-Stone parallel prefix fill)
+     * @param gen discs the fill starts from (long)
+     * @param pro cells the fill can pass through (long)
+     * @param dir index of the direction (int)
+     * @return the starting discs and every cell the fill reached (long)
+     */
+    private static long fill(long gen, long pro, int dir) {
+        int amount = shifts[dir];
+        pro &= wrapMasks[dir];
+        if (amount > 0) {
+            gen |= pro & (gen << amount);
+            pro &= pro << amount;
+            gen |= pro & (gen << (amount * 2));
+            pro &= pro << (amount * 2);
+            gen |= pro & (gen << (amount * 4));
+        }
+        else {
+            amount = -amount;
+            gen |= pro & (gen >>> amount);
+            pro &= pro >>> amount;
+            gen |= pro & (gen >>> (amount * 2));
+            pro &= pro >>> (amount * 2);
+            gen |= pro & (gen >>> (amount * 4));
+        }
+        return gen;
+    }
+
+    /**
+     * finds every empty cell where the player can sandwich at least one opponent piece
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @return bitboard of legal moves (long)
+     */
+    static long moveMask(long player, long opponent) {
+        long emptyCells = ~(player | opponent);
+        long moves = 0;
+        for (int dir = 0; dir < 8; dir++) {
+            //runs of opponent pieces that start next to a player piece
+            long run = fill(player, opponent, dir) & opponent;
+            moves |= shift(run, dir) & emptyCells;
+        }
+        return moves;
+    }
+
+    /**
+     * finds every cell next to a disc in a bitboard, in any of the 8 directions
+     * @param discs bitboard of discs (long)
+     * @return bitboard of neighboring cells (long)
+     */
+    static long neighbors(long discs) {
+        long out = 0;
+        for (int dir = 0; dir < 8; dir++) {
+            out |= shift(discs, dir);
+        }
+        return out;
+    }
+
+    /**
+     * finds the opponent pieces flipped by placing a piece on a cell
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param moveBit bit of the cell where the piece is placed (long)
+     * @return bitboard of flipped pieces (long)
+     */
+    static long flipMask(long player, long opponent, long moveBit) {
+        long flips = 0;
+        for (int dir = 0; dir < 8; dir++) {
+            long run = fill(moveBit, opponent, dir) & opponent;
+            //the run is only sandwiched if a player piece closes it off
+            if (run != 0 && (shift(run, dir) & player) != 0) {
+                flips |= run;
+            }
+        }
+        return flips;
+    }
+
+    /**
+     * fills an array with the cells of the current player's valid moves, without
+     * allocating anything
+     * @param moves array of at least 64 cells to fill (int[])
+     * @return number of valid moves (int)
+     */
+    public int getValidMoves(int[] moves) {
+        long moveMask = getValidMoveMask();
+        int moveCount = 0;
+        while (moveMask != 0) {
+            moves[moveCount] = Long.numberOfTrailingZeros(moveMask);
+            moveCount++;
+            moveMask &= moveMask - 1;
+        }
+        return moveCount;
+    }
+
+    /**
+     * updates validMoves with a list of possible moves for the current player
+     */
+    public void findValidMoves() {
+        validMoves.clear();
+        long moves = getValidMoveMask();
+        while (moves != 0) {
+            int square = Long.numberOfTrailingZeros(moves);
+            validMoves.add(Move.of(square));
+            moves &= moves - 1;
+        }
+    }
+
+    /**
+     * gets the user's (white) pieces as a bitboard, with bit row * 8 + col set for each piece
+     * @return bitboard of white pieces (long)
+     */
+    public long getWhiteDiscs() {
+        return whiteDiscs;
+    }
+
+    /**
+     * gets the computer's (black) pieces as a bitboard, with bit row * 8 + col set for each piece
+     * @return bitboard of black pieces (long)
+     */
+    public long getBlackDiscs() {
+        return blackDiscs;
+    }
+
+    /**
+     * gets the valid moves for the current player as a bitboard
+     * @return bitboard with a bit set for each valid move (long)
+     */
+    public long getValidMoveMask() {
+        if (usersTurn) {
+            return moveMask(whiteDiscs, blackDiscs);
+        }
+        return moveMask(blackDiscs, whiteDiscs);
+    }
+
+    /**
+     * places the next piece on the board and flips sandwiched piece sequences
+     * @param move coordinates of placed piece (int[])
+     */
+    public void updateBoard(Move move) {
+        placePiece(squareBit(move.getRow(), move.getCol()));
+    }
+
+    /**
+     * places a piece for the current player in place, remembering enough to take it back
+     * with unmakeMove
+     * @param square cell of the placed piece, numbered row * 8 + col (int)
+     */
+    public void makeMove(int square) {
+        pushUndo(square);
+        undoFlips[undoTop - 1] = placePiece(1L << square);
+    }
+
+    /**
+     * skips the current player's turn in place, remembering enough to take it back
+     * with unmakeMove
+     */
+    public void makePass() {
+        pushUndo(-1);
+        undoFlips[undoTop - 1] = 0;
+        switchTurn();
+    }
+
+    /**
+     * takes back the last move or pass made with makeMove or makePass
+     */
+    public void unmakeMove() {
+        undoTop--;
+        hash = undoHashes[undoTop];
+        computerScore = undoScores[undoTop];
+        long flips = undoFlips[undoTop];
+        int info = undoInfo[undoTop];
+        int square = (byte) info;
+        whiteCount = (info >>> 8) & 0xFF;
+        blackCount = (info >>> 16) & 0xFF;
+        usersTurn = (info & (1 << 24)) != 0;
+        gameOver = (info & (1 << 25)) != 0;
+        if (square < 0) {
+            return;
+        }
+        long moveBit = 1L << square;
+        if (usersTurn) {
+            whiteDiscs &= ~(moveBit | flips);
+            blackDiscs |= flips;
+        }
+        else {
+            blackDiscs &= ~(moveBit | flips);
+            whiteDiscs |= flips;
+        }
+    }
+
+    /**
+     * records the move, counts and turn before a move is made
+     * @param square cell of the move, or -1 for a pass (int)
+     */
+    private void pushUndo(int square) {
+        int info = (square & 0xFF) | whiteCount << 8 | blackCount << 16;
+        if (usersTurn) {
+            info |= 1 << 24;
+        }
+        if (gameOver) {
+            info |= 1 << 25;
+        }
+        undoInfo[undoTop] = info;
+        undoHashes[undoTop] = hash;
+        undoScores[undoTop] = computerScore;
+        undoTop++;
+    }
+
+    /**
+     * places a piece for the current player, flips sandwiched piece sequences and
+     * passes the turn
+     * @param moveBit bit of the cell where the piece is placed (long)
+     * @return bitboard of flipped pieces (long)
+     */
+    private long placePiece(long moveBit) {
+        long danger = dangerCells();
+        long flips;
+        if (usersTurn) {
+            flips = flipMask(whiteDiscs, blackDiscs, moveBit);
+            whiteDiscs |= moveBit | flips;
+            blackDiscs &= ~flips;
+        }
+        else {
+            flips = flipMask(blackDiscs, whiteDiscs, moveBit);
+            blackDiscs |= moveBit | flips;
+            whiteDiscs &= ~flips;
+        }
+        int square = Long.numberOfTrailingZeros(moveBit);
+        hash ^= usersTurn ? whiteKeys[square] : blackKeys[square];
+        long flipBits = flips;
+        while (flipBits != 0) {
+            square = Long.numberOfTrailingZeros(flipBits);
+            hash ^= whiteKeys[square] ^ blackKeys[square];
+            flipBits &= flipBits - 1;
+        }
+        updateScore(moveBit, flips, danger);
+        int flipped = Long.bitCount(flips);
+        if (usersTurn) {
+            whiteCount += flipped + 1;
+            blackCount -= flipped;
+        }
+        else {
+            blackCount += flipped + 1;
+            whiteCount -= flipped;
+        }
+        if (blackCount + whiteCount == cellCount) {
+            gameOver = true;
+        }
+        switchTurn();
+        return flips;
+    }
+
+    /**
+     * finds the cells next to empty corners, which pieceScore counts as -10
+     * @return bitboard of cells next to empty corners (long)
+     */
+    private long dangerCells() {
+        long occupied = whiteDiscs | blackDiscs;
+        long out = 0;
+        for (int i = 0; i < 4; i++) {
+            if ((occupied & corners[i]) == 0) {
+                out |= cornerRegions[i];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * updates the computer's score after a piece is placed and pieces are flipped
+     * @param moveBit bit of the cell where the piece was placed (long)
+     * @param flips bitboard of flipped pieces (long)
+     * @param danger cells next to empty corners before the move (long)
+     */
+    private void updateScore(long moveBit, long flips, long danger) {
+        //white pieces count against the computer
+        int sign = usersTurn ? -1 : 1;
+        int placed = 1;
+        if ((moveBit & danger) != 0) {
+            placed = -10;
+        }
+        int cornerIdx = -1;
+        for (int i = 0; i < 4; i++) {
+            if (moveBit == corners[i]) {
+                placed = 10;
+                cornerIdx = i;
+            }
+        }
+        //a flipped piece's value moves from one player to the other; corners can't be flipped
+        int flippedValue = Long.bitCount(flips) - 11 * Long.bitCount(flips & danger);
+        computerScore += sign * (placed + 2 * flippedValue);
+        if (cornerIdx != -1) {
+            //pieces next to the new corner go from -10 to 1
+            long region = cornerRegions[cornerIdx];
+            computerScore += 11 * (Long.bitCount(blackDiscs & region) - Long.bitCount(whiteDiscs & region));
+        }
+    }
+
+    /**
+     * gets valid moves
+     * @return list of valid moves (ArrayList)
+     */
+    public ArrayList<Move> getValidMoves() {
+        return validMoves;
+    }
+
+    /**
+     * switches turns between the user and the computer
+     */
+    public void switchTurn() {
+        usersTurn = !usersTurn;
+        hash ^= usersTurnKey;
+    }
+
+    /**
+     * determines whether it's the user's turn
+     * @return whether it's the user's turn (bool)
+     */
+    public boolean getUsersTurn() {
+        return usersTurn;
+    }
+
+    /**
+     * counts the number of black and white pieces on the board
+     * @return the number of black and white pieces on the board (int[])
+     */
+    public int[] count() {
+        return new int[]{whiteCount, blackCount};
+    }
+
+    /**
+     * ends the reversi game
+     */
+    public void endGame() {
+        gameOver = true;
+    }
+
+    /**
+     * determines whether the reversi game is over
+     * @return whether the game is over (bool)
+     */
+    public boolean gameOver() {
+        return gameOver;
+    }
+    /**
+     * determines the score of a piece based on its location on the board
+     * @param row row where piece is located (int)
+     * @param col column where piece is located (int)
+     * @return score of the piece
+     */
+    public int pieceScore(int row, int col) {
+        int n = size - 1;
+        long occupied = whiteDiscs | blackDiscs;
+        //prefers corner pieces
+        if (( row == 0 || row == n) && (col == 0 || col == n)) {
+            return 10;
+        }
+        //avoids moves next to empty corner
+        if (((row == 0 && col == 1) || (row == 1 && (col == 0 || col == 1)))
+                && (occupied & squareBit(0, 0)) == 0) {
+            return -10;
+        }
+        if (((row == n && col == 1) || (row == n - 1 && (col == 0 || col == 1)))
+                && (occupied & squareBit(n, 0)) == 0) {
+            return -10;
+        }
+        if (((row == 0 && col == n - 1) || (row == 1 && (col == n || col == n - 1)))
+                && (occupied & squareBit(0, n)) == 0) {
+            return -10;
+        }
+        if (((row == n && col == n - 1) || (row == n - 1 && (col == n - 1 || col == n)))
+                && (occupied & squareBit(n, n)) == 0) {
+            return -10;
+        }
+        //other pieces
+        return 1;
+    }
+
+    /**
+     * determines the computer's score on the current board. The score is kept up to date
+     * as moves are made, so this doesn't look at the board
+     * @return the computer's score (int)
+     */
+    public int getComputerScore() {
+        return computerScore;
+    }
+
+    /**
+     * adds up the computer's score from every piece on the board
+     * @return the computer's score (int)
+     */
+    private int computeScore() {
+        int score = 0;
+        long discs = whiteDiscs;
+        while (discs != 0) {
+            int square = Long.numberOfTrailingZeros(discs);
+            score -= pieceScore(square / size, square % size);
+            discs &= discs - 1;
+        }
+        discs = blackDiscs;
+        while (discs != 0) {
+            int square = Long.numberOfTrailingZeros(discs);
+            score += pieceScore(square / size, square % size);
+            discs &= discs - 1;
+        }
+        return score;
+    }
+}
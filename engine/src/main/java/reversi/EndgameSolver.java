@@ -0,0 +1,476 @@
+package reversi;
+
+/**
+ * EndgameSolver: a class that plays out every possible ending of a game with few empty
+ * cells left and finds the exact final result, instead of guessing it with piece scores.
+ * Scores are final disc differences for the player to move, with empty cells going to
+ * the winner. The solver works on plain bitboards and reuses its move lists, so it
+ * doesn't allocate while solving
+ * @author Grace Bocek
+ */
+public class EndgameSolver {
+    //what the solver finds: the exact final disc difference, or only whether the game
+    //is won, lost or drawn, which is much faster
+    public static final int exact = 1;
+    public static final int winLossDraw = 2;
+    public static final int maxScore = 64;
+    //with this many empty cells or fewer, the solver tries each empty cell directly
+    //instead of generating moves
+    private static final int lastEmpties = 4;
+    //with this many empty cells or more, moves are sorted so the opponent has as few
+    //replies as possible and results are kept in the transposition table
+    private static final int sortedEmpties = 6;
+    //stored depths start past the deepest normal search so the two never share entries
+    private static final int tableDepthOffset = Search.maxDepth;
+    //the four 4x4 quarters of the board, for parity
+    private static final long[] quadrants = {0x0F0F0F0FL, 0xF0F0F0F0L, 0x0F0F0F0FL << 32, 0xF0F0F0F0L << 32};
+    private static final long cornerCells = 0x8100000000000081L;
+    private TranspositionTable table;
+    private SearchLimits limits;
+    //move list and sort keys for each number of empty cells
+    private int[][] moveLists;
+    private int[][] moveKeys;
+    private long nodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long tableProbes;
+    private long tableHits;
+    private boolean aborted;
+    private int lastScore;
+
+    /**
+     * constructor for a solver
+     * @param table transposition table to use; it can be shared with a Search (TranspositionTable)
+     * @param limits time and node budget to solve within (SearchLimits)
+     */
+    public EndgameSolver(TranspositionTable table, SearchLimits limits) {
+        this.table = table;
+        this.limits = limits;
+        moveLists = new int[61][64];
+        moveKeys = new int[61][64];
+    }
+
+    /**
+     * finds the best of the valid moves. Ties go to the move that comes first
+     * @param position board to solve (Board)
+     * @param rootMoves cells of the valid moves of the player to move (int[])
+     * @param mode exact or winLossDraw (int)
+     * @return index of the best move, or -1 if the solver ran out of time or nodes (int)
+     */
+    public int solveRoot(Board position, int[] rootMoves, int mode) {
+        if (mode != exact && mode != winLossDraw) {
+            throw new IllegalArgumentException("unknown endgame mode " + mode);
+        }
+        resetStatistics();
+        long player = position.getBlackDiscs();
+        long opponent = position.getWhiteDiscs();
+        if (position.getUsersTurn()) {
+            player = position.getWhiteDiscs();
+            opponent = position.getBlackDiscs();
+        }
+        int empties = 63 - Long.bitCount(player | opponent);
+        int beta = mode == exact ? maxScore : 1;
+        int bestIdx = -1;
+        int bestScore = -maxScore;
+        for (int i = 0; i < rootMoves.length && bestScore < beta; i++) {
+            long moveBit = 1L << rootMoves[i];
+            long flips = Board.flipMask(player, opponent, moveBit);
+            int alpha = bestIdx == -1 ? -beta : bestScore;
+            int score = -solve(opponent ^ flips, player | moveBit | flips, empties, -beta, -alpha, false);
+            if (aborted) {
+                return -1;
+            }
+            if (score > bestScore || bestIdx == -1) {
+                bestScore = score;
+                bestIdx = i;
+            }
+        }
+        lastScore = bestScore;
+        return bestIdx;
+    }
+
+    /**
+     * solves a position
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param mode exact or winLossDraw (int)
+     * @return final disc difference for the player to move; in winLossDraw mode only its
+     * sign is right. 0 if the solver ran out of time or nodes (int)
+     */
+    public int solve(long player, long opponent, int mode) {
+        resetStatistics();
+        int beta = mode == exact ? maxScore : 1;
+        int score = solve(player, opponent, 64 - Long.bitCount(player | opponent), -beta, beta, false);
+        lastScore = aborted ? 0 : score;
+        return lastScore;
+    }
+
+    /**
+     * gets the score of the last solve, for the player to move
+     * @return final disc difference, or just its sign in winLossDraw mode (int)
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * gets the number of positions searched by the last solve
+     * @return nodes searched (long)
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * adds the last solve's statistics to a total. Every position the solver reaches is
+     * scored exactly, so it has no separate leaf count
+     * @param statistics total to add to (SearchStatistics)
+     */
+    public void addStatistics(SearchStatistics statistics) {
+        statistics.add(nodes, 0, cutoffs, firstMoveCutoffs, tableProbes, tableHits);
+    }
+
+    /**
+     * starts the statistics and abort flag over for a new solve
+     */
+    private void resetStatistics() {
+        nodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        aborted = false;
+    }
+
+    /**
+     * determines whether the last solve ran out of time or nodes before finishing
+     * @return whether the last solve was cut short (bool)
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * counts a searched position and checks whether the solver has run out of time or nodes
+     * @return whether the solver should stop (bool)
+     */
+    private boolean outOfBudget() {
+        nodes++;
+        if ((nodes & 1023) == 0 && limits.check(1024)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * finds the final disc difference of a position with more empty cells, using
+     * fail-soft alpha-beta
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param empties number of empty cells (int)
+     * @param alpha score the player to move already has (int)
+     * @param beta score the opponent already has, negated (int)
+     * @param passed whether the opponent just skipped a turn (bool)
+     * @return final disc difference for the player to move (int)
+     */
+    private int solve(long player, long opponent, int empties, int alpha, int beta, boolean passed) {
+        if (empties <= lastEmpties) {
+            return solveLast(player, opponent, empties, alpha, beta, passed);
+        }
+        if (outOfBudget()) {
+            return 0;
+        }
+        long moveMask = Board.moveMask(player, opponent);
+        if (moveMask == 0) {
+            if (passed) {
+                return finalScore(player, opponent, empties);
+            }
+            return -solve(opponent, player, empties, -beta, -alpha, true);
+        }
+        long hash = 0;
+        int tableMove = -1;
+        if (empties >= sortedEmpties) {
+            //symmetric positions don't come up this late, so positions are keyed as they are
+            hash = Symmetry.key(player, opponent, 0);
+            long entry = table.probe(hash);
+            tableProbes++;
+            if (entry != 0) {
+                tableHits++;
+                tableMove = TranspositionTable.bestMoveOf(entry);
+            }
+            if (entry != 0 && TranspositionTable.depthOf(entry) == tableDepthOffset + empties) {
+                int score = TranspositionTable.scoreOf(entry);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.exact) {
+                    return score;
+                }
+                if (bound == TranspositionTable.lowerBound) {
+                    alpha = Math.max(alpha, score);
+                }
+                else {
+                    beta = Math.min(beta, score);
+                }
+                if (beta <= alpha) {
+                    return score;
+                }
+            }
+        }
+        int[] moves = moveLists[empties];
+        int moveCount = loadMoves(player, opponent, moveMask, empties, tableMove);
+        int alphaOrig = alpha;
+        int bestScore = -maxScore - 1;
+        int bestMove = -1;
+        for (int i = 0; i < moveCount; i++) {
+            long moveBit = 1L << moves[i];
+            long flips = Board.flipMask(player, opponent, moveBit);
+            long nextPlayer = opponent ^ flips;
+            long nextOpponent = player | moveBit | flips;
+            int score;
+            if (i == 0) {
+                score = -solve(nextPlayer, nextOpponent, empties - 1, -beta, -alpha, false);
+            }
+            else {
+                //principal variation search: check with a null window that the move can't
+                //beat the best one so far, and only search it fully if it can
+                score = -solve(nextPlayer, nextOpponent, empties - 1, -alpha - 1, -alpha, false);
+                if (score > alpha && score < beta && !aborted) {
+                    score = -solve(nextPlayer, nextOpponent, empties - 1, -beta, -score, false);
+                }
+            }
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = moves[i];
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        cutoffs++;
+                        if (i == 0) {
+                            firstMoveCutoffs++;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (empties >= sortedEmpties) {
+            int bound = TranspositionTable.exact;
+            if (bestScore <= alphaOrig) {
+                bound = TranspositionTable.upperBound;
+            }
+            else if (bestScore >= beta) {
+                bound = TranspositionTable.lowerBound;
+            }
+            table.store(hash, tableDepthOffset + empties, bestScore, bound, bestMove);
+        }
+        return bestScore;
+    }
+
+    /**
+     * copies the cells of a move bitboard into the move list for this many empty cells.
+     * Deep in the endgame, moves that leave the opponent the fewest replies are tried
+     * first (fastest-first), with corners and moves into quarters with an odd number of
+     * empty cells ahead of equal moves. Near the end, only the parity order is used
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param moveMask bitboard of valid moves (long)
+     * @param empties number of empty cells (int)
+     * @param tableMove best move stored in the transposition table, or -1 (int)
+     * @return number of moves in the list (int)
+     */
+    private int loadMoves(long player, long opponent, long moveMask, int empties, int tableMove) {
+        int[] moves = moveLists[empties];
+        int[] keys = moveKeys[empties];
+        long odd = oddQuadrants(~(player | opponent));
+        int moveCount = 0;
+        while (moveMask != 0) {
+            int square = Long.numberOfTrailingZeros(moveMask);
+            long moveBit = moveMask & -moveMask;
+            moveMask &= moveMask - 1;
+            int key = 0;
+            if ((moveBit & odd) != 0) {
+                key += 1;
+            }
+            if ((moveBit & cornerCells) != 0) {
+                key += 2;
+            }
+            if (square == tableMove) {
+                key = Integer.MAX_VALUE;
+            }
+            else if (empties >= sortedEmpties) {
+                long flips = Board.flipMask(player, opponent, moveBit);
+                long replies = Board.moveMask(opponent ^ flips, player | moveBit | flips);
+                //corner replies count twice since they're the hardest to take back
+                int mobility = Long.bitCount(replies) + Long.bitCount(replies & cornerCells);
+                key += (64 - mobility) << 2;
+            }
+            //insertion sort, highest key first
+            int j = moveCount;
+            while (j > 0 && keys[j - 1] < key) {
+                keys[j] = keys[j - 1];
+                moves[j] = moves[j - 1];
+                j--;
+            }
+            keys[j] = key;
+            moves[j] = square;
+            moveCount++;
+        }
+        return moveCount;
+    }
+
+    /**
+     * finds the final disc difference of a position with only a few empty cells left.
+     * Instead of generating moves, each empty cell is tried directly, starting with cells
+     * in quarters of the board with an odd number of empty cells, since the last move in
+     * a region is usually worth the most
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param empties number of empty cells (int)
+     * @param alpha score the player to move already has (int)
+     * @param beta score the opponent already has, negated (int)
+     * @param passed whether the opponent just skipped a turn (bool)
+     * @return final disc difference for the player to move (int)
+     */
+    private int solveLast(long player, long opponent, int empties, int alpha, int beta, boolean passed) {
+        nodes++;
+        long emptyCells = ~(player | opponent);
+        if (empties == 1) {
+            return solveLastCell(player, opponent, emptyCells);
+        }
+        long odd = oddQuadrants(emptyCells);
+        int bestScore = -maxScore - 1;
+        //odd quarters first, then even quarters
+        for (int pass = 0; pass < 2; pass++) {
+            long cells = emptyCells & (pass == 0 ? odd : ~odd);
+            while (cells != 0) {
+                long moveBit = cells & -cells;
+                cells &= cells - 1;
+                long flips = Board.flipMask(player, opponent, moveBit);
+                if (flips == 0) {
+                    continue;
+                }
+                int score = -solveLast(opponent ^ flips, player | moveBit | flips, empties - 1, -beta, -alpha, false);
+                if (score > bestScore) {
+                    bestScore = score;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            return bestScore;
+                        }
+                    }
+                }
+            }
+        }
+        if (bestScore == -maxScore - 1) {
+            //no valid moves
+            if (passed) {
+                return finalScore(player, opponent, empties);
+            }
+            return -solveLast(opponent, player, empties, -beta, -alpha, true);
+        }
+        return bestScore;
+    }
+
+    /**
+     * finds the final disc difference of a position with one empty cell left
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param moveBit bit of the empty cell (long)
+     * @return final disc difference for the player to move (int)
+     */
+    private int solveLastCell(long player, long opponent, long moveBit) {
+        //the player's discs minus the opponent's, with the last cell still empty
+        int score = 2 * Long.bitCount(player) - 63;
+        int flips = Long.bitCount(Board.flipMask(player, opponent, moveBit));
+        if (flips != 0) {
+            return score + 2 * flips + 1;
+        }
+        flips = Long.bitCount(Board.flipMask(opponent, player, moveBit));
+        if (flips != 0) {
+            return score - 2 * flips - 1;
+        }
+        //neither player can move; the empty cell goes to the winner
+        if (score > 0) {
+            return score + 1;
+        }
+        if (score < 0) {
+            return score - 1;
+        }
+        return 0;
+    }
+
+    /**
+     * scores a finished game, giving the empty cells to the winner
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param empties number of empty cells (int)
+     * @return final disc difference for the player to move (int)
+     */
+    private static int finalScore(long player, long opponent, int empties) {
+        int score = Long.bitCount(player) - Long.bitCount(opponent);
+        if (score > 0) {
+            return score + empties;
+        }
+        if (score < 0) {
+            return score - empties;
+        }
+        return 0;
+    }
+
+    /**
+     * finds the quarters of the board with an odd number of empty cells
+     * @param emptyCells bitboard of empty cells (long)
+     * @return bitboard of every cell in those quarters (long)
+     */
+    private static long oddQuadrants(long emptyCells) {
+        long odd = 0;
+        for (long quadrant : quadrants) {
+            if ((Long.bitCount(emptyCells & quadrant) & 1) != 0) {
+                odd |= quadrant;
+            }
+        }
+        return odd;
+    }
+
+    /**
+     * solves a position from the command line and prints the score, best move and speed:
+     * EndgameSolver position [--wld]. A position is 64 cells row by row ('O', 'X' or '-')
+     * followed by the player to move
+     * @param args command line arguments (String[])
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("usage: EndgameSolver position [--wld]");
+            return;
+        }
+        Board board = new Board(args[0]);
+        int mode = args.length > 1 && args[1].equals("--wld") ? winLossDraw : exact;
+        board.findValidMoves();
+        long moveMask = board.getValidMoveMask();
+        int[] rootMoves = new int[Long.bitCount(moveMask)];
+        for (int i = 0; i < rootMoves.length; i++) {
+            rootMoves[i] = Long.numberOfTrailingZeros(moveMask);
+            moveMask &= moveMask - 1;
+        }
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(64), new SearchLimits());
+        solver.limits.start(0, 0);
+        System.out.println(board);
+        long start = System.nanoTime();
+        String move = "pass";
+        if (rootMoves.length == 0) {
+            long player = board.getUsersTurn() ? board.getWhiteDiscs() : board.getBlackDiscs();
+            long opponent = board.getUsersTurn() ? board.getBlackDiscs() : board.getWhiteDiscs();
+            solver.solve(player, opponent, mode);
+        }
+        else {
+            int square = rootMoves[solver.solveRoot(board, rootMoves, mode)];
+            move = Move.of(square).toString();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println((mode == exact ? "score " : "win/loss/draw ") + solver.getLastScore() + ", best move "
+                + move + ", " + solver.getNodes() + " nodes in " + String.format("%.2f", seconds) + " s ("
+                + String.format("%.0f", solver.getNodes() / seconds) + " nodes/s)");
+    }
+}
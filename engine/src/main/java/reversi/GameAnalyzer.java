@@ -0,0 +1,355 @@
+package reversi;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * GameAnalyzer: a class that goes through game record files and annotates every move
+ * with the engine's best move, both moves' scores and how much the played move lost.
+ * Games are read one at a time and their positions are searched on a thread pool; only a
+ * fixed number of positions are in flight at once, and annotations are written in the
+ * order the moves were played, so memory use doesn't grow with the size of the files.
+ * A checkpoint file next to the output records how many games are finished, so an
+ * interrupted run picks up where it stopped
+ * @author Grace Bocek
+ */
+public class GameAnalyzer {
+    private static final String csvHeader = "game,ply,player,played,best,best_score,played_score,loss";
+    //how often the checkpoint is saved, in milliseconds
+    private static final long checkpointInterval = 2000;
+    private int depth;
+    private long moveTimeLimit;
+    private int tableMegabytes;
+    private ProbCut probCut;
+    //each pool thread reuses its own engine from position to position
+    private ThreadLocal<Reversi> engines;
+    private long positions;
+    //progress of the current run: bytes written, and the games and bytes up to the last finished game
+    private long written;
+    private long gamesDone;
+    private long doneBytes;
+
+    /**
+     * an annotation waiting to be written, or the end of a game
+     */
+    private static class Pending {
+        private Future<String> line;
+        private boolean gameEnd;
+
+        private Pending(Future<String> line, boolean gameEnd) {
+            this.line = line;
+            this.gameEnd = gameEnd;
+        }
+    }
+
+    /**
+     * constructor for an analyzer
+     * @param depth search depth for the best move; the played move's reply is searched one less (int)
+     * @param moveTimeLimit time limit for each search in milliseconds, or 0 for no limit (long)
+     * @param tableMegabytes size of each thread's transposition table in MB (int)
+     */
+    public GameAnalyzer(int depth, long moveTimeLimit, int tableMegabytes) {
+        this.depth = Math.max(depth, 1);
+        this.moveTimeLimit = moveTimeLimit;
+        this.tableMegabytes = tableMegabytes;
+        engines = ThreadLocal.withInitial(() -> {
+            Reversi engine = new Reversi(true, this.tableMegabytes);
+            engine.setMoveTimeLimit(this.moveTimeLimit);
+            return engine;
+        });
+    }
+
+    /**
+     * sets the ProbCut statistics the searches prune with. Analysis searches exactly
+     * unless this is set
+     * @param probCut ProbCut statistics, or null for a full-width search (ProbCut)
+     */
+    public void setProbCut(ProbCut probCut) {
+        this.probCut = probCut;
+    }
+
+    /**
+     * annotates one move
+     * @param position board before the move, with the player to move able to move; it is left unchanged (Board)
+     * @param played cell of the move that was played (int)
+     * @param game number of the game, counting from 0 across every file (long)
+     * @param ply number of the move in the game, counting skipped turns (int)
+     * @return the move's line of the annotation file (String)
+     */
+    public String analyzeMove(Board position, int played, long game, int ply) {
+        Reversi engine = engines.get();
+        engine.setProbCut(probCut);
+        engine.setSeed(position.getHash());
+        engine.setMaxDepth(depth);
+        int best = engine.findBestMove(position).getSquare();
+        int bestScore = engine.getLastScore();
+        int playedScore = bestScore;
+        if (played != best) {
+            playedScore = scoreAfter(engine, position, played);
+        }
+        String player = position.getUsersTurn() ? "white" : "black";
+        return game + "," + ply + "," + player + "," + Move.of(played) + "," + Move.of(best) + ","
+                + bestScore + "," + playedScore + "," + (bestScore - playedScore);
+    }
+
+    /**
+     * scores a move by searching the reply to it one level less deep
+     * @param engine this thread's engine (Reversi)
+     * @param position board before the move (Board)
+     * @param played cell of the move (int)
+     * @return score of the move for the player who made it (int)
+     */
+    private int scoreAfter(Reversi engine, Board position, int played) {
+        Board board = new Board(position);
+        boolean mover = board.getUsersTurn();
+        board.makeMove(played);
+        if (board.getValidMoveMask() == 0) {
+            board.switchTurn();
+            if (board.getValidMoveMask() == 0) {
+                //neither player can move, so the game is over
+                int[] count = board.count();
+                return mover ? count[0] - count[1] : count[1] - count[0];
+            }
+        }
+        engine.setMaxDepth(Math.max(depth - 1, 1));
+        engine.findBestMove(board);
+        //the same player is to move again if the opponent has to skip
+        return board.getUsersTurn() == mover ? engine.getLastScore() : -engine.getLastScore();
+    }
+
+    /**
+     * annotates every move of the games in some game record files. If the checkpoint file
+     * exists, the games it records as finished are skipped and their annotations are kept
+     * @param gameFiles game record files, analyzed in order (String[])
+     * @param outFile annotation file, written as CSV (String)
+     * @param checkpointFile file the progress is saved to, or null to always start over (String)
+     * @param threads number of threads (int)
+     * @param window most positions searched or waiting to be written at once (int)
+     * @return number of games analyzed, not counting skipped ones (long)
+     * @throws Exception if a file can't be read or written, or a search fails
+     */
+    public long analyze(String[] gameFiles, String outFile, String checkpointFile, int threads, int window)
+            throws Exception {
+        long skip = 0;
+        long bytes = 0;
+        if (checkpointFile != null && new File(checkpointFile).exists()) {
+            String[] parts = new String(Files.readAllBytes(Path.of(checkpointFile)), StandardCharsets.US_ASCII)
+                    .trim().split(" ");
+            skip = Long.parseLong(parts[0]);
+            bytes = Long.parseLong(parts[1]);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(outFile, "rw")) {
+            if (file.length() < bytes) {
+                throw new IOException(outFile + " is shorter than " + checkpointFile + " says");
+            }
+            //anything after the checkpoint is from games that weren't finished
+            file.setLength(bytes);
+        }
+        positions = 0;
+        written = bytes;
+        gamesDone = skip;
+        doneBytes = bytes;
+        long savedGames = skip;
+        long lastCheckpoint = System.currentTimeMillis();
+        long game = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Pending> pending = new ArrayDeque<>();
+        FileOutputStream fileOut = new FileOutputStream(outFile, true);
+        try (OutputStream out = new BufferedOutputStream(fileOut, 1 << 16)) {
+            if (bytes == 0) {
+                written += write(out, csvHeader);
+                doneBytes = written;
+            }
+            for (String gameFile : gameFiles) {
+                try (GameRecordReader reader = new GameRecordReader(gameFile)) {
+                    while (reader.next()) {
+                        if (game++ < skip) {
+                            continue;
+                        }
+                        long gameIdx = game - 1;
+                        Board board = new Board(reader.getUserFirst());
+                        for (int ply = 0; ply < reader.getMoveCount(); ply++) {
+                            int square = reader.getMove(ply);
+                            if (square == GameRecordWriter.pass) {
+                                board.switchTurn();
+                                continue;
+                            }
+                            Board position = new Board(board);
+                            int plyIdx = ply;
+                            //wait for the oldest position before starting another
+                            while (pending.size() >= window) {
+                                writeNext(out, pending);
+                            }
+                            pending.add(new Pending(pool.submit(() -> analyzeMove(position, square, gameIdx, plyIdx)),
+                                    false));
+                            board.updateBoard(Move.of(square));
+                        }
+                        pending.add(new Pending(null, true));
+                        //write whatever is already finished without waiting
+                        while (!pending.isEmpty() && (pending.peek().gameEnd || pending.peek().line.isDone())) {
+                            writeNext(out, pending);
+                        }
+                        if (checkpointFile != null && gamesDone > savedGames
+                                && System.currentTimeMillis() - lastCheckpoint >= checkpointInterval) {
+                            out.flush();
+                            fileOut.getFD().sync();
+                            saveCheckpoint(checkpointFile, gamesDone, doneBytes);
+                            savedGames = gamesDone;
+                            lastCheckpoint = System.currentTimeMillis();
+                        }
+                    }
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeNext(out, pending);
+            }
+            out.flush();
+            fileOut.getFD().sync();
+            if (checkpointFile != null) {
+                saveCheckpoint(checkpointFile, gamesDone, doneBytes);
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        return gamesDone - skip;
+    }
+
+    /**
+     * writes the oldest waiting annotation, waiting for its search to finish, or marks
+     * the end of a game
+     * @param out annotation file (OutputStream)
+     * @param pending annotations in move order (ArrayDeque)
+     * @throws Exception if the search failed or the line can't be written
+     */
+    private void writeNext(OutputStream out, ArrayDeque<Pending> pending) throws Exception {
+        Pending next = pending.poll();
+        if (next.gameEnd) {
+            gamesDone++;
+            doneBytes = written;
+            return;
+        }
+        written += write(out, next.line.get());
+        positions++;
+    }
+
+    /**
+     * writes one line of the annotation file
+     * @param out annotation file (OutputStream)
+     * @param line line without the line break (String)
+     * @return number of bytes written (int)
+     * @throws IOException if the line can't be written
+     */
+    private static int write(OutputStream out, String line) throws IOException {
+        byte[] data = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+        out.write(data);
+        return data.length;
+    }
+
+    /**
+     * saves the number of finished games and the length of their annotations. The file is
+     * written beside the checkpoint and moved over it, so it is never left half-written
+     * @param checkpointFile checkpoint file (String)
+     * @param games number of games whose annotations are all written (long)
+     * @param bytes length of the annotation file up to the end of those games (long)
+     * @throws IOException if the checkpoint can't be written
+     */
+    private static void saveCheckpoint(String checkpointFile, long games, long bytes) throws IOException {
+        Path path = Path.of(checkpointFile);
+        Path temp = Path.of(checkpointFile + ".tmp");
+        Files.write(temp, (games + " " + bytes + "\n").getBytes(StandardCharsets.US_ASCII));
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * gets the number of moves annotated by the last call to analyze
+     * @return moves annotated (long)
+     */
+    public long getPositions() {
+        return positions;
+    }
+
+    /**
+     * annotates game record files from the command line:
+     * GameAnalyzer annotations.csv games.rec... [--depth n] [--time ms] [--threads n]
+     * [--window n] [--hash megabytes] [--probcut on|off|statistics-file] [--restart]
+     * @param args command line arguments (String[])
+     * @throws Exception if a file can't be read or written, or a search fails
+     */
+    public static void main(String[] args) throws Exception {
+        int depth = 6;
+        long moveTimeLimit = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int window = 0;
+        int tableMegabytes = 8;
+        String probCutName = "off";
+        boolean restart = false;
+        int fileCount = 0;
+        while (fileCount + 1 < args.length && !args[fileCount + 1].startsWith("--")) {
+            fileCount++;
+        }
+        if (args.length == 0 || args[0].startsWith("--") || fileCount == 0) {
+            throw new IllegalArgumentException("usage: GameAnalyzer annotations.csv games.rec... [--depth n] "
+                    + "[--time ms] [--threads n] [--window n] [--hash MB] [--probcut on|off|file] [--restart]");
+        }
+        String outFile = args[0];
+        String[] gameFiles = new String[fileCount];
+        System.arraycopy(args, 1, gameFiles, 0, fileCount);
+        for (int i = fileCount + 1; i < args.length; i += 2) {
+            if (args[i].equals("--restart")) {
+                restart = true;
+                i--;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--depth": depth = Integer.parseInt(value); break;
+                case "--time": moveTimeLimit = Long.parseLong(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--window": window = Integer.parseInt(value); break;
+                case "--hash": tableMegabytes = Integer.parseInt(value); break;
+                case "--probcut": probCutName = value; break;
+                default: throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        if (window <= 0) {
+            window = threads * 4;
+        }
+        String checkpointFile = outFile + ".checkpoint";
+        if (restart) {
+            Files.deleteIfExists(Path.of(checkpointFile));
+        }
+        else if (new File(checkpointFile).exists()) {
+            System.out.println("Resuming from " + checkpointFile);
+        }
+        GameAnalyzer analyzer = new GameAnalyzer(depth, moveTimeLimit, tableMegabytes);
+        if (probCutName.equals("on")) {
+            analyzer.setProbCut(ProbCut.getDefault());
+        }
+        else if (!probCutName.equals("off")) {
+            analyzer.setProbCut(ProbCut.load(probCutName));
+        }
+        long start = System.nanoTime();
+        long games = analyzer.analyze(gameFiles, outFile, checkpointFile, threads, window);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(games + " games, " + analyzer.getPositions() + " moves annotated, " + threads
+                + " threads, depth " + depth);
+        System.out.println(String.format("%.1f", analyzer.getPositions() / seconds) + " moves/s, "
+                + String.format("%.1f", seconds) + " s");
+    }
+}
@@ -0,0 +1,248 @@
+package reversi;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * GameRecordReader: a class that reads the games in a game record file one after another.
+ * The file is memory-mapped a large window at a time, and the current game is read
+ * straight from the mapping, so going through millions of games doesn't allocate
+ * anything per game. Each game's header gives its number of moves, so the next game is
+ * found without searching. A game cut short at the end of the file is skipped
+ * @author Grace Bocek
+ */
+public class GameRecordReader implements AutoCloseable {
+    private static final long windowBytes = 1L << 30;
+    //the longest a game can be in the file
+    private static final int maxGameBytes = GameRecordWriter.gameHeaderBytes + GameRecordWriter.maxMoves + 3;
+    private FileChannel channel;
+    private long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    //file offsets of the current game and the one after it
+    private long gameStart;
+    private long nextGame;
+    private int moveCount;
+
+    /**
+     * constructor for a reader positioned before the first game
+     * @param file path of the game record file (String)
+     * @throws IOException if the file can't be read or isn't a game record file
+     */
+    public GameRecordReader(String file) throws IOException {
+        channel = FileChannel.open(Path.of(file), StandardOpenOption.READ);
+        fileSize = channel.size();
+        if (fileSize < GameRecordWriter.fileHeaderBytes) {
+            channel.close();
+            throw new IOException(file + " isn't a game record file");
+        }
+        map(0);
+        if (window.getInt(0) != GameRecordWriter.magic) {
+            channel.close();
+            throw new IOException(file + " isn't a game record file");
+        }
+        if (window.getInt(4) != GameRecordWriter.version) {
+            channel.close();
+            throw new IOException(file + " is game record version " + window.getInt(4) + ", not "
+                    + GameRecordWriter.version);
+        }
+        nextGame = GameRecordWriter.fileHeaderBytes;
+    }
+
+    /**
+     * maps a window of the file
+     * @param start file offset where the window starts (long)
+     * @throws IOException if the file can't be mapped
+     */
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowBytes, fileSize - start));
+    }
+
+    /**
+     * moves on to the next game
+     * @return whether there was another complete game (bool)
+     * @throws IOException if the file can't be mapped, or a game in it is damaged
+     */
+    public boolean next() throws IOException {
+        long start = nextGame;
+        long available = Math.min(maxGameBytes, fileSize - start);
+        if (available < GameRecordWriter.gameHeaderBytes) {
+            return false;
+        }
+        if (start + available > windowStart + window.capacity()) {
+            map(start);
+        }
+        int offset = (int) (start - windowStart);
+        int count = window.get(offset + GameRecordWriter.gameHeaderBytes - 1) & 0xFF;
+        if (count > GameRecordWriter.maxMoves) {
+            throw new IOException("damaged game at byte " + start + ": " + count + " moves");
+        }
+        if (GameRecordWriter.gameHeaderBytes + count + 3 > available) {
+            //the writer stopped partway through this game
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if ((window.get(offset + GameRecordWriter.gameHeaderBytes + i) & 0xFF) > GameRecordWriter.pass) {
+                throw new IOException("damaged game at byte " + start + ": bad move");
+            }
+        }
+        if ((window.get(offset + GameRecordWriter.gameHeaderBytes + count) & 0xFF) != GameRecordWriter.endOfGame) {
+            throw new IOException("damaged game at byte " + start + ": no end marker");
+        }
+        gameStart = start;
+        moveCount = count;
+        nextGame = start + GameRecordWriter.gameHeaderBytes + count + 3;
+        return true;
+    }
+
+    /**
+     * gets the file offset just past the last game read, where a game cut short starts
+     * once next has returned false
+     * @return file offset (long)
+     */
+    long getEnd() {
+        return nextGame;
+    }
+
+    /**
+     * reads a byte of the current game
+     * @param index position in the game, counting from the start of its header (int)
+     * @return the byte, from 0 to 255 (int)
+     */
+    private int gameByte(int index) {
+        return window.get((int) (gameStart - windowStart) + index) & 0xFF;
+    }
+
+    /**
+     * determines whether the user (white) moved first in the current game
+     * @return whether the user moved first (bool)
+     */
+    public boolean getUserFirst() {
+        return (gameByte(0) & GameRecordWriter.userFirstFlag) != 0;
+    }
+
+    /**
+     * gets the search depth of the computer playing black in the current game
+     * @return search depth, or 0 for a person (int)
+     */
+    public int getBlackDepth() {
+        return gameByte(1);
+    }
+
+    /**
+     * gets the search depth of the computer playing white in the current game
+     * @return search depth, or 0 for a person (int)
+     */
+    public int getWhiteDepth() {
+        return gameByte(2);
+    }
+
+    /**
+     * gets the computer's time limit per move in the current game
+     * @return time limit in milliseconds, or 0 for none (int)
+     */
+    public int getMoveTimeLimit() {
+        return gameByte(3) << 8 | gameByte(4);
+    }
+
+    /**
+     * gets the number of moves in the current game, counting skipped turns
+     * @return number of moves (int)
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * gets a move of the current game
+     * @param i index of the move (int)
+     * @return cell of the move, or GameRecordWriter.pass for a skipped turn (int)
+     */
+    public int getMove(int i) {
+        if (i < 0 || i >= moveCount) {
+            throw new IndexOutOfBoundsException("move " + i + " of " + moveCount);
+        }
+        return gameByte(GameRecordWriter.gameHeaderBytes + i);
+    }
+
+    /**
+     * gets the number of black pieces at the end of the current game
+     * @return black pieces (int)
+     */
+    public int getBlackCount() {
+        return gameByte(GameRecordWriter.gameHeaderBytes + moveCount + 1);
+    }
+
+    /**
+     * gets the number of white pieces at the end of the current game
+     * @return white pieces (int)
+     */
+    public int getWhiteCount() {
+        return gameByte(GameRecordWriter.gameHeaderBytes + moveCount + 2);
+    }
+
+    /**
+     * plays the first moves of the current game on a new board, to analyze a position.
+     * The board is marked as over once every move of the game has been played
+     * @param plies number of moves to play, counting skipped turns (int)
+     * @return board after the moves (Board)
+     */
+    public Board replay(int plies) {
+        Board board = new Board(getUserFirst());
+        for (int i = 0; i < Math.min(plies, moveCount); i++) {
+            int square = getMove(i);
+            if (square == GameRecordWriter.pass) {
+                board.switchTurn();
+            }
+            else {
+                board.updateBoard(Move.of(square));
+            }
+        }
+        if (plies >= moveCount) {
+            board.endGame();
+        }
+        return board;
+    }
+
+    /**
+     * closes the file
+     * @throws IOException if the file can't be closed
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * reads every game in a file and prints a summary: GameRecordReader file
+     * @param args command line arguments (String[])
+     * @throws IOException if the file can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        long games = 0;
+        long moves = 0;
+        long blackWins = 0;
+        long whiteWins = 0;
+        try (GameRecordReader reader = new GameRecordReader(args[0])) {
+            while (reader.next()) {
+                games++;
+                moves += reader.getMoveCount();
+                if (reader.getBlackCount() > reader.getWhiteCount()) {
+                    blackWins++;
+                }
+                else if (reader.getBlackCount() < reader.getWhiteCount()) {
+                    whiteWins++;
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(games + " games, " + moves + " moves; black wins " + blackWins + ", white wins "
+                + whiteWins + ", ties " + (games - blackWins - whiteWins));
+        System.out.println("read in " + String.format("%.2f", seconds) + " s ("
+                + String.format("%.0f", games / seconds) + " games/s)");
+    }
+}
@@ -0,0 +1,235 @@
+package reversi;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * GameRecordWriter: a class that appends games to a game record file. The file starts
+ * with a magic number and version, and each game is a 6-byte header (flags, each side's
+ * search depth, the computer's time limit per move and the number of moves), one byte per
+ * move (the cell, or pass), an end marker and the final piece counts, which comes to about
+ * 69 bytes a game. Moves can be added one at a time as a game is played, or a whole game at
+ * once; either way a game only goes into the file when it ends, in one piece. If a game
+ * was cut short anyway (the program was killed while writing it), it is cut off the end of
+ * the file when a writer opens it again, so later games are read correctly
+ * @author Grace Bocek
+ */
+public class GameRecordWriter implements AutoCloseable {
+    //"RVGR" followed by the format version
+    static final int magic = 0x52564752;
+    static final int version = 2;
+    static final int fileHeaderBytes = 8;
+    static final int gameHeaderBytes = 6;
+    //move byte for a skipped turn, and the byte after a game's last move
+    public static final int pass = 64;
+    static final int endOfGame = 0xFF;
+    //flag bit set when the user (white) moved first
+    static final int userFirstFlag = 1;
+    //the most moves a game can have, counting skipped turns
+    public static final int maxMoves = 128;
+    private OutputStream out;
+    //header and moves of the game being played
+    private byte[] game;
+    private int movesInGame;
+    private boolean inGame;
+
+    /**
+     * constructor for a writer that adds games to the end of a file, creating it if needed.
+     * A game cut short at the end of the file is removed first
+     * @param file path of the game record file (String)
+     * @throws IOException if the file can't be opened or isn't a game record file
+     */
+    public GameRecordWriter(String file) throws IOException {
+        boolean newFile = new File(file).length() == 0;
+        if (!newFile) {
+            long end;
+            try (GameRecordReader reader = new GameRecordReader(file)) {
+                while (reader.next()) {
+                }
+                end = reader.getEnd();
+            }
+            try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.WRITE)) {
+                if (channel.size() > end) {
+                    channel.truncate(end);
+                }
+            }
+        }
+        out = new BufferedOutputStream(new FileOutputStream(file, true), 1 << 16);
+        game = new byte[gameHeaderBytes + maxMoves];
+        if (newFile) {
+            writeInt(magic);
+            writeInt(version);
+        }
+    }
+
+    /**
+     * starts a game. Its moves are added with writeMove, and it's written with endGame
+     * or dropped with abortGame
+     * @param userFirst whether the user (white) moved first (bool)
+     * @param blackDepth search depth of the computer playing black, or 0 for a person (int)
+     * @param whiteDepth search depth of the computer playing white, or 0 for a person (int)
+     * @param moveTimeLimit computer's time limit per move in milliseconds, or 0 for none (long)
+     */
+    public void startGame(boolean userFirst, int blackDepth, int whiteDepth, long moveTimeLimit) {
+        if (inGame) {
+            throw new IllegalStateException("the last game wasn't ended");
+        }
+        writeHeader(game, userFirst, blackDepth, whiteDepth, moveTimeLimit);
+        movesInGame = 0;
+        inGame = true;
+    }
+
+    /**
+     * adds the next move of the game
+     * @param square cell of the move, or pass for a skipped turn (int)
+     */
+    public void writeMove(int square) {
+        if (!inGame) {
+            throw new IllegalStateException("no game started");
+        }
+        checkMove(square);
+        if (movesInGame == maxMoves) {
+            throw new IllegalStateException("too many moves in one game");
+        }
+        game[gameHeaderBytes + movesInGame] = (byte) square;
+        movesInGame++;
+    }
+
+    /**
+     * ends the game and writes it
+     * @param blackCount number of black pieces at the end (int)
+     * @param whiteCount number of white pieces at the end (int)
+     * @throws IOException if the game can't be written
+     */
+    public void endGame(int blackCount, int whiteCount) throws IOException {
+        if (!inGame) {
+            throw new IllegalStateException("no game started");
+        }
+        //the game is over either way, so a failed write doesn't stop the next one
+        inGame = false;
+        writeRecord(game, movesInGame, blackCount, whiteCount);
+    }
+
+    /**
+     * drops the game being played without writing it, if there is one
+     */
+    public void abortGame() {
+        inGame = false;
+    }
+
+    /**
+     * determines whether a game has been started and not yet ended or dropped
+     * @return whether a game is being played (bool)
+     */
+    public boolean isInGame() {
+        return inGame;
+    }
+
+    /**
+     * writes a whole game at once. Threads playing different games can share a writer
+     * this way, since each game is written in one piece
+     * @param userFirst whether the user (white) moved first (bool)
+     * @param blackDepth search depth of the computer playing black, or 0 for a person (int)
+     * @param whiteDepth search depth of the computer playing white, or 0 for a person (int)
+     * @param moveTimeLimit computer's time limit per move in milliseconds, or 0 for none (long)
+     * @param moves cells of the moves, or pass for skipped turns (byte[])
+     * @param moveCount number of moves (int)
+     * @param blackCount number of black pieces at the end (int)
+     * @param whiteCount number of white pieces at the end (int)
+     * @throws IOException if the game can't be written
+     */
+    public void writeGame(boolean userFirst, int blackDepth, int whiteDepth, long moveTimeLimit,
+            byte[] moves, int moveCount, int blackCount, int whiteCount) throws IOException {
+        if (moveCount > maxMoves) {
+            throw new IllegalStateException("too many moves in one game");
+        }
+        byte[] record = new byte[gameHeaderBytes + moveCount];
+        writeHeader(record, userFirst, blackDepth, whiteDepth, moveTimeLimit);
+        for (int i = 0; i < moveCount; i++) {
+            checkMove(moves[i]);
+            record[gameHeaderBytes + i] = moves[i];
+        }
+        writeRecord(record, moveCount, blackCount, whiteCount);
+    }
+
+    /**
+     * fills in a game header, except for the number of moves
+     * @param record game bytes (byte[])
+     * @param userFirst whether the user (white) moved first (bool)
+     * @param blackDepth search depth of the computer playing black, or 0 for a person (int)
+     * @param whiteDepth search depth of the computer playing white, or 0 for a person (int)
+     * @param moveTimeLimit computer's time limit per move in milliseconds, or 0 for none (long)
+     */
+    private static void writeHeader(byte[] record, boolean userFirst, int blackDepth, int whiteDepth,
+            long moveTimeLimit) {
+        record[0] = (byte) (userFirst ? userFirstFlag : 0);
+        record[1] = (byte) Math.min(blackDepth, 255);
+        record[2] = (byte) Math.min(whiteDepth, 255);
+        int time = (int) Math.min(moveTimeLimit, 65535);
+        record[3] = (byte) (time >>> 8);
+        record[4] = (byte) time;
+    }
+
+    /**
+     * checks that a move can be recorded
+     * @param square cell of the move, or pass for a skipped turn (int)
+     */
+    private static void checkMove(int square) {
+        if (square < 0 || square > pass) {
+            throw new IllegalArgumentException("bad move " + square);
+        }
+    }
+
+    /**
+     * writes a game: its header and moves, then the end marker and the piece counts
+     * @param record game header followed by the moves (byte[])
+     * @param moveCount number of moves (int)
+     * @param blackCount number of black pieces at the end (int)
+     * @param whiteCount number of white pieces at the end (int)
+     * @throws IOException if the game can't be written
+     */
+    private synchronized void writeRecord(byte[] record, int moveCount, int blackCount, int whiteCount)
+            throws IOException {
+        record[gameHeaderBytes - 1] = (byte) moveCount;
+        out.write(record, 0, gameHeaderBytes + moveCount);
+        out.write(endOfGame);
+        out.write(blackCount);
+        out.write(whiteCount);
+    }
+
+    /**
+     * writes out any buffered games
+     * @throws IOException if the file can't be written
+     */
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * writes out any buffered games and closes the file. A game that was started but not
+     * ended isn't written
+     * @throws IOException if the file can't be written
+     */
+    public synchronized void close() throws IOException {
+        inGame = false;
+        out.close();
+    }
+
+    /**
+     * writes a 4-byte number, high byte first
+     * @param value number to write (int)
+     * @throws IOException if the file can't be written
+     */
+    private void writeInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+}
@@ -0,0 +1,100 @@
+package reversi;
+
+/**
+ * GameResult: a class that holds the result of one computer-vs-computer game
+ * @author Grace Bocek
+ */
+public class GameResult {
+    private int gameIdx;
+    private boolean engineAIsBlack;
+    private int blackCount;
+    private int whiteCount;
+    private int moveCount;
+    private long nodes;
+
+    /**
+     * constructor for a game result
+     * @param gameIdx number of the game (int)
+     * @param engineAIsBlack whether engine A played black (bool)
+     * @param blackCount number of black pieces at the end (int)
+     * @param whiteCount number of white pieces at the end (int)
+     * @param moveCount number of pieces placed, not counting skipped turns (int)
+     * @param nodes positions searched by both engines (long)
+     */
+    public GameResult(int gameIdx, boolean engineAIsBlack, int blackCount, int whiteCount, int moveCount, long nodes) {
+        this.gameIdx = gameIdx;
+        this.engineAIsBlack = engineAIsBlack;
+        this.blackCount = blackCount;
+        this.whiteCount = whiteCount;
+        this.moveCount = moveCount;
+        this.nodes = nodes;
+    }
+
+    /**
+     * gets the number of the game
+     * @return game number (int)
+     */
+    public int getGameIdx() {
+        return gameIdx;
+    }
+
+    /**
+     * determines whether engine A played black
+     * @return whether engine A played black (bool)
+     */
+    public boolean getEngineAIsBlack() {
+        return engineAIsBlack;
+    }
+
+    /**
+     * gets the final piece counts
+     * @return the number of white and black pieces at the end (int[])
+     */
+    public int[] count() {
+        return new int[]{whiteCount, blackCount};
+    }
+
+    /**
+     * gets how many more pieces engine A finished with than engine B
+     * @return engine A's pieces minus engine B's pieces (int)
+     */
+    public int getMarginForA() {
+        if (engineAIsBlack) {
+            return blackCount - whiteCount;
+        }
+        return whiteCount - blackCount;
+    }
+
+    /**
+     * gets the number of pieces placed in the game
+     * @return number of moves, not counting skipped turns (int)
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * gets the number of positions both engines searched in the game
+     * @return nodes searched (long)
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * gets the column names for toCsv
+     * @return CSV header line (String)
+     */
+    public static String csvHeader() {
+        return "game,engine_a_color,black,white,margin_for_a,moves,nodes";
+    }
+
+    /**
+     * represents the result as a line of CSV
+     * @return CSV line (String)
+     */
+    public String toCsv() {
+        return gameIdx + "," + (engineAIsBlack ? "black" : "white") + "," + blackCount + "," + whiteCount + ","
+                + getMarginForA() + "," + moveCount + "," + nodes;
+    }
+}
@@ -0,0 +1,397 @@
+package reversi;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * GameServer: a class that hosts many games of reversi at once over TCP. Each connection
+ * is one session with a line protocol:
+ *     NEW [first|second] [millis]   start a game where the user moves first or second,
+ *                                   with a time limit for each computer move
+ *     MOVE move                     play the user's move, like "4-c" or a cell number
+ *     BOARD                         show the game
+ *     QUIT                          close the session
+ * Every reply to NEW, MOVE and BOARD is one line, "OK computer-moves position state",
+ * where computer-moves lists the computer's moves since the last reply separated by
+ * commas (or "-" for none), position is 64 cells and the player to move, and state is
+ * "play" or "over". Errors are "ERR message".
+ * Sessions run on virtual threads when the JVM has them and only wait; the computer's
+ * searches run on a fixed pool of search threads, each with its own engine, so a long
+ * search can't hold up more than one search thread
+ * @author Grace Bocek
+ */
+public class GameServer {
+    private static final long defaultMoveTimeLimit = 100;
+    private ServerSocket serverSocket;
+    private ExecutorService sessions;
+    private ThreadPoolExecutor searchPool;
+    private ThreadLocal<Reversi> engines;
+    private long maxMoveTimeLimit;
+    private AtomicInteger openSessions;
+    private GameRecordWriter recorder;
+    private volatile Consumer<IOException> recordErrorHandler;
+    private volatile boolean running;
+
+    /**
+     * constructor for a server
+     * @param port TCP port to listen on, or 0 for any free port (int)
+     * @param searchThreads number of search threads (int)
+     * @param queueSize number of searches that can wait for a search thread before
+     * new moves are turned away (int)
+     * @param maxMoveTimeLimit longest time a session can ask for each computer move in
+     * milliseconds (long)
+     * @param tableMegabytes size of each search thread's transposition table in MB (int)
+     * @throws IOException if the port can't be opened
+     */
+    public GameServer(int port, int searchThreads, int queueSize, long maxMoveTimeLimit, int tableMegabytes)
+            throws IOException {
+        serverSocket = new ServerSocket(port, 1024);
+        sessions = newSessionExecutor();
+        searchPool = new ThreadPoolExecutor(searchThreads, searchThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize));
+        engines = ThreadLocal.withInitial(() -> new Reversi(true, tableMegabytes));
+        this.maxMoveTimeLimit = maxMoveTimeLimit;
+        openSessions = new AtomicInteger();
+    }
+
+    /**
+     * makes an executor that runs each task on its own virtual thread, or on its own
+     * ordinary thread on JVMs older than 21, which don't have virtual threads
+     * @return executor for waiting tasks (ExecutorService)
+     */
+    static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * sets where every finished game's moves and result are recorded
+     * @param recorder game record writer, or null to not record games (GameRecordWriter)
+     */
+    public void setGameRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * sets what happens when a finished game can't be recorded. The game goes on either
+     * way; by default the error is dropped
+     * @param handler called with each recording error from the session's thread, or null to drop them (Consumer)
+     */
+    public void setRecordErrorHandler(Consumer<IOException> handler) {
+        recordErrorHandler = handler;
+    }
+
+    /**
+     * gets the port the server is listening on
+     * @return port number (int)
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * gets the number of sessions that are connected
+     * @return open sessions (int)
+     */
+    public int getOpenSessions() {
+        return openSessions.get();
+    }
+
+    /**
+     * accepts connections until the server is closed, running each one as a session
+     */
+    public void serve() {
+        running = true;
+        while (running) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            }
+            catch (IOException e) {
+                //the server socket was closed
+                break;
+            }
+            sessions.submit(() -> runSession(socket));
+        }
+    }
+
+    /**
+     * stops accepting connections and shuts down the search threads
+     */
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        }
+        catch (IOException e) {
+            //already closed
+        }
+        sessions.shutdownNow();
+        searchPool.shutdownNow();
+    }
+
+    /**
+     * reads commands from one connection and answers them until it closes
+     * @param socket connection to the player (Socket)
+     */
+    private void runSession(Socket socket) {
+        openSessions.incrementAndGet();
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(connection.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+            connection.setTcpNoDelay(true);
+            Session session = new Session();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts[0].equalsIgnoreCase("QUIT")) {
+                    out.println("BYE");
+                    break;
+                }
+                out.println(handle(session, parts));
+            }
+        }
+        catch (IOException e) {
+            //the player disconnected
+        }
+        finally {
+            openSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * the game and settings of one connection
+     */
+    private static class Session {
+        private Board board;
+        private long moveTimeLimit = defaultMoveTimeLimit;
+        private boolean userFirst;
+        //moves of the game so far, for the game record
+        private byte[] moves = new byte[GameRecordWriter.maxMoves];
+        private int moveCount;
+    }
+
+    /**
+     * carries out one command
+     * @param session session the command came from (Session)
+     * @param parts words of the command (String[])
+     * @return reply line (String)
+     */
+    private String handle(Session session, String[] parts) {
+        String command = parts[0].toUpperCase();
+        try {
+            if (command.equals("NEW")) {
+                boolean userFirst = parts.length < 2 || !parts[1].equalsIgnoreCase("second");
+                if (parts.length > 2) {
+                    session.moveTimeLimit = Math.max(1, Math.min(Long.parseLong(parts[2]), maxMoveTimeLimit));
+                }
+                Board board = new Board(userFirst);
+                StringBuilder computerMoves = new StringBuilder();
+                int moveCount = playComputer(board, session, 0, computerMoves);
+                session.board = board;
+                session.userFirst = userFirst;
+                session.moveCount = moveCount;
+                recordIfOver(session);
+                return reply(board, computerMoves);
+            }
+            if (session.board == null) {
+                return "ERR no game; send NEW first";
+            }
+            if (command.equals("BOARD")) {
+                return reply(session.board, new StringBuilder());
+            }
+            if (command.equals("MOVE")) {
+                if (parts.length < 2) {
+                    return "ERR MOVE needs a move";
+                }
+                Move move = Move.parse(parts[1]);
+                if (session.board.gameOver() || !session.board.getUsersTurn()) {
+                    return "ERR not your turn";
+                }
+                if ((session.board.getValidMoveMask() & 1L << move.getSquare()) == 0) {
+                    return "ERR " + move + " isn't a valid move";
+                }
+                //play on a copy so the game is unchanged if the server is too busy to answer
+                //and the moves past session.moveCount are only kept once the computer has answered
+                Board board = new Board(session.board);
+                board.updateBoard(move);
+                session.moves[session.moveCount] = (byte) move.getSquare();
+                StringBuilder computerMoves = new StringBuilder();
+                int moveCount = playComputer(board, session, session.moveCount + 1, computerMoves);
+                session.board = board;
+                session.moveCount = moveCount;
+                recordIfOver(session);
+                return reply(board, computerMoves);
+            }
+            return "ERR unknown command " + parts[0];
+        }
+        catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+        catch (RejectedExecutionException e) {
+            return "ERR busy";
+        }
+        catch (IllegalStateException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    /**
+     * plays the computer's moves, and skips turns for either player, until the user has a
+     * valid move or the game ends
+     * @param board board to play on (Board)
+     * @param session session of the game, for its time limit and move list (Session)
+     * @param moveCount number of moves in the game so far (int)
+     * @param computerMoves filled with the computer's moves separated by commas (StringBuilder)
+     * @return number of moves in the game afterwards, counting skipped turns (int)
+     */
+    private int playComputer(Board board, Session session, int moveCount, StringBuilder computerMoves) {
+        boolean lastPlayerSkipped = false;
+        while (!board.gameOver()) {
+            board.findValidMoves();
+            if (board.getValidMoves().size() == 0) {
+                if (lastPlayerSkipped) {
+                    board.endGame();
+                    break;
+                }
+                board.switchTurn();
+                session.moves[moveCount] = GameRecordWriter.pass;
+                moveCount++;
+                lastPlayerSkipped = true;
+                continue;
+            }
+            if (board.getUsersTurn()) {
+                break;
+            }
+            lastPlayerSkipped = false;
+            Move move = search(board, session.moveTimeLimit);
+            board.updateBoard(move);
+            session.moves[moveCount] = (byte) move.getSquare();
+            moveCount++;
+            if (computerMoves.length() > 0) {
+                computerMoves.append(',');
+            }
+            computerMoves.append(move);
+        }
+        return moveCount;
+    }
+
+    /**
+     * records a session's game if it has ended and games are being recorded
+     * @param session session of the game (Session)
+     */
+    private void recordIfOver(Session session) {
+        if (recorder == null || !session.board.gameOver()) {
+            return;
+        }
+        int[] count = session.board.count();
+        try {
+            recorder.writeGame(session.userFirst, Search.maxDepth, 0, session.moveTimeLimit, session.moves,
+                    session.moveCount, count[1], count[0]);
+            recorder.flush();
+        }
+        catch (IOException e) {
+            //the game is still played; only its record is lost
+            Consumer<IOException> handler = recordErrorHandler;
+            if (handler != null) {
+                handler.accept(e);
+            }
+        }
+    }
+
+    /**
+     * finds the computer's move on a search thread and waits for it. The time limit counts
+     * from when the search is asked for, so time spent waiting for a free search thread
+     * comes out of it
+     * @param board board where the computer has a valid move (Board)
+     * @param moveTimeLimit time limit in milliseconds (long)
+     * @return the computer's move (Move)
+     */
+    private Move search(Board board, long moveTimeLimit) {
+        long submitted = System.nanoTime();
+        Future<Move> result = searchPool.submit(() -> {
+            Reversi engine = engines.get();
+            long waited = (System.nanoTime() - submitted) / 1000000;
+            //even with no time left, a move is found, though a shallow one
+            engine.setMoveTimeLimit(Math.max(moveTimeLimit - waited, 1));
+            return engine.findBestMove(board);
+        });
+        try {
+            return result.get();
+        }
+        catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("interrupted", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("search failed", e.getCause());
+        }
+    }
+
+    /**
+     * makes a reply line
+     * @param board board after the command (Board)
+     * @param computerMoves the computer's moves separated by commas (StringBuilder)
+     * @return reply line (String)
+     */
+    private static String reply(Board board, StringBuilder computerMoves) {
+        return "OK " + (computerMoves.length() == 0 ? "-" : computerMoves) + " " + board.toPositionString() + " " + (board.gameOver() ? "over" : "play");
+    }
+
+    /**
+     * runs a server from the command line until it is killed:
+     * GameServer [--port n] [--threads n] [--queue n] [--max-time ms] [--hash megabytes] [--record file]
+     * @param args command line arguments (String[])
+     * @throws IOException if the port can't be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 7878;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queueSize = 4096;
+        long maxMoveTimeLimit = 1000;
+        int tableMegabytes = 16;
+        String recordFile = null;
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--queue": queueSize = Integer.parseInt(value); break;
+                case "--max-time": maxMoveTimeLimit = Long.parseLong(value); break;
+                case "--hash": tableMegabytes = Integer.parseInt(value); break;
+                case "--record": recordFile = value; break;
+                default: throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        GameServer server = new GameServer(port, threads, queueSize, maxMoveTimeLimit, tableMegabytes);
+        if (recordFile != null) {
+            server.setGameRecorder(new GameRecordWriter(recordFile));
+            server.setRecordErrorHandler(e -> System.err.println("couldn't record a game: " + e.getMessage()));
+        }
+        System.out.println("listening on port " + server.getPort() + " with " + threads + " search threads");
+        server.serve();
+    }
+}
@@ -0,0 +1,159 @@
+package reversi;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * LoadClient: a class that plays many games against a GameServer at once with random
+ * moves and reports how long the server takes to answer each move
+ * @author Grace Bocek
+ */
+public class LoadClient {
+    private String host;
+    private int port;
+    private long moveTimeLimit;
+
+    /**
+     * constructor for a load client
+     * @param host server host name (String)
+     * @param port server port (int)
+     * @param moveTimeLimit time limit to ask for on each computer move in milliseconds (long)
+     */
+    public LoadClient(String host, int port, long moveTimeLimit) {
+        this.host = host;
+        this.port = port;
+        this.moveTimeLimit = moveTimeLimit;
+    }
+
+    /**
+     * plays games over one connection
+     * @param games number of games (int)
+     * @param seed random seed for the user's moves (long)
+     * @return time the server took to answer each NEW and MOVE in nanoseconds (long[])
+     * @throws IOException if the connection fails or the server sends an error
+     */
+    public long[] playGames(int games, long seed) throws IOException {
+        Random random = new Random(seed);
+        long[] latencies = new long[games * 40];
+        int count = 0;
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+            socket.setTcpNoDelay(true);
+            for (int game = 0; game < games; game++) {
+                String command = "NEW " + (game % 2 == 0 ? "first" : "second") + " " + moveTimeLimit;
+                while (command != null) {
+                    long start = System.nanoTime();
+                    out.println(command);
+                    String reply = in.readLine();
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count] = System.nanoTime() - start;
+                    count++;
+                    if (reply == null || !reply.startsWith("OK ")) {
+                        throw new IOException("server replied " + reply);
+                    }
+                    String[] parts = reply.split(" ");
+                    if (parts[parts.length - 1].equals("over")) {
+                        command = null;
+                    }
+                    else {
+                        Board board = new Board(parts[2] + parts[3]);
+                        board.findValidMoves();
+                        ArrayList<Move> moves = board.getValidMoves();
+                        command = "MOVE " + moves.get(random.nextInt(moves.size()));
+                    }
+                }
+            }
+            out.println("QUIT");
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    /**
+     * plays games against a server from the command line and prints the move latencies:
+     * LoadClient [--host name] [--port n] [--clients n] [--games n] [--time ms]
+     * @param args command line arguments (String[])
+     * @throws Exception if a connection fails
+     */
+    public static void main(String[] args) throws Exception {
+        String host = "localhost";
+        int port = 7878;
+        int clients = 100;
+        int games = 2;
+        long moveTimeLimit = 20;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--host")) {
+                i++;
+                host = args[i];
+            }
+            else if (args[i].equals("--port")) {
+                i++;
+                port = Integer.parseInt(args[i]);
+            }
+            else if (args[i].equals("--clients")) {
+                i++;
+                clients = Integer.parseInt(args[i]);
+            }
+            else if (args[i].equals("--games")) {
+                i++;
+                games = Integer.parseInt(args[i]);
+            }
+            else if (args[i].equals("--time")) {
+                i++;
+                moveTimeLimit = Long.parseLong(args[i]);
+            }
+            else {
+                throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        LoadClient client = new LoadClient(host, port, moveTimeLimit);
+        ExecutorService pool = GameServer.newSessionExecutor();
+        long start = System.nanoTime();
+        ArrayList<Future<long[]>> results = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            long seed = i;
+            int clientGames = games;
+            results.add(pool.submit(() -> client.playGames(clientGames, seed)));
+        }
+        long[] latencies = new long[0];
+        for (Future<long[]> result : results) {
+            long[] clientLatencies = result.get();
+            int oldLength = latencies.length;
+            latencies = Arrays.copyOf(latencies, oldLength + clientLatencies.length);
+            System.arraycopy(clientLatencies, 0, latencies, oldLength, clientLatencies.length);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        Arrays.sort(latencies);
+        System.out.println(clients + " clients, " + clients * games + " games, " + latencies.length + " requests in "
+                + String.format("%.1f", seconds) + " s (" + String.format("%.0f", latencies.length / seconds)
+                + " requests/s)");
+        System.out.println("latency p50 " + millis(latencies, 0.5) + " ms, p99 " + millis(latencies, 0.99)
+                + " ms, max " + millis(latencies, 1) + " ms");
+    }
+
+    /**
+     * finds a percentile of sorted latencies
+     * @param sorted latencies in nanoseconds, in increasing order (long[])
+     * @param fraction percentile as a fraction between 0 and 1 (double)
+     * @return the percentile in milliseconds (String)
+     */
+    private static String millis(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return "-";
+        }
+        int idx = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return String.format("%.1f", sorted[Math.max(idx, 0)] / 1e6);
+    }
+}
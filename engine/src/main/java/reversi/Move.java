@@ -0,0 +1,107 @@
+package reversi;
+
+/**
+ * Move: a class that represents a move for a piece on a reversi board
+ * @author Grace Bocek
+ */
+public class Move {
+    private int row;
+    private int col;
+    //the only Move for each cell, so making moves never allocates
+    private static final Move[] moves = new Move[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            moves[square] = new Move(square / 8, square % 8);
+        }
+    }
+
+    /**
+     * move constructor
+     * @param i row where reversi piece is placed (int)
+     * @param j column where reversi piece is placed (int)
+     */
+    private Move(int i, int j) {
+        row = i;
+        col = j;
+    }
+
+    /**
+     * gets the move for a cell. There is one Move per cell, so moves can be compared with ==
+     * @param i row where reversi piece is placed (int)
+     * @param j column where reversi piece is placed (int)
+     * @return the move (Move)
+     */
+    public static Move of(int i, int j) {
+        return moves[i * 8 + j];
+    }
+
+    /**
+     * gets the move for a cell numbered row * 8 + column
+     * @param square cell number (int)
+     * @return the move (Move)
+     */
+    public static Move of(int square) {
+        return moves[square];
+    }
+
+    /**
+     * reads a move written the way toString writes it, like "4-c", or as a cell number
+     * @param text move text (String)
+     * @return the move (Move)
+     * @throws IllegalArgumentException if the text isn't a move
+     */
+    public static Move parse(String text) {
+        if (text.length() == 3 && text.charAt(1) == '-') {
+            int row = text.charAt(0) - '1';
+            int col = text.charAt(2) - 'a';
+            if (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                return of(row, col);
+            }
+        }
+        int square;
+        try {
+            square = Integer.parseInt(text);
+        }
+        catch (NumberFormatException e) {
+            square = -1;
+        }
+        if (square < 0 || square >= 64) {
+            throw new IllegalArgumentException("bad move " + text);
+        }
+        return of(square);
+    }
+
+    /**
+     * gets the cell number of move, row * 8 + column
+     * @return cell number (int)
+     */
+    public int getSquare() {
+        return row * 8 + col;
+    }
+
+    /**
+     * gets row of move
+     * @return row (int)
+     */
+
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * gets column of move
+     * @return column (int)
+     */
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * represents move as a string
+     * @return string representation of move
+     */
+    public String toString() {
+        return (row + 1) + "-" + (char) (col + 97);
+    }
+}
\ No newline at end of file
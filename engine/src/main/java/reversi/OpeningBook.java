@@ -0,0 +1,132 @@
+package reversi;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * OpeningBook: a class that looks up the best move for known positions in a book file.
+ * The file is a header followed by one record per position (canonical board hash, best
+ * move in the canonical orientation and score), sorted by hash, so one record covers every
+ * rotation and reflection of a position. It is memory-mapped rather than read in, so opening even a
+ * very large book is instant and lookups are a binary search that doesn't allocate
+ * @author Grace Bocek
+ */
+public class OpeningBook {
+    //"RVBK" followed by the format version
+    private static final int magic = 0x5256424B;
+    //version 1 books were keyed by Zobrist hash and don't match canonical hashes
+    private static final int version = 2;
+    private static final int headerBytes = 16;
+    //hash (8 bytes), move (2 bytes) and score (2 bytes)
+    private static final int recordBytes = 12;
+    private MappedByteBuffer buffer;
+    private int size;
+
+    /**
+     * constructor for a book read from a file
+     * @param file path of the book file (String)
+     * @throws IOException if the file can't be read or isn't a book
+     */
+    public OpeningBook(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too big for one book");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+        if (buffer.capacity() < headerBytes || buffer.getInt(0) != magic) {
+            throw new IOException(file + " isn't an opening book");
+        }
+        if (buffer.getInt(4) != version) {
+            throw new IOException(file + " is book version " + buffer.getInt(4) + ", not " + version);
+        }
+        long records = buffer.getLong(8);
+        if (records < 0 || headerBytes + records * recordBytes > buffer.capacity()) {
+            throw new IOException(file + " is cut short");
+        }
+        size = (int) records;
+    }
+
+    /**
+     * gets the number of positions in the book
+     * @return number of positions (int)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * looks up a position
+     * @param hash canonical hash of the position, from Board.getCanonicalHash (long)
+     * @return index of the position's entry, or -1 if it isn't in the book (int)
+     */
+    public int find(long hash) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midHash = buffer.getLong(headerBytes + mid * recordBytes);
+            if (midHash < hash) {
+                low = mid + 1;
+            }
+            else if (midHash > hash) {
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * gets the best move of an entry, in the canonical orientation. Symmetry.transformSquare
+     * with the inverse of the position's symmetry turns it back
+     * @param entry index of the entry (int)
+     * @return cell of the best move (int)
+     */
+    public int getMove(int entry) {
+        return buffer.getShort(headerBytes + entry * recordBytes + 8);
+    }
+
+    /**
+     * gets the score of an entry's best move, for the player who makes it
+     * @param entry index of the entry (int)
+     * @return score (int)
+     */
+    public int getScore(int entry) {
+        return buffer.getShort(headerBytes + entry * recordBytes + 10);
+    }
+
+    /**
+     * writes a book file
+     * @param file path of the book file (String)
+     * @param hashes canonical position hashes in increasing order, with no repeats (long[])
+     * @param moves cell of the best move for each position, in the canonical orientation (int[])
+     * @param scores score of the best move for each position (int[])
+     * @param count number of positions to write (int)
+     * @throws IOException if the file can't be written
+     */
+    public static void write(String file, long[] hashes, int[] moves, int[] scores, int count) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(magic);
+            out.writeInt(version);
+            out.writeLong(count);
+            for (int i = 0; i < count; i++) {
+                if (i > 0 && hashes[i] <= hashes[i - 1]) {
+                    throw new IllegalArgumentException("book hashes must be in increasing order");
+                }
+                out.writeLong(hashes[i]);
+                out.writeShort(moves[i]);
+                out.writeShort(scores[i]);
+            }
+        }
+    }
+}
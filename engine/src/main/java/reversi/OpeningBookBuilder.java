@@ -0,0 +1,235 @@
+package reversi;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * OpeningBookBuilder: a class that builds an opening book file, either by searching every
+ * position reachable in the first few moves of a game or from analysis lines of the form
+ * "position move score", or both
+ * @author Grace Bocek
+ */
+public class OpeningBookBuilder {
+    //book entries by canonical position hash; each is the move and score packed into one int
+    private HashMap<Long, Integer> entries;
+
+    /**
+     * constructor for an empty book
+     */
+    public OpeningBookBuilder() {
+        entries = new HashMap<>();
+    }
+
+    /**
+     * adds a position to the book, replacing any entry it already has
+     * @param hash canonical hash of the position, from Board.getCanonicalHash (long)
+     * @param square cell of the best move, turned by the position's symmetry from Board.getSymmetry (int)
+     * @param score score of the best move, for the player who makes it (int)
+     */
+    public void add(long hash, int square, int score) {
+        score = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score));
+        entries.put(hash, square << 16 | (score & 0xFFFF));
+    }
+
+    /**
+     * gets the number of positions in the book so far
+     * @return number of positions (int)
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * searches every position reachable from the start in up to a number of moves and adds
+     * each one's best move. Rotations and reflections of a position are only searched once
+     * @param plies number of moves from the start (int)
+     * @param depth search depth for each position (int)
+     * @param threads number of search threads (int)
+     * @param tableMegabytes size of each thread's transposition table in MB (int)
+     * @throws Exception if a search fails
+     */
+    public void analyze(int plies, int depth, int threads, int tableMegabytes) throws Exception {
+        HashMap<Long, Board> positions = new HashMap<>();
+        collect(new Board(false), plies, positions);
+        ThreadLocal<Reversi> engines = ThreadLocal.withInitial(() -> {
+            Reversi engine = new Reversi(true, tableMegabytes);
+            engine.setMaxDepth(depth);
+            engine.setMoveTimeLimit(0);
+            //book moves are played without searching, so they should come from exact searches
+            engine.setProbCut(null);
+            return engine;
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            ArrayList<Future<long[]>> results = new ArrayList<>();
+            for (Board position : positions.values()) {
+                results.add(pool.submit(() -> {
+                    Reversi engine = engines.get();
+                    //the same position always gets the same move
+                    engine.setSeed(position.getHash());
+                    Move move = engine.findBestMove(position);
+                    int symmetry = position.getSymmetry();
+                    return new long[]{position.getCanonicalHash(symmetry),
+                        Symmetry.transformSquare(move.getSquare(), symmetry), engine.getLastScore()};
+                }));
+            }
+            for (Future<long[]> result : results) {
+                long[] entry = result.get();
+                add(entry[0], (int) entry[1], (int) entry[2]);
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * finds every position reachable in up to a number of moves where the player to move
+     * has a valid move
+     * @param board board to start from; it is left unchanged (Board)
+     * @param plies number of moves (int)
+     * @param positions positions found so far, one for each canonical hash (HashMap)
+     */
+    private static void collect(Board board, int plies, HashMap<Long, Board> positions) {
+        long moves = board.getValidMoveMask();
+        long hash = board.getCanonicalHash();
+        if (moves == 0 || positions.containsKey(hash)) {
+            return;
+        }
+        positions.put(hash, new Board(board));
+        if (plies == 0) {
+            return;
+        }
+        while (moves != 0) {
+            board.makeMove(Long.numberOfTrailingZeros(moves));
+            if (board.getValidMoveMask() == 0 && !board.gameOver()) {
+                //the opponent has to skip a turn
+                board.makePass();
+                collect(board, plies - 1, positions);
+                board.unmakeMove();
+            }
+            else {
+                collect(board, plies - 1, positions);
+            }
+            board.unmakeMove();
+            moves &= moves - 1;
+        }
+    }
+
+    /**
+     * adds analysis lines from a file. Each line is a position string (as read by the
+     * Board(String) constructor), the best move as a cell number or like "4-c", and its
+     * score. Blank lines and lines starting with '#' are skipped
+     * @param file path of the analysis file (String)
+     * @throws IOException if the file can't be read or has a bad line
+     */
+    public void addAnalysis(String file) throws IOException {
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length < 3) {
+                    throw new IOException(file + " line " + lineNumber + ": expected position, move and score");
+                }
+                try {
+                    String position = String.join("", Arrays.copyOf(parts, parts.length - 2));
+                    Board board = new Board(position);
+                    int square = Move.parse(parts[parts.length - 2]).getSquare();
+                    if ((board.getValidMoveMask() & 1L << square) == 0) {
+                        throw new IllegalArgumentException("move isn't valid in the position");
+                    }
+                    int symmetry = board.getSymmetry();
+                    add(board.getCanonicalHash(symmetry), Symmetry.transformSquare(square, symmetry),
+                            Integer.parseInt(parts[parts.length - 1]));
+                }
+                catch (IllegalArgumentException e) {
+                    throw new IOException(file + " line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * writes the book to a file, sorted by hash
+     * @param file path of the book file (String)
+     * @throws IOException if the file can't be written
+     */
+    public void write(String file) throws IOException {
+        long[] hashes = new long[entries.size()];
+        int i = 0;
+        for (long hash : entries.keySet()) {
+            hashes[i] = hash;
+            i++;
+        }
+        Arrays.sort(hashes);
+        int[] moves = new int[hashes.length];
+        int[] scores = new int[hashes.length];
+        for (i = 0; i < hashes.length; i++) {
+            int entry = entries.get(hashes[i]);
+            moves[i] = entry >>> 16;
+            scores[i] = (short) entry;
+        }
+        OpeningBook.write(file, hashes, moves, scores, hashes.length);
+    }
+
+    /**
+     * builds a book from the command line:
+     * OpeningBookBuilder book-file [--plies n] [--depth n] [--threads n] [--hash megabytes] [--input file]...
+     * Positions from --input files replace searched ones. With --plies -1, no positions are
+     * searched and the book only has the input files' positions
+     * @param args command line arguments (String[])
+     * @throws Exception if a search fails or a file can't be read or written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("usage: OpeningBookBuilder book-file [--plies n] [--depth n] [--threads n]"
+                    + " [--hash megabytes] [--input file]...");
+            return;
+        }
+        String bookFile = args[0];
+        int plies = 6;
+        int depth = 8;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int tableMegabytes = 16;
+        ArrayList<String> inputs = new ArrayList<>();
+        for (int i = 1; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--plies": plies = Integer.parseInt(value); break;
+                case "--depth": depth = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--hash": tableMegabytes = Integer.parseInt(value); break;
+                case "--input": inputs.add(value); break;
+                default: throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        long start = System.nanoTime();
+        if (plies >= 0 && depth > 0) {
+            builder.analyze(plies, depth, threads, tableMegabytes);
+        }
+        for (String input : inputs) {
+            builder.addAnalysis(input);
+        }
+        builder.write(bookFile);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println("wrote " + builder.size() + " positions to " + bookFile + " in "
+                + String.format("%.1f", seconds) + " s");
+    }
+}
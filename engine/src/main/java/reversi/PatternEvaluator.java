@@ -0,0 +1,329 @@
+package reversi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * PatternEvaluator: a class that estimates the final disc difference of a position from
+ * tables of pattern weights. Each edge, 3x3 corner region and diagonal of 4 or more cells
+ * is read as a base-3 number (empty, player, opponent) that indexes a weight table shared
+ * by every copy of the pattern, and differences in mobility and frontier discs are added
+ * on top. The game is split into stages by the number of discs, each with its own
+ * weights. Weights are trained from game records by PatternTrainer and stored in a small
+ * gzip-compressed file
+ * @author Grace Bocek
+ */
+public class PatternEvaluator {
+    //"RVPW" followed by the format version
+    private static final int magic = 0x52565057;
+    private static final int version = 1;
+    //weights are stored in 1/64ths of a disc
+    static final int unitsPerDisc = 64;
+    //flat index of each pattern's table in a stage's weights
+    static final int edgeOffset = 0;
+    static final int cornerOffset = edgeOffset + 6561;
+    //diagonal tables by how many cells the diagonal is short of 8
+    static final int[] diagonalOffsets = {cornerOffset + 19683, cornerOffset + 19683 + 6561,
+            cornerOffset + 19683 + 6561 + 2187, cornerOffset + 19683 + 6561 + 2187 + 729,
+            cornerOffset + 19683 + 6561 + 2187 + 729 + 243};
+    static final int mobilityIdx = diagonalOffsets[4] + 81;
+    static final int frontierIdx = mobilityIdx + 1;
+    static final int biasIdx = mobilityIdx + 2;
+    static final int stageWeights = mobilityIdx + 3;
+    //4 corners, 4 edges, 2 long diagonals and 4 of each shorter diagonal
+    static final int featureCount = 26;
+    //base-3 value of each set of up to 9 bits
+    private static final int[] ternary = new int[512];
+    private static final long colA = 0x0101010101010101L;
+    //cells (r, r + k) of the diagonal k cells to the right of the a1-h8 diagonal
+    private static final long[] diagonals = new long[5];
+    private static PatternEvaluator defaultEvaluator;
+    private static boolean defaultLoaded;
+    private short[][] weights;
+
+    static {
+        for (int bits = 0; bits < 512; bits++) {
+            int value = 0;
+            for (int i = 8; i >= 0; i--) {
+                value = value * 3 + (bits >> i & 1);
+            }
+            ternary[bits] = value;
+        }
+        for (int k = 0; k < 5; k++) {
+            for (int r = 0; r + k < 8; r++) {
+                diagonals[k] |= 1L << (r * 8 + r + k);
+            }
+        }
+    }
+
+    /**
+     * constructor for an evaluator with the given weights
+     * @param weights weights for each stage, stageWeights of them per stage (short[][])
+     */
+    PatternEvaluator(short[][] weights) {
+        for (short[] stage : weights) {
+            if (stage.length != stageWeights) {
+                throw new IllegalArgumentException("need " + stageWeights + " weights per stage");
+            }
+        }
+        this.weights = weights;
+    }
+
+    /**
+     * reads an evaluator from a weights file
+     * @param file path of the weights file (String)
+     * @return evaluator with the file's weights (PatternEvaluator)
+     * @throws IOException if the file can't be read or isn't a weights file
+     */
+    public static PatternEvaluator load(String file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return read(in, file);
+        }
+    }
+
+    /**
+     * gets the evaluator with the weights that come with the engine
+     * @return the built-in evaluator, or null if its weights aren't on the class path (PatternEvaluator)
+     * @throws UncheckedIOException if the built-in pattern weights are on the class path but can't be read
+     */
+    public static synchronized PatternEvaluator getDefault() {
+        if (!defaultLoaded) {
+            try (InputStream in = PatternEvaluator.class.getResourceAsStream("patterns.bin")) {
+                if (in != null) {
+                    defaultEvaluator = read(in, "patterns.bin");
+                }
+            }
+            catch (IOException e) {
+                //a damaged resource is a broken build, so it isn't worth a checked exception at every caller
+                throw new UncheckedIOException("couldn't read the built-in pattern weights", e);
+            }
+            defaultLoaded = true;
+        }
+        return defaultEvaluator;
+    }
+
+    /**
+     * reads an evaluator from a stream of a weights file
+     * @param in stream to read (InputStream)
+     * @param name name of the file, for error messages (String)
+     * @return evaluator with the file's weights (PatternEvaluator)
+     * @throws IOException if the stream can't be read or isn't a weights file
+     */
+    private static PatternEvaluator read(InputStream in, String name) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in), 1 << 16));
+        if (data.readInt() != magic) {
+            throw new IOException(name + " isn't a pattern weights file");
+        }
+        int fileVersion = data.readInt();
+        if (fileVersion != version) {
+            throw new IOException(name + " is pattern weights version " + fileVersion + ", not " + version);
+        }
+        int stages = data.readInt();
+        if (stages < 1 || stages > 61) {
+            throw new IOException(name + " has " + stages + " stages");
+        }
+        short[][] weights = new short[stages][stageWeights];
+        for (short[] stage : weights) {
+            for (int i = 0; i < stageWeights; i++) {
+                stage[i] = data.readShort();
+            }
+        }
+        return new PatternEvaluator(weights);
+    }
+
+    /**
+     * writes the weights to a file
+     * @param file path of the weights file (String)
+     * @throws IOException if the file can't be written
+     */
+    public void save(String file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(file)), 1 << 16))) {
+            out.writeInt(magic);
+            out.writeInt(version);
+            out.writeInt(weights.length);
+            for (short[] stage : weights) {
+                for (short weight : stage) {
+                    out.writeShort(weight);
+                }
+            }
+        }
+    }
+
+    /**
+     * gets the number of game stages with their own weights
+     * @return number of stages (int)
+     */
+    public int getStages() {
+        return weights.length;
+    }
+
+    /**
+     * estimates the final disc difference for the player to move
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @return estimated final disc difference for the player, from -64 to 64 (int)
+     */
+    public int evaluate(long player, long opponent) {
+        return evaluate(player, opponent, mobility(player, opponent), frontier(player, opponent));
+    }
+
+    /**
+     * estimates the final disc difference for the player to move, with the mobility and
+     * frontier differences already found, as PositionBatch does for many positions at once
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param mobility player's valid moves minus the opponent's (int)
+     * @param frontier player's frontier discs minus the opponent's (int)
+     * @return estimated final disc difference for the player, from -64 to 64 (int)
+     */
+    int evaluate(long player, long opponent, int mobility, int frontier) {
+        short[] stage = weights[stageOf(Long.bitCount(player | opponent), weights.length)];
+        int sum = patterns(player, opponent, stage, null)
+                + stage[mobilityIdx] * mobility
+                + stage[frontierIdx] * frontier
+                + stage[biasIdx];
+        int score = Math.floorDiv(sum + unitsPerDisc / 2, unitsPerDisc);
+        return Math.max(-64, Math.min(64, score));
+    }
+
+    /**
+     * finds which stage of the game a position is in
+     * @param discs number of discs on the board (int)
+     * @param stages number of stages (int)
+     * @return stage, from 0 to stages - 1 (int)
+     */
+    static int stageOf(int discs, int stages) {
+        return Math.max(0, Math.min(stages - 1, (discs - 4) * stages / 61));
+    }
+
+    /**
+     * finds the difference in valid moves between the player to move and the opponent
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @return player's valid moves minus the opponent's (int)
+     */
+    static int mobility(long player, long opponent) {
+        return Long.bitCount(Board.moveMask(player, opponent)) - Long.bitCount(Board.moveMask(opponent, player));
+    }
+
+    /**
+     * finds the difference in frontier discs, the ones next to an empty cell, between
+     * the player to move and the opponent
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @return player's frontier discs minus the opponent's (int)
+     */
+    static int frontier(long player, long opponent) {
+        long frontier = Board.neighbors(~(player | opponent));
+        return Long.bitCount(player & frontier) - Long.bitCount(opponent & frontier);
+    }
+
+    /**
+     * finds the weight index of every pattern on the board, adding up their weights
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param stage weights of the position's stage, or null to only find the indices (short[])
+     * @param indices filled with the featureCount indices, or null to only add up weights (int[])
+     * @return sum of the patterns' weights (int)
+     */
+    static int patterns(long player, long opponent, short[] stage, int[] indices) {
+        int sum = 0;
+        int n = 0;
+        //each pattern is read in the 4 orientations that put one corner at a1
+        for (int i = 0; i < 4; i++) {
+            long p = orient(player, i);
+            long o = orient(opponent, i);
+            sum += feature(stage, indices, n++, cornerOffset + index(corner(p), corner(o)));
+            for (int k = 1; k < 5; k++) {
+                sum += feature(stage, indices, n++, diagonalOffsets[k] + index(diagonal(p, k), diagonal(o, k)));
+            }
+            if (i == 0 || i == 3) {
+                sum += feature(stage, indices, n++, edgeOffset + index((int) (p & 0xFF), (int) (o & 0xFF)));
+                sum += feature(stage, indices, n++, edgeOffset + index(column(p), column(o)));
+            }
+            if (i == 0 || i == 2) {
+                sum += feature(stage, indices, n++, diagonalOffsets[0] + index(diagonal(p, 0), diagonal(o, 0)));
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * records the index of a pattern and looks up its weight
+     * @param stage weights of the position's stage, or null (short[])
+     * @param indices indices found so far, or null (int[])
+     * @param n number of the feature (int)
+     * @param idx index of the pattern's weight (int)
+     * @return the pattern's weight, or 0 if there are no weights (int)
+     */
+    private static int feature(short[] stage, int[] indices, int n, int idx) {
+        if (indices != null) {
+            indices[n] = idx;
+        }
+        return stage == null ? 0 : stage[idx];
+    }
+
+    /**
+     * turns a bitboard so that a different corner is at a1
+     * @param discs bitboard to turn (long)
+     * @param orientation 0 as is, 1 flipped top to bottom, 2 flipped left to right, 3 both (int)
+     * @return turned bitboard (long)
+     */
+    private static long orient(long discs, int orientation) {
+        switch (orientation) {
+            case 1: return Long.reverseBytes(discs);
+            case 2: return Long.reverse(Long.reverseBytes(discs));
+            case 3: return Long.reverse(discs);
+            default: return discs;
+        }
+    }
+
+    /**
+     * combines the player's and opponent's cells of a pattern into its base-3 index
+     * @param player player's cells of the pattern, one bit each (int)
+     * @param opponent opponent's cells of the pattern, one bit each (int)
+     * @return index of the pattern (int)
+     */
+    private static int index(int player, int opponent) {
+        return ternary[player] + 2 * ternary[opponent];
+    }
+
+    /**
+     * gathers the 3x3 region around a1 into 9 bits
+     * @param discs bitboard (long)
+     * @return the region's cells, row by row (int)
+     */
+    private static int corner(long discs) {
+        return (int) ((discs & 7) | (discs >>> 5 & 0x38) | (discs >>> 10 & 0x1C0));
+    }
+
+    /**
+     * gathers column a into 8 bits
+     * @param discs bitboard (long)
+     * @return the column's cells, top to bottom (int)
+     */
+    private static int column(long discs) {
+        return (int) (((discs & colA) * 0x0102040810204080L) >>> 56);
+    }
+
+    /**
+     * gathers a diagonal parallel to a1-h8 into its low bits
+     * @param discs bitboard (long)
+     * @param k how many cells right of a1-h8 the diagonal is, from 0 to 4 (int)
+     * @return the diagonal's cells, top to bottom (int)
+     */
+    private static int diagonal(long discs, int k) {
+        //each cell of the diagonal is in its own column, so the multiply stacks them without carries
+        return (int) (((discs & diagonals[k]) * colA) >>> (56 + k));
+    }
+}
@@ -0,0 +1,227 @@
+package reversi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * PatternTrainer: a class that fits pattern weights for PatternEvaluator to the final
+ * results of recorded games. Every position in the games is a sample whose target is the
+ * final disc difference for the player to move, and each sample is also used in its 8
+ * rotations and reflections so the weights come out symmetric. The weights are fitted by
+ * gradient descent on the squared error, with each weight's step scaled by how often its
+ * pattern comes up so rare patterns don't swing wildly
+ * @author Grace Bocek
+ */
+public class PatternTrainer {
+    //how many samples a weight needs before its step isn't scaled down
+    private static final int minSamples = 8;
+    private int stages;
+    private long[] players;
+    private long[] opponents;
+    private byte[] targets;
+    private int size;
+    private float[][] weights;
+
+    /**
+     * constructor for a trainer with no samples
+     * @param stages number of game stages with their own weights (int)
+     */
+    public PatternTrainer(int stages) {
+        this.stages = stages;
+        players = new long[1 << 16];
+        opponents = new long[1 << 16];
+        targets = new byte[1 << 16];
+        weights = new float[stages][PatternEvaluator.stageWeights];
+    }
+
+    /**
+     * adds every position of every game in a game record file as a sample
+     * @param file path of the game record file (String)
+     * @return number of games read (int)
+     * @throws IOException if the file can't be read
+     */
+    public int addGames(String file) throws IOException {
+        int games = 0;
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            while (reader.next()) {
+                games++;
+                int blackMargin = reader.getBlackCount() - reader.getWhiteCount();
+                Board board = new Board(reader.getUserFirst());
+                for (int i = 0; i < reader.getMoveCount(); i++) {
+                    int square = reader.getMove(i);
+                    if (square == GameRecordWriter.pass) {
+                        board.switchTurn();
+                        continue;
+                    }
+                    //white is the user
+                    if (board.getUsersTurn()) {
+                        addSample(board.getWhiteDiscs(), board.getBlackDiscs(), -blackMargin);
+                    }
+                    else {
+                        addSample(board.getBlackDiscs(), board.getWhiteDiscs(), blackMargin);
+                    }
+                    board.makeMove(square);
+                }
+            }
+        }
+        return games;
+    }
+
+    /**
+     * adds a sample position
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param target final disc difference for the player to move (int)
+     */
+    private void addSample(long player, long opponent, int target) {
+        if (size == players.length) {
+            players = Arrays.copyOf(players, size * 2);
+            opponents = Arrays.copyOf(opponents, size * 2);
+            targets = Arrays.copyOf(targets, size * 2);
+        }
+        players[size] = player;
+        opponents[size] = opponent;
+        targets[size] = (byte) target;
+        size++;
+    }
+
+    /**
+     * gets the number of samples
+     * @return number of samples (int)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * runs passes of gradient descent over every sample
+     * @param epochs number of passes (int)
+     * @param rate step size, where 1 moves each weight the whole average error (double)
+     */
+    public void train(int epochs, double rate) {
+        int[] indices = new int[PatternEvaluator.featureCount];
+        //each sample touches every pattern 8 times, once per symmetry
+        double step = rate / (PatternEvaluator.featureCount * 8);
+        //mobility and frontier don't change between epochs, so find them once for every sample
+        int[] mobilities = new int[size];
+        int[] frontiers = new int[size];
+        PositionBatch.mobilityAndFrontier(players, opponents, mobilities, frontiers, size);
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            double[][] gradients = new double[stages][PatternEvaluator.stageWeights];
+            int[][] counts = new int[stages][PatternEvaluator.stageWeights];
+            //sum of squares of the mobility and frontier terms, and the number of samples
+            double[][] scale = new double[stages][3];
+            double squaredError = 0;
+            for (int s = 0; s < size; s++) {
+                long player = players[s];
+                long opponent = opponents[s];
+                int stage = PatternEvaluator.stageOf(Long.bitCount(player | opponent), stages);
+                float[] stageWeights = weights[stage];
+                double[] gradient = gradients[stage];
+                int[] count = counts[stage];
+                int mobility = mobilities[s];
+                int frontier = frontiers[s];
+                for (int symmetry = 0; symmetry < Symmetry.count; symmetry++) {
+                    PatternEvaluator.patterns(Symmetry.transform(player, symmetry),
+                            Symmetry.transform(opponent, symmetry), null, indices);
+                    double prediction = stageWeights[PatternEvaluator.mobilityIdx] * mobility
+                            + stageWeights[PatternEvaluator.frontierIdx] * frontier
+                            + stageWeights[PatternEvaluator.biasIdx];
+                    for (int idx : indices) {
+                        prediction += stageWeights[idx];
+                    }
+                    double error = targets[s] - prediction;
+                    squaredError += error * error;
+                    for (int idx : indices) {
+                        gradient[idx] += error;
+                        count[idx]++;
+                    }
+                    gradient[PatternEvaluator.mobilityIdx] += error * mobility;
+                    gradient[PatternEvaluator.frontierIdx] += error * frontier;
+                    gradient[PatternEvaluator.biasIdx] += error;
+                    scale[stage][0] += mobility * mobility;
+                    scale[stage][1] += frontier * frontier;
+                    scale[stage][2]++;
+                }
+            }
+            for (int stage = 0; stage < stages; stage++) {
+                float[] stageWeights = weights[stage];
+                for (int i = 0; i < PatternEvaluator.mobilityIdx; i++) {
+                    if (counts[stage][i] > 0) {
+                        stageWeights[i] += step * gradients[stage][i] / Math.max(counts[stage][i], minSamples);
+                    }
+                }
+                for (int i = 0; i < 3; i++) {
+                    if (scale[stage][i] > 0) {
+                        stageWeights[PatternEvaluator.mobilityIdx + i] += step * gradients[stage][PatternEvaluator.mobilityIdx + i]
+                                / scale[stage][i];
+                    }
+                }
+            }
+            System.out.println("epoch " + epoch + ": rms error " + String.format("%.3f",
+                    Math.sqrt(squaredError / (size * 8.0))) + " discs");
+        }
+    }
+
+    /**
+     * rounds the weights into an evaluator
+     * @return evaluator with the trained weights (PatternEvaluator)
+     */
+    public PatternEvaluator toEvaluator() {
+        short[][] rounded = new short[stages][PatternEvaluator.stageWeights];
+        for (int stage = 0; stage < stages; stage++) {
+            for (int i = 0; i < PatternEvaluator.stageWeights; i++) {
+                long units = Math.round(weights[stage][i] * PatternEvaluator.unitsPerDisc);
+                rounded[stage][i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, units));
+            }
+        }
+        return new PatternEvaluator(rounded);
+    }
+
+    /**
+     * trains pattern weights on game records from the command line:
+     * PatternTrainer weights-file games-file... [--stages n] [--epochs n] [--rate r]
+     * @param args command line arguments (String[])
+     * @throws IOException if a file can't be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        String weightsFile = null;
+        ArrayList<String> gameFiles = new ArrayList<>();
+        int stages = 6;
+        int epochs = 60;
+        double rate = 1;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--stages")) {
+                i++;
+                stages = Integer.parseInt(args[i]);
+            }
+            else if (args[i].equals("--epochs")) {
+                i++;
+                epochs = Integer.parseInt(args[i]);
+            }
+            else if (args[i].equals("--rate")) {
+                i++;
+                rate = Double.parseDouble(args[i]);
+            }
+            else if (weightsFile == null) {
+                weightsFile = args[i];
+            }
+            else {
+                gameFiles.add(args[i]);
+            }
+        }
+        if (weightsFile == null || gameFiles.isEmpty()) {
+            throw new IllegalArgumentException("usage: PatternTrainer weights-file games-file... [--stages n] "
+                    + "[--epochs n] [--rate r]");
+        }
+        PatternTrainer trainer = new PatternTrainer(stages);
+        for (String file : gameFiles) {
+            int games = trainer.addGames(file);
+            System.out.println(file + ": " + games + " games");
+        }
+        System.out.println(trainer.size() + " positions");
+        trainer.train(epochs, rate);
+        trainer.toEvaluator().save(weightsFile);
+    }
+}
@@ -0,0 +1,454 @@
+package reversi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perft: a class that counts the positions reachable in a fixed number of moves, to check
+ * move generation against known counts and to measure its speed. A skipped turn counts
+ * as a move, the same as in a game, and a finished game counts as one position however
+ * many moves are left
+ * @author Grace Bocek
+ */
+public class Perft {
+    private static final String startPosition =
+            "---------------------------OX------XO--------------------------- X";
+    private long[] tableKeys;
+    private long[] tableCounts;
+    private int tableMask;
+    private boolean verify;
+
+    /**
+     * constructor for a perft counter
+     * @param tableMegabytes size of the table of counted positions in MB, or 0 for no table (int)
+     * @param verify whether to check every position against a simple ray-walking move generator (bool)
+     */
+    public Perft(int tableMegabytes, boolean verify) {
+        if (tableMegabytes > 0) {
+            int entries = (int) Long.highestOneBit(Math.min((long) tableMegabytes * 1024 * 1024 / 16, 1 << 28));
+            tableKeys = new long[entries];
+            tableCounts = new long[entries];
+            tableMask = entries - 1;
+        }
+        this.verify = verify;
+    }
+
+    /**
+     * counts the positions reachable from a board in a fixed number of moves
+     * @param board board to count from; it is left unchanged (Board)
+     * @param depth number of moves (int)
+     * @return number of positions (long)
+     */
+    public long count(Board board, int depth) {
+        if (verify) {
+            check(board);
+        }
+        if (depth == 0) {
+            return 1;
+        }
+        long moves = board.getValidMoveMask();
+        if (moves == 0) {
+            board.makePass();
+            long out = 1;
+            if (board.getValidMoveMask() != 0) {
+                out = count(board, depth - 1);
+            }
+            board.unmakeMove();
+            return out;
+        }
+        if (depth == 1 && !verify) {
+            return Long.bitCount(moves);
+        }
+        //rotations and reflections have the same counts, so they share an entry; the depth
+        //is mixed into the key so counts of different depths don't mix
+        long key = board.getCanonicalHash() * 31 + depth;
+        int slot = (int) (key >>> 32) & tableMask;
+        if (tableKeys != null) {
+            long storedCount = tableCounts[slot];
+            if ((tableKeys[slot] ^ storedCount) == key && storedCount != 0) {
+                return storedCount;
+            }
+        }
+        long out = 0;
+        while (moves != 0) {
+            board.makeMove(Long.numberOfTrailingZeros(moves));
+            out += count(board, depth - 1);
+            board.unmakeMove();
+            moves &= moves - 1;
+        }
+        if (tableKeys != null) {
+            //stored with the key XORed in so a half-written entry from another thread never matches
+            tableKeys[slot] = key ^ out;
+            tableCounts[slot] = out;
+        }
+        return out;
+    }
+
+    /**
+     * counts the positions reachable from a board of any size in a fixed number of moves
+     * @param board board to count from; it is left unchanged (WideBoard)
+     * @param depth number of moves (int)
+     * @return number of positions (long)
+     */
+    public long count(WideBoard board, int depth) {
+        if (verify) {
+            check(board);
+        }
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = new int[board.getSize() * board.getSize()];
+        int moveCount = board.getValidMoves(moves);
+        if (moveCount == 0) {
+            board.makePass();
+            long out = 1;
+            if (board.hasValidMove()) {
+                out = count(board, depth - 1);
+            }
+            board.unmakeMove();
+            return out;
+        }
+        if (depth == 1 && !verify) {
+            return moveCount;
+        }
+        long key = board.getHash() * 31 + depth;
+        int slot = (int) (key >>> 32) & tableMask;
+        if (tableKeys != null) {
+            long storedCount = tableCounts[slot];
+            if ((tableKeys[slot] ^ storedCount) == key && storedCount != 0) {
+                return storedCount;
+            }
+        }
+        long out = 0;
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            out += count(board, depth - 1);
+            board.unmakeMove();
+        }
+        if (tableKeys != null) {
+            tableKeys[slot] = key ^ out;
+            tableCounts[slot] = out;
+        }
+        return out;
+    }
+
+    /**
+     * counts the positions after each of the board's valid moves, split between threads
+     * @param board board to count from (Board)
+     * @param depth number of moves, counting the first one (int)
+     * @param threads number of threads (int)
+     * @return number of positions after each valid move, in the order of getValidMoves (long[])
+     * @throws Exception if a counting thread fails
+     */
+    public long[] divide(Board board, int depth, int threads) throws Exception {
+        board.findValidMoves();
+        ArrayList<Move> moves = board.getValidMoves();
+        long[] out = new long[moves.size()];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            ArrayList<Future<Long>> counts = new ArrayList<>();
+            for (Move move : moves) {
+                Board copy = new Board(board);
+                copy.updateBoard(move);
+                counts.add(pool.submit(() -> count(copy, depth - 1)));
+            }
+            for (int i = 0; i < out.length; i++) {
+                out[i] = counts.get(i).get();
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        return out;
+    }
+
+    /**
+     * counts the positions after each of a board of any size's valid moves, split between threads
+     * @param board board to count from (WideBoard)
+     * @param depth number of moves, counting the first one (int)
+     * @param threads number of threads (int)
+     * @return number of positions after each valid move, lowest cell first (long[])
+     * @throws Exception if a counting thread fails
+     */
+    public long[] divide(WideBoard board, int depth, int threads) throws Exception {
+        int[] moves = new int[board.getSize() * board.getSize()];
+        long[] out = new long[board.getValidMoves(moves)];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            ArrayList<Future<Long>> counts = new ArrayList<>();
+            for (int i = 0; i < out.length; i++) {
+                WideBoard copy = new WideBoard(board);
+                copy.makeMove(moves[i]);
+                counts.add(pool.submit(() -> count(copy, depth - 1)));
+            }
+            for (int i = 0; i < out.length; i++) {
+                out[i] = counts.get(i).get();
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        return out;
+    }
+
+    /**
+     * checks the board's valid moves and flips against a simple ray-walking move generator
+     * @param board board to check (Board)
+     */
+    private static void check(Board board) {
+        long player = board.getUsersTurn() ? board.getWhiteDiscs() : board.getBlackDiscs();
+        long opponent = board.getUsersTurn() ? board.getBlackDiscs() : board.getWhiteDiscs();
+        long expectedMoves = 0;
+        for (int square = 0; square < 64; square++) {
+            if (((player | opponent) & (1L << square)) == 0 && referenceFlips(player, opponent, square) != 0) {
+                expectedMoves |= 1L << square;
+            }
+        }
+        if (expectedMoves != board.getValidMoveMask()) {
+            throw new IllegalStateException("wrong valid moves in position " + board.toPositionString());
+        }
+        //every rotation and reflection has the same moves, turned the same way, and the same canonical hash
+        long canonicalHash = Symmetry.canonicalKey(player, opponent);
+        for (int symmetry = 1; symmetry < Symmetry.count; symmetry++) {
+            long turnedPlayer = Symmetry.transform(player, symmetry);
+            long turnedOpponent = Symmetry.transform(opponent, symmetry);
+            if (Board.moveMask(turnedPlayer, turnedOpponent) != Symmetry.transform(expectedMoves, symmetry)
+                    || Symmetry.canonicalKey(turnedPlayer, turnedOpponent) != canonicalHash) {
+                throw new IllegalStateException("wrong symmetry " + symmetry + " of position "
+                        + board.toPositionString());
+            }
+        }
+        long moves = expectedMoves;
+        while (moves != 0) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flips = referenceFlips(player, opponent, square);
+            board.makeMove(square);
+            long newPlayer = board.getUsersTurn() ? board.getBlackDiscs() : board.getWhiteDiscs();
+            long newOpponent = board.getUsersTurn() ? board.getWhiteDiscs() : board.getBlackDiscs();
+            board.unmakeMove();
+            if (newPlayer != (player | flips | (1L << square)) || newOpponent != (opponent & ~flips)) {
+                throw new IllegalStateException("wrong flips for move " + Move.of(square)
+                        + " in position " + board.toPositionString());
+            }
+            moves &= moves - 1;
+        }
+    }
+
+    /**
+     * finds the pieces flipped by a move by walking out from it one cell at a time
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param square cell of the move (int)
+     * @return bitboard of flipped pieces (long)
+     */
+    private static long referenceFlips(long player, long opponent, int square) {
+        long out = 0;
+        for (int dRow = -1; dRow <= 1; dRow++) {
+            for (int dCol = -1; dCol <= 1; dCol++) {
+                if (dRow == 0 && dCol == 0) {
+                    continue;
+                }
+                long run = 0;
+                int row = square / 8 + dRow;
+                int col = square % 8 + dCol;
+                while (row >= 0 && row < 8 && col >= 0 && col < 8 && (opponent & (1L << (row * 8 + col))) != 0) {
+                    run |= 1L << (row * 8 + col);
+                    row += dRow;
+                    col += dCol;
+                }
+                if (row >= 0 && row < 8 && col >= 0 && col < 8 && (player & (1L << (row * 8 + col))) != 0) {
+                    out |= run;
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * checks a board of any size's valid moves and flips against a simple ray-walking
+     * move generator
+     * @param board board to check (WideBoard)
+     */
+    private static void check(WideBoard board) {
+        int size = board.getSize();
+        long[] player = board.getUsersTurn() ? board.getWhiteDiscs() : board.getBlackDiscs();
+        long[] opponent = board.getUsersTurn() ? board.getBlackDiscs() : board.getWhiteDiscs();
+        long[] expectedMoves = new long[board.getWords()];
+        for (int cell = 0; cell < size * size; cell++) {
+            if (!WideBoard.testBit(player, cell) && !WideBoard.testBit(opponent, cell)
+                    && referenceFlips(player, opponent, cell, size).length > 0) {
+                expectedMoves[cell >>> 6] |= 1L << cell;
+            }
+        }
+        long[] moveMask = new long[board.getWords()];
+        board.getValidMoveMask(moveMask);
+        if (!Arrays.equals(expectedMoves, moveMask)) {
+            throw new IllegalStateException("wrong valid moves in position " + board.toPositionString());
+        }
+        for (int cell = 0; cell < size * size; cell++) {
+            if (!WideBoard.testBit(expectedMoves, cell)) {
+                continue;
+            }
+            int[] flips = referenceFlips(player, opponent, cell, size);
+            long[] newPlayer = player.clone();
+            long[] newOpponent = opponent.clone();
+            newPlayer[cell >>> 6] |= 1L << cell;
+            for (int flip : flips) {
+                newPlayer[flip >>> 6] |= 1L << flip;
+                newOpponent[flip >>> 6] &= ~(1L << flip);
+            }
+            long hash = board.getHash();
+            board.makeMove(cell);
+            boolean right = Arrays.equals(newPlayer, board.getUsersTurn() ? board.getBlackDiscs() : board.getWhiteDiscs())
+                    && Arrays.equals(newOpponent, board.getUsersTurn() ? board.getWhiteDiscs() : board.getBlackDiscs());
+            board.unmakeMove();
+            if (!right || board.getHash() != hash) {
+                throw new IllegalStateException("wrong flips for move " + board.moveName(cell)
+                        + " in position " + board.toPositionString());
+            }
+        }
+    }
+
+    /**
+     * finds the pieces flipped by a move on a board of any size by walking out from it
+     * one cell at a time
+     * @param player discs of the player to move (long[])
+     * @param opponent discs of the opponent (long[])
+     * @param cell cell of the move (int)
+     * @param size number of rows and columns (int)
+     * @return cells of the flipped pieces (int[])
+     */
+    private static int[] referenceFlips(long[] player, long[] opponent, int cell, int size) {
+        ArrayList<Integer> out = new ArrayList<>();
+        for (int dRow = -1; dRow <= 1; dRow++) {
+            for (int dCol = -1; dCol <= 1; dCol++) {
+                if (dRow == 0 && dCol == 0) {
+                    continue;
+                }
+                ArrayList<Integer> run = new ArrayList<>();
+                int row = cell / size + dRow;
+                int col = cell % size + dCol;
+                while (row >= 0 && row < size && col >= 0 && col < size
+                        && WideBoard.testBit(opponent, row * size + col)) {
+                    run.add(row * size + col);
+                    row += dRow;
+                    col += dCol;
+                }
+                if (row >= 0 && row < size && col >= 0 && col < size
+                        && WideBoard.testBit(player, row * size + col)) {
+                    out.addAll(run);
+                }
+            }
+        }
+        return out.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * runs perft from the command line:
+     * Perft depth [position] [--divide] [--threads n] [--hash megabytes] [--verify] [--size n]
+     * @param args command line arguments (String[])
+     * @throws Exception if a counting thread fails
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("usage: Perft depth [position] [--divide] [--threads n] [--hash megabytes] [--verify] "
+                    + "[--size n]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        String position = null;
+        boolean divide = false;
+        boolean verify = false;
+        int threads = 1;
+        int tableMegabytes = 0;
+        int size = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--divide")) {
+                divide = true;
+            }
+            else if (args[i].equals("--verify")) {
+                verify = true;
+            }
+            else if (args[i].equals("--threads")) {
+                i++;
+                threads = Integer.parseInt(args[i]);
+            }
+            else if (args[i].equals("--hash")) {
+                i++;
+                tableMegabytes = Integer.parseInt(args[i]);
+            }
+            else if (args[i].equals("--size")) {
+                i++;
+                size = Integer.parseInt(args[i]);
+            }
+            else {
+                position = args[i];
+            }
+        }
+        //other sizes, and 8 x 8 with --size 8 to compare against Board, count with WideBoard
+        if (position == null && size != 0) {
+            runWide(new WideBoard(size, false), depth, divide, threads, new Perft(tableMegabytes, verify));
+            return;
+        }
+        if (position != null && position.replaceAll("\\s", "").length() != 65) {
+            runWide(new WideBoard(position), depth, divide, threads, new Perft(tableMegabytes, verify));
+            return;
+        }
+        Board board = new Board(position == null ? startPosition : position);
+        Perft perft = new Perft(tableMegabytes, verify);
+        System.out.println(board);
+        long start = System.nanoTime();
+        long nodes = 0;
+        board.findValidMoves();
+        if (depth == 0 || board.getValidMoves().size() == 0) {
+            nodes = perft.count(board, depth);
+        }
+        else {
+            long[] counts = perft.divide(board, depth, threads);
+            for (int i = 0; i < counts.length; i++) {
+                if (divide) {
+                    System.out.println(board.getValidMoves().get(i) + ": " + counts[i]);
+                }
+                nodes += counts[i];
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println("depth " + depth + ": " + nodes + " positions in "
+                + String.format("%.3f", seconds) + " s (" + String.format("%.0f", nodes / seconds) + " positions/s)");
+    }
+
+    /**
+     * runs perft on a board of any size and prints the counts
+     * @param board board to count from (WideBoard)
+     * @param depth number of moves (int)
+     * @param divide whether to print the count after each move (bool)
+     * @param threads number of threads (int)
+     * @param perft perft counter (Perft)
+     * @throws Exception if a counting thread fails
+     */
+    private static void runWide(WideBoard board, int depth, boolean divide, int threads, Perft perft) throws Exception {
+        System.out.println(board);
+        long start = System.nanoTime();
+        long nodes = 0;
+        int[] moves = new int[board.getSize() * board.getSize()];
+        int moveCount = board.getValidMoves(moves);
+        if (depth == 0 || moveCount == 0) {
+            nodes = perft.count(board, depth);
+        }
+        else {
+            long[] counts = perft.divide(board, depth, threads);
+            for (int i = 0; i < counts.length; i++) {
+                if (divide) {
+                    System.out.println(board.moveName(moves[i]) + ": " + counts[i]);
+                }
+                nodes += counts[i];
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println("depth " + depth + ": " + nodes + " positions in "
+                + String.format("%.3f", seconds) + " s (" + String.format("%.0f", nodes / seconds) + " positions/s)");
+    }
+}
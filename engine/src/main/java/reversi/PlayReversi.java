@@ -0,0 +1,77 @@
+package reversi;
+
+import java.io.IOException;
+import java.util.Scanner;
+
+/**
+ * PlayReversi: a class that allows the user to play Reversi matches against the computer in the terminal
+ * @author Grace Bocek
+ */
+public class PlayReversi {
+    /**
+     * plays matches until the user stops: PlayReversi [book-file] [--record file] [--size n].
+     * The computer plays from the opening book file if there is one, and every match is added
+     * to the game record file if there is one. Boards other than 8 x 8 can't use either
+     * @param args command line arguments (String[])
+     * @throws IOException if the opening book or game record file can't be opened
+     */
+    public static void main(String[] args) throws IOException {
+        OpeningBook book = null;
+        GameRecordWriter recorder = null;
+        int size = 8;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--record")) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("missing value for " + args[i]);
+                }
+                i++;
+                recorder = new GameRecordWriter(args[i]);
+            }
+            else if (args[i].equals("--size")) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("missing value for " + args[i]);
+                }
+                i++;
+                size = Integer.parseInt(args[i]);
+            }
+            else {
+                book = new OpeningBook(args[i]);
+            }
+        }
+        if (size != 8 && (book != null || recorder != null)) {
+            throw new IllegalArgumentException("opening books and game records are only for 8 x 8 boards");
+        }
+        Scanner scan = new Scanner(System.in);
+        String playAgain = "y";
+        //the user moves first in odd-numbered games
+        int gameCount = 0;
+        while (playAgain.equals("y")) {
+            gameCount++;
+            if (size != 8) {
+                new WideReversi(size, gameCount % 2 == 1).play();
+            }
+            else {
+                Reversi reversi = new Reversi(gameCount % 2 == 1);
+                reversi.setOpeningBook(book);
+                reversi.setPondering(true);
+                reversi.setGameRecorder(recorder);
+                reversi.play();
+                if (reversi.getRecordError() != null) {
+                    System.out.println("Couldn't record the game: " + reversi.getRecordError().getMessage());
+                }
+            }
+            System.out.println();
+            System.out.print("Play again? (y/n) ");
+            playAgain = scan.next();
+            scan.nextLine();
+            while (!playAgain.equals("n") && !playAgain.equals("y")) {
+                System.out.print("Play again? (y/n) ");
+                playAgain = scan.next();
+                scan.nextLine();
+            }
+        }
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+}
\ No newline at end of file
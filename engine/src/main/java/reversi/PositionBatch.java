@@ -0,0 +1,139 @@
+package reversi;
+
+/**
+ * PositionBatch: a class that finds legal moves, flip counts and evaluations for many
+ * independent positions at once. Positions are given as parallel arrays of the player to
+ * move's and the opponent's bitboards. When the JVM is started with
+ * --add-modules jdk.incubator.vector, whole vectors of positions go through the move
+ * generator together; otherwise, and for the positions left over, each position goes
+ * through Board's move generator in a plain loop. Both give the same results
+ * @author Grace Bocek
+ */
+public class PositionBatch {
+    private static final boolean vectorized = vectorAvailable();
+
+    private PositionBatch() {
+    }
+
+    /**
+     * determines whether the Vector API can be used. Setting the system property
+     * reversi.scalar turns it off, to compare against the scalar loops
+     * @return whether the vector kernels can be used (bool)
+     */
+    private static boolean vectorAvailable() {
+        if (Boolean.getBoolean("reversi.scalar")
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorKernels.lanes() > 1;
+        }
+        catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * determines whether batches go through the Vector API
+     * @return whether batches are vectorized (bool)
+     */
+    public static boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * gets the number of positions handled together
+     * @return positions per vector, or 1 without the Vector API (int)
+     */
+    public static int lanes() {
+        return vectorized ? VectorKernels.lanes() : 1;
+    }
+
+    /**
+     * finds the legal moves in each position
+     * @param players discs of the player to move in each position (long[])
+     * @param opponents discs of the opponent in each position (long[])
+     * @param moves filled with a bitboard of each position's legal moves (long[])
+     * @param count number of positions (int)
+     */
+    public static void moveMasks(long[] players, long[] opponents, long[] moves, int count) {
+        int start = 0;
+        if (vectorized) {
+            VectorKernels.moveMasks(players, opponents, moves, count);
+            start = VectorKernels.loopBound(count);
+        }
+        for (int i = start; i < count; i++) {
+            moves[i] = Board.moveMask(players[i], opponents[i]);
+        }
+    }
+
+    /**
+     * counts the opponent pieces a move would flip in each position
+     * @param players discs of the player to move in each position (long[])
+     * @param opponents discs of the opponent in each position (long[])
+     * @param squares cell of the move in each position, numbered row * 8 + col (int[])
+     * @param flips filled with the number of pieces each move flips, 0 if it isn't legal (int[])
+     * @param count number of positions (int)
+     */
+    public static void flipCounts(long[] players, long[] opponents, int[] squares, int[] flips, int count) {
+        int start = 0;
+        if (vectorized) {
+            long[] moveBits = new long[count];
+            for (int i = 0; i < count; i++) {
+                //an occupied cell isn't a move, and a fill from no cell flips nothing
+                moveBits[i] = ((players[i] | opponents[i]) & 1L << squares[i]) == 0 ? 1L << squares[i] : 0;
+            }
+            VectorKernels.flipCounts(players, opponents, moveBits, flips, count);
+            start = VectorKernels.loopBound(count);
+        }
+        for (int i = start; i < count; i++) {
+            long moveBit = 1L << squares[i];
+            if (((players[i] | opponents[i]) & moveBit) != 0) {
+                flips[i] = 0;
+                continue;
+            }
+            flips[i] = Long.bitCount(Board.flipMask(players[i], opponents[i], moveBit));
+        }
+    }
+
+    /**
+     * finds the mobility and frontier differences PatternEvaluator uses for each position
+     * @param players discs of the player to move in each position (long[])
+     * @param opponents discs of the opponent in each position (long[])
+     * @param mobility filled with the player's valid moves minus the opponent's (int[])
+     * @param frontier filled with the player's frontier discs minus the opponent's (int[])
+     * @param count number of positions (int)
+     */
+    public static void mobilityAndFrontier(long[] players, long[] opponents, int[] mobility, int[] frontier,
+                                           int count) {
+        int start = 0;
+        if (vectorized) {
+            VectorKernels.mobilityAndFrontier(players, opponents, mobility, frontier, count);
+            start = VectorKernels.loopBound(count);
+        }
+        for (int i = start; i < count; i++) {
+            mobility[i] = PatternEvaluator.mobility(players[i], opponents[i]);
+            frontier[i] = PatternEvaluator.frontier(players[i], opponents[i]);
+        }
+    }
+
+    /**
+     * estimates the final disc difference for the player to move in each position, the
+     * same as PatternEvaluator.evaluate. Mobility and frontier discs are found for the whole
+     * batch at once; the pattern tables are looked up one position at a time
+     * @param evaluator pattern evaluator (PatternEvaluator)
+     * @param players discs of the player to move in each position (long[])
+     * @param opponents discs of the opponent in each position (long[])
+     * @param scores filled with each position's estimated disc difference (int[])
+     * @param count number of positions (int)
+     */
+    public static void evaluate(PatternEvaluator evaluator, long[] players, long[] opponents, int[] scores,
+                                int count) {
+        int[] mobility = new int[count];
+        int[] frontier = new int[count];
+        mobilityAndFrontier(players, opponents, mobility, frontier, count);
+        for (int i = 0; i < count; i++) {
+            scores[i] = evaluator.evaluate(players[i], opponents[i], mobility[i], frontier[i]);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package reversi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * ProbCut: a class that holds the statistics Multi-ProbCut uses to prune the search. For
+ * each stage of the game and search depth, the score of a deep search is predicted from
+ * a shallow one as a * shallow + b, with a standard deviation of the error. When a shallow
+ * search makes it very unlikely that the deep search could end up inside the window, the
+ * deep search is skipped. Statistics are fitted from shallow and deep searches of the
+ * same positions by ProbCutFitter
+ * @author Grace Bocek
+ */
+public class ProbCut {
+    //"RVPC" followed by the format version
+    private static final int magic = 0x52565043;
+    private static final int version = 1;
+    //shallower searches aren't worth cutting
+    public static final int minDepth = 3;
+    //how many standard deviations a shallow score has to be outside the window to cut
+    private static final double defaultThreshold = 1.5;
+    private static ProbCut defaultProbCut;
+    private static boolean defaultLoaded;
+    //slope, intercept and standard deviation for each stage and depth; depths without
+    //their own statistics have a standard deviation of 0
+    private float[][] slopes;
+    private float[][] intercepts;
+    private float[][] deviations;
+    private double threshold;
+
+    /**
+     * constructor for ProbCut statistics
+     * @param slopes slope of the prediction for each stage and depth (float[][])
+     * @param intercepts intercept of the prediction for each stage and depth (float[][])
+     * @param deviations standard deviation of the prediction's error, or 0 if the depth
+     *                   hasn't been fitted, for each stage and depth (float[][])
+     */
+    ProbCut(float[][] slopes, float[][] intercepts, float[][] deviations) {
+        this.slopes = slopes;
+        this.intercepts = intercepts;
+        this.deviations = deviations;
+        threshold = defaultThreshold;
+    }
+
+    /**
+     * reads ProbCut statistics from a file
+     * @param file path of the statistics file (String)
+     * @return the file's statistics (ProbCut)
+     * @throws IOException if the file can't be read or isn't a statistics file
+     */
+    public static ProbCut load(String file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return read(in, file);
+        }
+    }
+
+    /**
+     * gets the statistics that come with the engine, fitted with the built-in pattern weights
+     * @return the built-in statistics, or null if they aren't on the class path (ProbCut)
+     * @throws UncheckedIOException if the built-in ProbCut statistics are on the class path but can't be read
+     */
+    public static synchronized ProbCut getDefault() {
+        if (!defaultLoaded) {
+            try (InputStream in = ProbCut.class.getResourceAsStream("probcut.bin")) {
+                if (in != null) {
+                    defaultProbCut = read(in, "probcut.bin");
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("couldn't read the built-in ProbCut statistics", e);
+            }
+            defaultLoaded = true;
+        }
+        return defaultProbCut;
+    }
+
+    /**
+     * reads ProbCut statistics from a stream of a statistics file
+     * @param in stream to read (InputStream)
+     * @param name name of the file, for error messages (String)
+     * @return the file's statistics (ProbCut)
+     * @throws IOException if the stream can't be read or isn't a statistics file
+     */
+    private static ProbCut read(InputStream in, String name) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != magic) {
+            throw new IOException(name + " isn't a ProbCut statistics file");
+        }
+        int fileVersion = data.readInt();
+        if (fileVersion != version) {
+            throw new IOException(name + " is ProbCut statistics version " + fileVersion + ", not " + version);
+        }
+        int stages = data.readInt();
+        int depths = data.readInt();
+        if (stages < 1 || stages > 61 || depths < 1 || depths > Search.maxDepth + 1) {
+            throw new IOException(name + " has " + stages + " stages and " + depths + " depths");
+        }
+        float[][] slopes = new float[stages][depths];
+        float[][] intercepts = new float[stages][depths];
+        float[][] deviations = new float[stages][depths];
+        for (int stage = 0; stage < stages; stage++) {
+            for (int depth = 0; depth < depths; depth++) {
+                slopes[stage][depth] = data.readFloat();
+                intercepts[stage][depth] = data.readFloat();
+                deviations[stage][depth] = data.readFloat();
+            }
+        }
+        return new ProbCut(slopes, intercepts, deviations);
+    }
+
+    /**
+     * writes the statistics to a file
+     * @param file path of the statistics file (String)
+     * @throws IOException if the file can't be written
+     */
+    public void save(String file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(magic);
+            out.writeInt(version);
+            out.writeInt(slopes.length);
+            out.writeInt(slopes[0].length);
+            for (int stage = 0; stage < slopes.length; stage++) {
+                for (int depth = 0; depth < slopes[0].length; depth++) {
+                    out.writeFloat(slopes[stage][depth]);
+                    out.writeFloat(intercepts[stage][depth]);
+                    out.writeFloat(deviations[stage][depth]);
+                }
+            }
+        }
+    }
+
+    /**
+     * sets how sure a cut has to be. Higher thresholds cut less often and make fewer mistakes
+     * @param threshold number of standard deviations a shallow score has to be outside the window (double)
+     */
+    public void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * gets the depth of the shallow search used to predict a deep one. It has the same
+     * parity as the deep search so both end on the same player's turn
+     * @param depth depth of the deep search (int)
+     * @return depth of the shallow search (int)
+     */
+    public static int shallowDepth(int depth) {
+        return depth / 4 * 2 + (depth & 1);
+    }
+
+    /**
+     * finds the statistics to use for a depth. Depths deeper than any fitted one use the
+     * deepest fitted depth with the same parity
+     * @param stage stage of the game (int)
+     * @param depth depth of the deep search (int)
+     * @return depth whose statistics to use, or -1 if there are none (int)
+     */
+    private int fittedDepth(int stage, int depth) {
+        int d = Math.min(depth, slopes[stage].length - 1);
+        if ((d & 1) != (depth & 1)) {
+            d--;
+        }
+        while (d >= minDepth && deviations[stage][d] == 0) {
+            d -= 2;
+        }
+        return d >= minDepth ? d : -1;
+    }
+
+    /**
+     * finds the stage of the game for a number of discs
+     * @param discs number of discs on the board (int)
+     * @return stage (int)
+     */
+    private int stageOf(int discs) {
+        return PatternEvaluator.stageOf(discs, slopes.length);
+    }
+
+    /**
+     * finds the shallow score at or above which the deep search is very likely to reach beta
+     * @param discs number of discs on the board (int)
+     * @param depth depth of the deep search (int)
+     * @param beta score the deep search would have to reach (int)
+     * @return shallow score to test for, or Search.infinity to not cut (int)
+     */
+    public int highBound(int discs, int depth, int beta) {
+        int stage = stageOf(discs);
+        int d = fittedDepth(stage, depth);
+        if (d == -1 || slopes[stage][d] <= 0) {
+            return Search.infinity;
+        }
+        double bound = (beta + threshold * deviations[stage][d] - intercepts[stage][d]) / slopes[stage][d];
+        return (int) Math.ceil(bound);
+    }
+
+    /**
+     * finds the shallow score at or below which the deep search is very likely to stay at or under alpha
+     * @param discs number of discs on the board (int)
+     * @param depth depth of the deep search (int)
+     * @param alpha score the deep search would have to beat (int)
+     * @return shallow score to test for, or -Search.infinity to not cut (int)
+     */
+    public int lowBound(int discs, int depth, int alpha) {
+        int stage = stageOf(discs);
+        int d = fittedDepth(stage, depth);
+        if (d == -1 || slopes[stage][d] <= 0) {
+            return -Search.infinity;
+        }
+        double bound = (alpha - threshold * deviations[stage][d] - intercepts[stage][d]) / slopes[stage][d];
+        return (int) Math.floor(bound);
+    }
+}
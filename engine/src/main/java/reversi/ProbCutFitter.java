@@ -0,0 +1,242 @@
+package reversi;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+
+/**
+ * ProbCutFitter: a class that fits ProbCut statistics. Positions from recorded games are
+ * searched with exact principal variation search to each depth and to the shallow depth
+ * ProbCut would use to predict it, and the pairs of scores are fitted with least squares
+ * for each stage of the game and depth. The pairs can be logged to a CSV file and fitted
+ * again later without searching
+ * @author Grace Bocek
+ */
+public class ProbCutFitter {
+    //fewer pairs than this don't give a trustworthy standard deviation
+    private static final int minPairs = 30;
+    private int stages;
+    private int maxDepth;
+    //sums of 1, shallow, deep, shallow^2, shallow*deep and deep^2 for each stage and depth
+    private double[][][] sums;
+    private PrintWriter log;
+
+    /**
+     * constructor for a fitter with no pairs
+     * @param stages number of game stages with their own statistics (int)
+     * @param maxDepth deepest search depth to fit (int)
+     */
+    public ProbCutFitter(int stages, int maxDepth) {
+        this.stages = stages;
+        this.maxDepth = maxDepth;
+        sums = new double[stages][maxDepth + 1][6];
+    }
+
+    /**
+     * sets a file to log every pair of scores to, as "discs,depth,shallow,deep" lines
+     * @param log log to write to, or null to not log (PrintWriter)
+     */
+    public void setLog(PrintWriter log) {
+        this.log = log;
+    }
+
+    /**
+     * adds a pair of scores for the same position
+     * @param discs number of discs on the board (int)
+     * @param depth depth of the deep search (int)
+     * @param shallow score of the shallow search (int)
+     * @param deep score of the deep search (int)
+     */
+    public void addPair(int discs, int depth, int shallow, int deep) {
+        if (depth < ProbCut.minDepth || depth > maxDepth) {
+            return;
+        }
+        double[] sum = sums[PatternEvaluator.stageOf(discs, stages)][depth];
+        sum[0]++;
+        sum[1] += shallow;
+        sum[2] += deep;
+        sum[3] += (double) shallow * shallow;
+        sum[4] += (double) shallow * deep;
+        sum[5] += (double) deep * deep;
+        if (log != null) {
+            log.println(discs + "," + depth + "," + shallow + "," + deep);
+        }
+    }
+
+    /**
+     * searches a position to every depth ProbCut can use, and to the shallow depth for each
+     * @param search search with ProbCut turned off, set to the position's board (Search)
+     * @param discs number of discs on the board (int)
+     */
+    public void addPosition(Search search, int discs) {
+        int[] scores = new int[maxDepth + 1];
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            scores[depth] = search.searchPosition(depth);
+        }
+        for (int depth = ProbCut.minDepth; depth <= maxDepth; depth++) {
+            addPair(discs, depth, scores[ProbCut.shallowDepth(depth)], scores[depth]);
+        }
+    }
+
+    /**
+     * adds the pairs from a log written by an earlier run
+     * @param file path of the log (String)
+     * @return number of pairs read (int)
+     * @throws IOException if the log can't be read
+     */
+    public int addLog(String file) throws IOException {
+        int pairs = 0;
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split(",");
+                addPair(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+                        Integer.parseInt(fields[2]), Integer.parseInt(fields[3]));
+                pairs++;
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * fits deep = a * shallow + b for each stage and depth with enough pairs
+     * @return fitted statistics (ProbCut)
+     */
+    public ProbCut fit() {
+        float[][] slopes = new float[stages][maxDepth + 1];
+        float[][] intercepts = new float[stages][maxDepth + 1];
+        float[][] deviations = new float[stages][maxDepth + 1];
+        for (int stage = 0; stage < stages; stage++) {
+            for (int depth = ProbCut.minDepth; depth <= maxDepth; depth++) {
+                double[] line = fitLine(sums[stage][depth]);
+                if (line != null) {
+                    slopes[stage][depth] = (float) line[0];
+                    intercepts[stage][depth] = (float) line[1];
+                    //a tiny deviation would make every cut look certain
+                    deviations[stage][depth] = (float) Math.max(line[2], 0.5);
+                }
+            }
+        }
+        return new ProbCut(slopes, intercepts, deviations);
+    }
+
+    /**
+     * prints the fit for each stage and depth with enough pairs
+     */
+    private void print() {
+        System.out.printf("%6s %6s %8s %8s %8s %8s%n", "stage", "depth", "pairs", "a", "b", "sigma");
+        for (int stage = 0; stage < stages; stage++) {
+            for (int depth = ProbCut.minDepth; depth <= maxDepth; depth++) {
+                double[] line = fitLine(sums[stage][depth]);
+                if (line != null) {
+                    System.out.printf("%6d %6d %8d %8.3f %8.3f %8.3f%n", stage, depth, (long) sums[stage][depth][0],
+                            line[0], line[1], line[2]);
+                }
+            }
+        }
+    }
+
+    /**
+     * fits a least squares line to one stage and depth's pairs
+     * @param sum sums of the pairs (double[])
+     * @return slope, intercept and standard deviation of the error, or null if there
+     *         aren't enough pairs (double[])
+     */
+    private static double[] fitLine(double[] sum) {
+        double n = sum[0];
+        double varShallow = sum[3] - sum[1] * sum[1] / n;
+        if (n < minPairs || varShallow <= 0) {
+            return null;
+        }
+        double a = (sum[4] - sum[1] * sum[2] / n) / varShallow;
+        double b = (sum[2] - a * sum[1]) / n;
+        //sum of (deep - a * shallow - b)^2, expanded into the sums
+        double squaredError = sum[5] - 2 * a * sum[4] - 2 * b * sum[2] + a * a * sum[3]
+                + 2 * a * b * sum[1] + b * b * n;
+        return new double[]{a, b, Math.sqrt(Math.max(squaredError, 0) / n)};
+    }
+
+    /**
+     * fits ProbCut statistics from the command line:
+     * ProbCutFitter statistics-file [games-file...] [--input pairs.csv]... [--log pairs.csv]
+     * [--positions n] [--max-depth n] [--stages n] [--hash megabytes] [--eval weights-file]
+     * @param args command line arguments (String[])
+     * @throws IOException if a file can't be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        String statisticsFile = null;
+        ArrayList<String> gameFiles = new ArrayList<>();
+        ArrayList<String> inputs = new ArrayList<>();
+        String logFile = null;
+        int positionCount = 1000;
+        int maxDepth = 9;
+        int stages = 6;
+        int tableMegabytes = 16;
+        String evalFile = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--input": inputs.add(args[++i]); break;
+                case "--log": logFile = args[++i]; break;
+                case "--positions": positionCount = Integer.parseInt(args[++i]); break;
+                case "--max-depth": maxDepth = Integer.parseInt(args[++i]); break;
+                case "--stages": stages = Integer.parseInt(args[++i]); break;
+                case "--hash": tableMegabytes = Integer.parseInt(args[++i]); break;
+                case "--eval": evalFile = args[++i]; break;
+                default:
+                    if (statisticsFile == null) {
+                        statisticsFile = args[i];
+                    }
+                    else {
+                        gameFiles.add(args[i]);
+                    }
+            }
+        }
+        if (statisticsFile == null || (gameFiles.isEmpty() && inputs.isEmpty())) {
+            throw new IllegalArgumentException("usage: ProbCutFitter statistics-file [games-file...] "
+                    + "[--input pairs.csv]... [--log pairs.csv] [--positions n] [--max-depth n] [--stages n] "
+                    + "[--hash MB] [--eval weights-file]");
+        }
+        ProbCutFitter fitter = new ProbCutFitter(stages, Math.min(maxDepth, Search.maxDepth));
+        for (String file : inputs) {
+            System.out.println(file + ": " + fitter.addLog(file) + " pairs");
+        }
+        PrintWriter log = logFile == null ? null : new PrintWriter(new FileWriter(logFile, true));
+        fitter.setLog(log);
+        TranspositionTable table = new TranspositionTable(tableMegabytes);
+        SearchLimits limits = new SearchLimits();
+        limits.start(0, 0);
+        Search search = new Search(table, limits);
+        search.setEvaluator(evalFile == null ? PatternEvaluator.getDefault() : PatternEvaluator.load(evalFile));
+        int perFile = gameFiles.isEmpty() ? 0 : (positionCount + gameFiles.size() - 1) / gameFiles.size();
+        long start = System.nanoTime();
+        for (String file : gameFiles) {
+            int positions = 0;
+            try (GameRecordReader reader = new GameRecordReader(file)) {
+                int game = 0;
+                while (positions < perFile && reader.next()) {
+                    //one position from each game, spread over the midgame
+                    int plies = 8 + game * 7 % Math.max(1, reader.getMoveCount() - 20);
+                    game++;
+                    if (plies >= reader.getMoveCount()) {
+                        continue;
+                    }
+                    Board board = reader.replay(plies);
+                    table.clear();
+                    search.setBoard(board);
+                    fitter.addPosition(search, Long.bitCount(board.getBlackDiscs() | board.getWhiteDiscs()));
+                    positions++;
+                }
+            }
+            System.out.println(file + ": " + positions + " positions, "
+                    + String.format("%.1f", (System.nanoTime() - start) / 1e9) + " s");
+        }
+        if (log != null) {
+            log.close();
+        }
+        fitter.print();
+        fitter.fit().save(statisticsFile);
+    }
+}
@@ -0,0 +1,991 @@
+package reversi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reversi: a class that simulates a game of Reversi in the terminal. The
+ * user plays against the computer
+ * @author Grace Bocek
+ */
+public class Reversi {
+    private Board board;
+    private boolean userSkip;
+    private boolean computerSkip;
+    private ArrayList<Move> validMoves;
+    private Random random;
+    private TranspositionTable table;
+    private static final int defaultTableMegabytes = 16;
+    //limits on each computer move; a limit of 0 means no limit
+    private long moveTimeLimit;
+    private long nodeLimit;
+    private int maxDepth;
+    private static final long defaultMoveTimeLimit = 1000;
+    private SearchLimits limits;
+    //ways of using more than one search thread
+    public static final int rootSplitting = 1;
+    public static final int lazySmp = 2;
+    private int parallelMode;
+    private boolean moveOrdering;
+    private int searchAlgorithm;
+    //half the width of the window around the last depth's score that principal variation
+    //search starts each depth with
+    private static final int aspirationWindow = 8;
+    private ProbCut probCut;
+    private PatternEvaluator evaluator;
+    //one search per thread; the first one searches the game board itself
+    private Search[] searches;
+    private ForkJoinPool pool;
+    //root splitting searches every move but the first in its own part of a second table,
+    //starting from the move ordering the first move's search ended with
+    private TranspositionTable splitTable;
+    private Search splitOrdering;
+    //with this many empty cells or fewer, the computer solves the rest of the game exactly
+    private EndgameSolver endgameSolver;
+    private int endgameEmpties;
+    private int endgameMode;
+    private long endgameNodes;
+    //score of the last move found, for the player who made it
+    private int lastScore;
+    private OpeningBook openingBook;
+    //pondering: while the user thinks, a second engine sharing the transposition table
+    //searches the computer's answer to each of the user's moves
+    private boolean pondering;
+    private Reversi ponderEngine;
+    private Thread ponderThread;
+    private volatile boolean ponderStopped;
+    //computer moves from finished ponder searches, by the canonical hash of the position after the
+    //user's move; moves are stored in the canonical orientation
+    private ConcurrentHashMap<Long, Move> ponderMoves;
+    //statistics for the current or last computer move
+    private ArrayList<SearchListener> listeners;
+    private long moveStart;
+    private long moveEnd;
+    private int completedDepth;
+    private int iterations;
+    private long[] iterationNanos;
+    private GameRecordWriter recorder;
+    private IOException recordError;
+    private static final int defaultEndgameEmpties = 14;
+
+    /**
+     * Constructor for a game of reversi where the user moves first
+     */
+    public Reversi() {
+        this(true, defaultTableMegabytes);
+    }
+
+    /**
+     * Constructor for a game of reversi
+     * @param userFirst whether the user moves first (bool)
+     */
+    public Reversi(boolean userFirst) {
+        this(userFirst, defaultTableMegabytes);
+    }
+
+    /**
+     * Constructor for a game of reversi where the user moves first, with a transposition
+     * table of a given size
+     * @param tableMegabytes size of the computer's transposition table in MB (int)
+     */
+    public Reversi(int tableMegabytes) {
+        this(true, tableMegabytes);
+    }
+
+    /**
+     * Constructor for a game of reversi. Root splitting also uses a second table half the
+     * size of the transposition table
+     * @param userFirst whether the user moves first (bool)
+     * @param tableMegabytes size of the computer's transposition table in MB (int)
+     */
+    public Reversi(boolean userFirst, int tableMegabytes) {
+        this(userFirst, new TranspositionTable(tableMegabytes));
+    }
+
+    /**
+     * Constructor for a game of reversi that shares a transposition table
+     * @param userFirst whether the user moves first (bool)
+     * @param table transposition table for the computer to use (TranspositionTable)
+     */
+    private Reversi(boolean userFirst, TranspositionTable table) {
+        this.table = table;
+        board = new Board(userFirst);
+        userSkip = false;
+        computerSkip = false;
+        random = new Random();
+        moveTimeLimit = defaultMoveTimeLimit;
+        nodeLimit = 0;
+        maxDepth = Search.maxDepth;
+        limits = new SearchLimits();
+        parallelMode = rootSplitting;
+        moveOrdering = true;
+        searchAlgorithm = Search.principalVariation;
+        probCut = ProbCut.getDefault();
+        evaluator = PatternEvaluator.getDefault();
+        endgameSolver = new EndgameSolver(table, limits);
+        endgameEmpties = defaultEndgameEmpties;
+        endgameMode = EndgameSolver.exact;
+        pondering = false;
+        ponderMoves = new ConcurrentHashMap<>();
+        listeners = new ArrayList<>();
+        iterationNanos = new long[Search.maxDepth];
+        splitOrdering = new Search(table, limits);
+        setThreads(1);
+    }
+
+    /**
+     * sets how many threads search each computer move. With more than one thread, the
+     * computer's moves are split between the threads and searched at the same time. With
+     * root splitting, the computer picks the same moves however many threads it has
+     * @param threads number of search threads (int)
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("need at least 1 search thread");
+        }
+        searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table, limits);
+            searches[i].setMoveOrdering(moveOrdering);
+            searches[i].setAlgorithm(searchAlgorithm);
+            searches[i].setProbCut(searchProbCut());
+            searches[i].setEvaluator(evaluator);
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        if (threads > 1) {
+            pool = new ForkJoinPool(threads);
+        }
+    }
+
+    /**
+     * sets how more than one search thread is used. With rootSplitting (the default), the
+     * computer's moves are divided between the threads, and each move is searched the same
+     * way whichever thread gets it, so the number of threads doesn't change the result.
+     * With lazySmp, every thread searches every move in a different order and they share
+     * what they find through the transposition table, which keeps scaling when there are
+     * fewer moves than threads, but the result depends on how the threads are timed
+     * @param mode rootSplitting or lazySmp (int)
+     */
+    public void setParallelMode(int mode) {
+        if (mode != rootSplitting && mode != lazySmp) {
+            throw new IllegalArgumentException("unknown parallel mode " + mode);
+        }
+        parallelMode = mode;
+    }
+
+    /**
+     * turns move ordering on or off. Without it, the computer searches moves in random
+     * order, which finds moves that are just as good but searches many more positions
+     * @param moveOrdering whether to order moves (bool)
+     */
+    public void setMoveOrdering(boolean moveOrdering) {
+        this.moveOrdering = moveOrdering;
+        for (Search search : searches) {
+            search.setMoveOrdering(moveOrdering);
+        }
+    }
+
+    /**
+     * sets how the computer searches. Search.principalVariation (the default) also starts
+     * each depth with a narrow window around the last depth's score, and searches again
+     * with the full window if the score falls outside it. Search.alphaBeta searches the way
+     * the computer used to, so the two can be compared on the same positions
+     * @param algorithm Search.alphaBeta or Search.principalVariation (int)
+     */
+    public void setSearchAlgorithm(int algorithm) {
+        for (Search search : searches) {
+            search.setAlgorithm(algorithm);
+        }
+        searchAlgorithm = algorithm;
+    }
+
+    /**
+     * sets the statistics for Multi-ProbCut, which lets the computer skip moves that a
+     * shallow search shows are very unlikely to matter and search several depths deeper in
+     * the same time. The built-in statistics are used unless this is changed; turn it off
+     * for exact analysis, since scores with it are only very likely to be right. Statistics
+     * only fit the evaluator they were measured with, so the built-in ones are ignored
+     * unless the built-in pattern weights are used too
+     * @param probCut ProbCut statistics, or null to search every move to full depth (ProbCut)
+     */
+    public void setProbCut(ProbCut probCut) {
+        this.probCut = probCut;
+        for (Search search : searches) {
+            search.setProbCut(searchProbCut());
+        }
+    }
+
+    /**
+     * sets how the computer scores positions at the end of its search. The built-in
+     * pattern weights are used unless this is changed. With any other evaluator, the
+     * built-in ProbCut statistics are turned off, since they were measured with the
+     * built-in weights; ProbCutFitter measures statistics for another evaluator
+     * @param evaluator pattern evaluator, or null to add up piece scores (PatternEvaluator)
+     */
+    public void setEvaluator(PatternEvaluator evaluator) {
+        this.evaluator = evaluator;
+        for (Search search : searches) {
+            search.setEvaluator(evaluator);
+            search.setProbCut(searchProbCut());
+        }
+    }
+
+    /**
+     * gets the ProbCut statistics the search uses with the current evaluator
+     * @return the statistics, or null if the built-in ones don't fit the evaluator or ProbCut is off (ProbCut)
+     */
+    private ProbCut searchProbCut() {
+        if (probCut == ProbCut.getDefault() && evaluator != PatternEvaluator.getDefault()) {
+            return null;
+        }
+        return probCut;
+    }
+
+    /**
+     * seeds the computer's random choices. With a seed, no time or node limit and root
+     * splitting, the computer always picks the same move in the same position, however
+     * many threads it uses
+     * @param seed random seed (long)
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * sets the deepest the computer searches each move
+     * @param depth depth limit, counting the computer's move (int)
+     */
+    public void setMaxDepth(int depth) {
+        maxDepth = Math.min(Math.max(depth, 1), Search.maxDepth);
+    }
+
+    /**
+     * sets how long the computer can search for each move
+     * @param millis time limit in milliseconds, or 0 for no limit (long)
+     */
+    public void setMoveTimeLimit(long millis) {
+        moveTimeLimit = millis;
+    }
+
+    /**
+     * sets how many positions the computer can search for each move
+     * @param nodes node limit, or 0 for no limit (long)
+     */
+    public void setNodeLimit(long nodes) {
+        nodeLimit = nodes;
+    }
+
+    /**
+     * sets how many empty cells are left when the computer stops guessing with its
+     * evaluation and solves the rest of the game exactly. Around 20 empty cells take a few
+     * seconds; the solver gets half of each move's time and node limits, and if it doesn't
+     * finish, the normal search uses the rest
+     * @param empties number of empty cells, or 0 to never solve (int)
+     */
+    public void setEndgameEmpties(int empties) {
+        endgameEmpties = empties;
+    }
+
+    /**
+     * sets what the endgame solver looks for. With EndgameSolver.exact, the computer plays
+     * for the biggest win; with EndgameSolver.winLossDraw, it plays for any win, which is
+     * much faster to find
+     * @param mode EndgameSolver.exact or EndgameSolver.winLossDraw (int)
+     */
+    public void setEndgameMode(int mode) {
+        if (mode != EndgameSolver.exact && mode != EndgameSolver.winLossDraw) {
+            throw new IllegalArgumentException("unknown endgame mode " + mode);
+        }
+        endgameMode = mode;
+    }
+
+    /**
+     * sets an opening book for the computer to play from. Book moves are played
+     * instantly without searching
+     * @param book opening book, or null to always search (OpeningBook)
+     */
+    public void setOpeningBook(OpeningBook book) {
+        openingBook = book;
+    }
+
+    /**
+     * adds a listener that gets the search statistics after every completed depth and
+     * every computer move
+     * @param listener listener to add (SearchListener)
+     */
+    public void addSearchListener(SearchListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * removes a search listener
+     * @param listener listener to remove (SearchListener)
+     */
+    public void removeSearchListener(SearchListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * sets where the moves and result of each game played with play() are recorded
+     * @param recorder game record writer, or null to not record games (GameRecordWriter)
+     */
+    public void setGameRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * records a move of the game being played, if games are being recorded
+     * @param square cell of the move, or GameRecordWriter.pass for a skipped turn (int)
+     */
+    private void record(int square) {
+        if (recorder != null && recorder.isInGame()) {
+            recorder.writeMove(square);
+        }
+    }
+
+    /**
+     * gets the error that stopped the last game played with play() from being recorded
+     * @return the error, or null if the game was recorded or games aren't being recorded (IOException)
+     */
+    public IOException getRecordError() {
+        return recordError;
+    }
+
+    /**
+     * turns pondering on or off. While the user is choosing a move, the computer searches
+     * its answer to each of the user's moves, most likely first. If the user plays a move
+     * whose search finished, the computer answers instantly; otherwise its search starts
+     * from what the ponder search left in the transposition table
+     * @param pondering whether to ponder (bool)
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+    }
+
+    /**
+     * starts searching the user's moves in the background
+     */
+    private void startPondering() {
+        if (!pondering) {
+            return;
+        }
+        if (ponderEngine == null) {
+            ponderEngine = new Reversi(true, table);
+        }
+        ponderEngine.maxDepth = maxDepth;
+        ponderEngine.moveTimeLimit = moveTimeLimit;
+        ponderEngine.nodeLimit = nodeLimit;
+        ponderEngine.setMoveOrdering(moveOrdering);
+        ponderEngine.setSearchAlgorithm(searchAlgorithm);
+        ponderEngine.setProbCut(probCut);
+        ponderEngine.setEvaluator(evaluator);
+        ponderEngine.endgameEmpties = endgameEmpties;
+        ponderEngine.endgameMode = endgameMode;
+        ponderEngine.openingBook = openingBook;
+        ponderMoves.clear();
+        ponderStopped = false;
+        Board position = new Board(board);
+        ponderThread = new Thread(() -> ponder(position));
+        ponderThread.setDaemon(true);
+        ponderThread.start();
+    }
+
+    /**
+     * searches the computer's answer to each of the user's moves until stopped. The move
+     * the computer would play in the user's place is searched first
+     * @param position board where it is the user's turn (Board)
+     */
+    private void ponder(Board position) {
+        position.findValidMoves();
+        ArrayList<Move> replies = new ArrayList<>(position.getValidMoves());
+        //guess the user's move with a shallow search
+        int depth = ponderEngine.maxDepth;
+        ponderEngine.maxDepth = Math.min(depth, 4);
+        Move likely = ponderEngine.findBestMove(position);
+        ponderEngine.maxDepth = depth;
+        replies.remove(likely);
+        replies.add(0, likely);
+        for (Move reply : replies) {
+            Board next = new Board(position);
+            next.updateBoard(reply);
+            next.findValidMoves();
+            if (ponderStopped) {
+                return;
+            }
+            if (next.gameOver() || next.getValidMoves().size() == 0) {
+                continue;
+            }
+            Move answer = ponderEngine.findBestMove(next);
+            if (ponderStopped) {
+                //cut short by the user's move, so only the transposition table is useful
+                return;
+            }
+            int symmetry = next.getSymmetry();
+            Move canonicalAnswer = Move.of(Symmetry.transformSquare(answer.getSquare(), symmetry));
+            ponderMoves.put(next.getCanonicalHash(symmetry), canonicalAnswer);
+        }
+    }
+
+    /**
+     * stops the background search and waits for it to finish
+     */
+    private void stopPondering() {
+        if (ponderThread == null) {
+            return;
+        }
+        ponderStopped = true;
+        //stop again in case the ponder search started a new move after the first stop
+        while (ponderThread.isAlive()) {
+            ponderEngine.limits.stop();
+            try {
+                ponderThread.join(10);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        ponderThread = null;
+    }
+
+    /**
+     * allows user to place the next piece on the board
+     */
+    private void userMove() {
+        board.findValidMoves();
+        validMoves = board.getValidMoves();
+        userSkip = validMoves.size() == 0;
+        if (board.gameOver()) {
+            return;
+        }
+        if (computerSkip && userSkip) {
+            //both players are out of moves
+            board.endGame();
+            int[] count = board.count();
+            if (count[0] + count[1] != Board.cellCount) {
+                //empty cells left
+                System.out.println("No valid moves.");
+                System.out.println();
+            }
+            return;
+        }
+        if (userSkip) {
+            System.out.println("No valid moves. You skip a turn.");
+            System.out.println();
+            record(GameRecordWriter.pass);
+            board.switchTurn();
+            return;
+        }
+        System.out.print("Valid moves: ");
+        for (int i = 0; i < validMoves.size(); i++) {
+            Move option = validMoves.get(i);
+            System.out.print((i + 1) + ". " + option + "   ");
+        }
+        System.out.println();
+        startPondering();
+        printEnterMoves();
+        Scanner scan = new Scanner(System.in);
+        String input = scan.next();
+        scan.nextLine();
+        int choice = 0;
+        boolean isInt = true;
+        try {
+            choice = Integer.parseInt(input);
+        }
+        catch (NumberFormatException e) {
+            isInt = false;
+        }
+        while (!isInt || choice < 1 || choice > validMoves.size()) {
+            printEnterMoves();
+            input = scan.next();
+            scan.nextLine();
+            try {
+                choice = Integer.parseInt(input);
+                isInt = true;
+
+            }
+            catch (NumberFormatException e) {
+                isInt = false;
+            }
+        }
+        stopPondering();
+        record(validMoves.get(choice - 1).getSquare());
+        board.updateBoard(validMoves.get(choice - 1));
+        System.out.println();
+        System.out.println(board);
+    }
+
+    /**
+     * prints a message to the user to input a move
+     */
+    private void printEnterMoves() {
+        System.out.print("Enter 1");
+        validMoves = board.getValidMoves();
+        if (validMoves.size() > 1) {
+            System.out.print("-" + validMoves.size());
+        }
+        System.out.print(": ");
+    }
+
+    /**
+     * plays a piece for the computer
+     */
+    private void computerMove() {
+        board.findValidMoves();
+        validMoves = board.getValidMoves();
+        computerSkip = validMoves.size() == 0;
+        if (board.gameOver()) {
+            return;
+        }
+        if (computerSkip && userSkip) {
+            //both players out of moves
+            board.endGame();
+            int[] count = board.count();
+            if (count[0] + count[1] != Board.cellCount) {
+                //empty cells left
+                System.out.println("No valid computer moves.");
+                System.out.println();
+            }
+            return;
+        }
+        if (computerSkip) {
+            System.out.println("No valid moves. Computer skips a turn.");
+            System.out.println();
+            record(GameRecordWriter.pass);
+            board.switchTurn();
+            return;
+        }
+        //a finished ponder search already has the answer
+        int symmetry = board.getSymmetry();
+        Move move = ponderMoves.get(board.getCanonicalHash(symmetry));
+        ponderMoves.clear();
+        if (move != null) {
+            move = Move.of(Symmetry.transformSquare(move.getSquare(), Symmetry.inverse(symmetry)));
+        }
+        if (move == null || (board.getValidMoveMask() & 1L << move.getSquare()) == 0) {
+            move = findBestMove(board);
+        }
+        System.out.println("Computer move: " + move);
+        record(move.getSquare());
+        board.updateBoard(move);
+        System.out.println();
+        System.out.println(board);
+    }
+
+    /**
+     * determines which valid move is best for the player to move by searching one level
+     * deeper at a time until the time or node limit runs out. The computer normally plays
+     * black, but this also finds white's best move so two computers can play each other.
+     * Near the end of the game, the rest of the game is solved exactly instead
+     * @param position board where the player to move has a valid move (Board)
+     * @return the best valid move from the deepest completed search (Move)
+     */
+    public Move findBestMove(Board position) {
+        moveStart = System.nanoTime();
+        moveEnd = 0;
+        completedDepth = 0;
+        iterations = 0;
+        table.newSearch();
+        limits.start(moveTimeLimit, nodeLimit);
+        position.findValidMoves();
+        ArrayList<Move> moves = new ArrayList<>(position.getValidMoves());
+        //corners first and cells next to empty corners last, with ties in random order
+        Collections.shuffle(moves, random);
+        if (moveOrdering) {
+            moves.sort(Comparator.comparingInt(move -> -position.pieceScore(move.getRow(), move.getCol())));
+        }
+        int[] rootMoves = new int[moves.size()];
+        for (int i = 0; i < rootMoves.length; i++) {
+            Move move = moves.get(i);
+            rootMoves[i] = move.getSquare();
+        }
+        searches[0].setBoard(position);
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].setBoard(new Board(position));
+        }
+        endgameNodes = 0;
+        if (openingBook != null) {
+            int symmetry = position.getSymmetry();
+            int entry = openingBook.find(position.getCanonicalHash(symmetry));
+            if (entry != -1) {
+                //book moves are stored in the canonical orientation, so turn them back
+                int bookMove = Symmetry.transformSquare(openingBook.getMove(entry), Symmetry.inverse(symmetry));
+                //make sure the move is valid in case two positions have the same hash
+                if ((position.getValidMoveMask() & 1L << bookMove) != 0) {
+                    lastScore = openingBook.getScore(entry);
+                    return finishMove(bookMove);
+                }
+            }
+        }
+        int empties = Board.cellCount - Long.bitCount(position.getWhiteDiscs() | position.getBlackDiscs());
+        if (empties <= endgameEmpties) {
+            //the solver gets half the budget, so the search still has time if it doesn't finish
+            limits.extend(solverShare(moveTimeLimit), solverShare(nodeLimit));
+            int solvedIdx = endgameSolver.solveRoot(position, rootMoves, endgameMode);
+            endgameNodes = endgameSolver.getNodes();
+            if (solvedIdx != -1) {
+                lastScore = endgameSolver.getLastScore();
+                completedDepth = empties;
+                return finishMove(rootMoves[solvedIdx]);
+            }
+            limits.extend(moveTimeLimit, nodeLimit);
+        }
+        long seed = random.nextLong();
+        int bestIdx = 0;
+        int[] scores = new int[rootMoves.length];
+        lastScore = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            //search the last iteration's best move first
+            int temp = rootMoves[0];
+            rootMoves[0] = rootMoves[bestIdx];
+            rootMoves[bestIdx] = temp;
+            bestIdx = 0;
+            int alpha = -Search.infinity;
+            int beta = Search.infinity;
+            if (searchAlgorithm == Search.principalVariation && depth > 1) {
+                alpha = lastScore - aspirationWindow;
+                beta = lastScore + aspirationWindow;
+            }
+            int iterationBest = searchDepth(rootMoves, scores, depth, seed + depth, alpha, beta);
+            if (iterationBest != -1 && (scores[iterationBest] <= alpha || scores[iterationBest] >= beta)) {
+                //the score is only a bound, so search again with the full window
+                iterationBest = searchDepth(rootMoves, scores, depth, seed + depth, -Search.infinity, Search.infinity);
+            }
+            if (iterationBest == -1) {
+                //keep the result of the last completed depth
+                break;
+            }
+            bestIdx = iterationBest;
+            lastScore = scores[bestIdx];
+            completedDepth = depth;
+            iterations = depth;
+            iterationNanos[depth - 1] = System.nanoTime() - moveStart;
+            for (SearchListener listener : listeners) {
+                listener.iterationFinished(getStatistics());
+            }
+        }
+        //if not even the first depth finished, this is the first move in the list
+        return finishMove(rootMoves[bestIdx]);
+    }
+
+    /**
+     * gets the part of a move's time or node limit the endgame solver can use
+     * @param limit time or node limit, or 0 for no limit (long)
+     * @return the solver's limit, or 0 for no limit (long)
+     */
+    private static long solverShare(long limit) {
+        return limit > 0 ? Math.max(limit / 2, 1) : 0;
+    }
+
+    /**
+     * ends the timing of a computer move and tells the listeners about it
+     * @param square cell of the move (int)
+     * @return the move (Move)
+     */
+    private Move finishMove(int square) {
+        moveEnd = System.nanoTime();
+        for (SearchListener listener : listeners) {
+            listener.moveFinished(getStatistics());
+        }
+        return Move.of(square);
+    }
+
+    /**
+     * gets statistics for the current or last computer move, added up from every search
+     * thread. Each thread keeps its own counts, so reading them doesn't slow the search
+     * @return search statistics (SearchStatistics)
+     */
+    public SearchStatistics getStatistics() {
+        long elapsed = (moveEnd != 0 ? moveEnd : System.nanoTime()) - moveStart;
+        long[] times = new long[iterations];
+        System.arraycopy(iterationNanos, 0, times, 0, iterations);
+        SearchStatistics statistics = new SearchStatistics(completedDepth, elapsed, times);
+        if (endgameNodes != 0) {
+            endgameSolver.addStatistics(statistics);
+        }
+        for (Search search : searches) {
+            search.addStatistics(statistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * gets the score of the last move found by findBestMove, for the player who made it:
+     * the search's score (the estimated final disc difference with a pattern evaluator,
+     * or the piece score without one), the final disc difference if the endgame was solved, or
+     * the book score if the move came from the opening book
+     * @return score of the move (int)
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * forgets every position the computer has searched
+     */
+    public void clearTranspositionTable() {
+        table.clear();
+        if (splitTable != null) {
+            splitTable.clear();
+        }
+    }
+
+    /**
+     * gets the number of positions searched for the last computer move by every thread
+     * @return nodes searched (long)
+     */
+    public long getNodesSearched() {
+        long nodes = endgameNodes;
+        for (Search search : searches) {
+            nodes += search.getNodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * searches every valid move to one depth with however many threads there are
+     * @param rootMoves cells of the valid moves (int[])
+     * @param scores filled with the score of each move; only the best one is exact (int[])
+     * @param depth depth of search (int)
+     * @param seed random seed for the search (long)
+     * @param alpha score the best move is expected to beat (int)
+     * @param beta score the best move is expected to stay under (int)
+     * @return index of the best move, or -1 if the search ran out of time or nodes (int)
+     */
+    private int searchDepth(int[] rootMoves, int[] scores, int depth, long seed, int alpha, int beta) {
+        if (parallelMode == lazySmp) {
+            return searchLazySmp(rootMoves, scores, depth, seed, alpha, beta);
+        }
+        return searchRootParallel(rootMoves, scores, depth, seed, alpha, beta);
+    }
+
+    /**
+     * searches each valid move in turn
+     * @param search search to use (Search)
+     * @param rootMoves cells of the valid moves (int[])
+     * @param scores filled with the score of each move; only the best one is exact (int[])
+     * @param depth depth of search (int)
+     * @param seed random seed for the search (long)
+     * @param alpha score the best move is expected to beat (int)
+     * @param beta score the best move is expected to stay under (int)
+     * @return index of the best move, or -1 if the search ran out of time or nodes (int)
+     */
+    private int searchRoot(Search search, int[] rootMoves, int[] scores, int depth, long seed, int alpha, int beta) {
+        search.setSeed(seed);
+        int iterationBest = -1;
+        int bestScore = alpha;
+        for (int i = 0; i < rootMoves.length; i++) {
+            int score;
+            if (iterationBest == -1) {
+                score = search.searchRootMove(rootMoves[i], depth, bestScore, beta);
+            }
+            else {
+                score = search.scoutRootMove(rootMoves[i], depth, bestScore, beta);
+            }
+            if (search.isAborted()) {
+                return -1;
+            }
+            scores[i] = score;
+            if (score > bestScore || iterationBest == -1) {
+                bestScore = score;
+                iterationBest = i;
+            }
+            if (bestScore >= beta) {
+                //the window was too low; a window with alpha above beta would store wrong bounds
+                break;
+            }
+        }
+        return iterationBest;
+    }
+
+    /**
+     * searches every move on every thread at once (Lazy SMP). The helper threads start on
+     * different moves with different random orders, and the transposition table lets the
+     * first thread skip positions the helpers have already searched. Only the first
+     * thread's result is used, but what it finds in the table depends on how far the
+     * helpers have got, so the move can change from run to run when scores are close
+     * @param rootMoves cells of the valid moves (int[])
+     * @param scores filled with the score of each move; only the best one is exact (int[])
+     * @param depth depth of search (int)
+     * @param seed random seed for the search (long)
+     * @param alpha score the best move is expected to beat (int)
+     * @param beta score the best move is expected to stay under (int)
+     * @return index of the best move, or -1 if the search ran out of time or nodes (int)
+     */
+    private int searchLazySmp(int[] rootMoves, int[] scores, int depth, long seed, int alpha, int beta) {
+        ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[searches.length - 1];
+        for (int k = 1; k < searches.length; k++) {
+            Search helper = searches[k];
+            int offset = k % rootMoves.length;
+            long helperSeed = seed * 31 + k;
+            helper.setCancelled(false);
+            helpers[k - 1] = pool.submit(() -> {
+                int[] helperMoves = new int[rootMoves.length];
+                for (int i = 0; i < helperMoves.length; i++) {
+                    helperMoves[i] = rootMoves[(i + offset) % rootMoves.length];
+                }
+                searchRoot(helper, helperMoves, new int[helperMoves.length], depth, helperSeed, alpha, beta);
+            });
+        }
+        int iterationBest = searchRoot(searches[0], rootMoves, scores, depth, seed, alpha, beta);
+        for (int k = 1; k < searches.length; k++) {
+            searches[k].setCancelled(true);
+        }
+        for (ForkJoinTask<?> helper : helpers) {
+            helper.join();
+        }
+        return iterationBest;
+    }
+
+    /**
+     * searches the first valid move, then splits the rest between the search threads. Each
+     * of the rest is searched against the first move's score rather than the best so far,
+     * starting from the same move ordering, and stores what it finds in its own part of the
+     * split table while the shared table is only read; the parts are moved into the shared
+     * table once every move has been searched. That way a move's score doesn't
+     * depend on which thread searches it or when, and with a seed and no time or node limit
+     * the best move and its score are the same however many threads there are
+     * @param rootMoves cells of the valid moves (int[])
+     * @param scores filled with the score of each move; only the best one is exact (int[])
+     * @param depth depth of search (int)
+     * @param seed random seed for the search (long)
+     * @param alpha score the best move is expected to beat (int)
+     * @param beta score the best move is expected to stay under (int)
+     * @return index of the best move, or -1 if the search ran out of time or nodes (int)
+     */
+    private int searchRootParallel(int[] rootMoves, int[] scores, int depth, long seed, int alpha, int beta) {
+        searches[0].setSeed(seed);
+        scores[0] = searches[0].searchRootMove(rootMoves[0], depth, alpha, beta);
+        if (searches[0].isAborted()) {
+            return -1;
+        }
+        if (scores[0] >= beta) {
+            //the window was too low, so the depth is searched again anyway
+            return 0;
+        }
+        int firstScore = Math.max(scores[0], alpha);
+        splitOrdering.copyMoveOrdering(searches[0]);
+        if (splitTable == null) {
+            splitTable = new TranspositionTable(Math.max(table.getMegabytes() / 2, 1));
+        }
+        AtomicInteger nextMove = new AtomicInteger(1);
+        if (pool == null) {
+            searchSplitMoves(searches[0], rootMoves, scores, depth, seed, firstScore, beta, nextMove);
+        }
+        else {
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[searches.length];
+            for (int k = 0; k < searches.length; k++) {
+                Search search = searches[k];
+                tasks[k] = pool.submit(() -> searchSplitMoves(search, rootMoves, scores, depth, seed, firstScore,
+                        beta, nextMove));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        //whichever moves the first search took, the next depth starts from the same ordering
+        searches[0].copyMoveOrdering(splitOrdering);
+        //the moves' results go into the shared table once no thread is searching
+        splitTable.moveInto(table);
+        if (limits.isStopped()) {
+            return -1;
+        }
+        //ties go to the earliest move
+        int iterationBest = 0;
+        for (int i = 1; i < scores.length; i++) {
+            if (scores[i] > scores[iterationBest]) {
+                iterationBest = i;
+            }
+        }
+        return iterationBest;
+    }
+
+    /**
+     * searches valid moves after the first one until there are none left, taking each
+     * move's index from a counter shared with the other threads
+     * @param search search to use (Search)
+     * @param rootMoves cells of the valid moves (int[])
+     * @param scores filled with the score of each move searched (int[])
+     * @param depth depth of search (int)
+     * @param seed random seed for the search (long)
+     * @param alpha first move's score, or the window's alpha if that is higher (int)
+     * @param beta score the best move is expected to stay under (int)
+     * @param nextMove index of the next move to search (AtomicInteger)
+     */
+    private void searchSplitMoves(Search search, int[] rootMoves, int[] scores, int depth, long seed,
+            int alpha, int beta, AtomicInteger nextMove) {
+        int i = nextMove.getAndIncrement();
+        while (i < rootMoves.length && !limits.isStopped()) {
+            search.copyMoveOrdering(splitOrdering);
+            search.setScratchTable(splitTable.getPart(i, rootMoves.length));
+            //each move gets its own seed so it doesn't matter which moves a search did before
+            search.setSeed(seed * 31 + i);
+            scores[i] = search.scoutRootMove(rootMoves[i], depth, alpha, beta);
+            search.setScratchTable(null);
+            if (search.isAborted()) {
+                return;
+            }
+            i = nextMove.getAndIncrement();
+        }
+    }
+
+    /**
+     * plays a match of reversi
+     */
+    public void play(){
+        recordError = null;
+        if (recorder != null) {
+            recorder.startGame(board.getUsersTurn(), maxDepth, 0, moveTimeLimit);
+        }
+        try {
+            System.out.println(board);
+            while (!board.gameOver()) {
+                if (board.getUsersTurn()) {
+                    userMove();
+                }
+                else {
+                    computerMove();
+                }
+            }
+            System.out.println("Game Over");
+            int[] count = board.count();
+            if (recorder != null) {
+                try {
+                    recorder.endGame(count[1], count[0]);
+                    recorder.flush();
+                }
+                catch (IOException e) {
+                    recordError = e;
+                }
+            }
+            int whiteCount = count[0];
+            int blackCount = count[1];
+            if (whiteCount > blackCount) {
+                System.out.println("You win!");
+            }
+            else if (whiteCount < blackCount) {
+                System.out.println("You lose!");
+            }
+            else {
+                System.out.println("Tie!");
+            }
+        }
+        finally {
+            //a game that didn't finish isn't recorded, and the recorder is ready for the next one
+            if (recorder != null) {
+                recorder.abortGame();
+            }
+        }
+    }
+}
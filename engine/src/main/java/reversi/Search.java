@@ -0,0 +1,675 @@
+package reversi;
+
+import java.util.Random;
+
+/**
+ * Search: a class that searches reversi positions for the computer with alpha-beta
+ * minimax or principal variation search. Every thread searching at the same time needs
+ * its own Search and board, but they can share a transposition table and search limits
+ * @author Grace Bocek
+ */
+public class Search {
+    public static final int maxDepth = 64;
+    //search algorithms
+    public static final int alphaBeta = 1;
+    public static final int principalVariation = 2;
+    //more than any score, so a window of -infinity to infinity never cuts anything off
+    public static final int infinity = 1000;
+    private Board board;
+    private TranspositionTable table;
+    //while set, results go here instead of the shared table, which is only read
+    private TranspositionTable scratchTable;
+    private SearchLimits limits;
+    private PatternEvaluator evaluator;
+    private int algorithm;
+    private ProbCut probCut;
+    private Random random;
+    //move list for each search depth, reused so the search doesn't allocate
+    private int[][] moveLists;
+    //move ordering: sort keys for each move list, two killer moves per depth and a
+    //history score for each cell and player
+    private boolean moveOrdering;
+    private int[][] moveKeys;
+    private int[][] killers;
+    private int[][] history;
+    //statistics since the board was set; each search is only used by one thread at a
+    //time, so these are plain counters that are added up when they're read
+    private long nodes;
+    private long leaves;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long tableProbes;
+    private long tableHits;
+    private boolean searchAborted;
+    //set by another thread to stop this search without stopping the others
+    private volatile boolean cancelled;
+
+    /**
+     * constructor for a search
+     * @param table transposition table to use (TranspositionTable)
+     * @param limits time and node budget to search within (SearchLimits)
+     */
+    public Search(TranspositionTable table, SearchLimits limits) {
+        this.table = table;
+        this.limits = limits;
+        random = new Random();
+        moveLists = new int[maxDepth + 1][64];
+        moveOrdering = true;
+        algorithm = principalVariation;
+        moveKeys = new int[maxDepth + 1][64];
+        killers = new int[maxDepth + 1][2];
+        history = new int[2][64];
+    }
+
+    /**
+     * turns move ordering on or off. Without it, moves are searched in random order
+     * @param moveOrdering whether to order moves (bool)
+     */
+    public void setMoveOrdering(boolean moveOrdering) {
+        this.moveOrdering = moveOrdering;
+    }
+
+    /**
+     * sets how the search looks through the tree. alphaBeta searches every move with the
+     * full window and keeps separate branches for each player. principalVariation
+     * (negamax) searches the first move with the full window and proves the rest worse
+     * with null windows, searching a move again only if it turns out better. Both find the
+     * same scores; they share transposition table entries, which are always stored for the
+     * computer
+     * @param algorithm alphaBeta or principalVariation (int)
+     */
+    public void setAlgorithm(int algorithm) {
+        if (algorithm != alphaBeta && algorithm != principalVariation) {
+            throw new IllegalArgumentException("unknown search algorithm " + algorithm);
+        }
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * sets the statistics for Multi-ProbCut, which skips deep searches that a shallow search
+     * shows are very unlikely to end up inside the window. This lets the search go several
+     * depths deeper in the same time, but its scores are no longer exact. Only principal
+     * variation search uses it
+     * @param probCut ProbCut statistics, or null to search every move to full depth (ProbCut)
+     */
+    public void setProbCut(ProbCut probCut) {
+        this.probCut = probCut;
+    }
+
+    /**
+     * sets how positions at the end of the search are scored
+     * @param evaluator pattern evaluator, or null to add up piece scores (PatternEvaluator)
+     */
+    public void setEvaluator(PatternEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * sets the board to search. Moves are made and taken back on the board itself,
+     * so it is left unchanged after each search
+     * @param board reversi board to search (Board)
+     */
+    public void setBoard(Board board) {
+        this.board = board;
+        nodes = 0;
+        leaves = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        cancelled = false;
+        for (int[] depthKillers : killers) {
+            depthKillers[0] = -1;
+            depthKillers[1] = -1;
+        }
+        //older history counts less
+        for (int[] playerHistory : history) {
+            for (int i = 0; i < playerHistory.length; i++) {
+                playerHistory[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * seeds the random order moves are searched in
+     * @param seed random seed (long)
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * sets a table to keep results in instead of the shared one. Positions are looked up in
+     * both and the deeper entry is used, but the shared table isn't changed, so searches
+     * with their own scratch tables don't see each other's results however they're timed
+     * @param scratchTable table to store results in, or null to use the shared table (TranspositionTable)
+     */
+    public void setScratchTable(TranspositionTable scratchTable) {
+        this.scratchTable = scratchTable;
+    }
+
+    /**
+     * copies another search's killer moves and history scores, so searches started from
+     * the same copy order moves the same way
+     * @param other search to copy from (Search)
+     */
+    public void copyMoveOrdering(Search other) {
+        for (int depth = 0; depth < killers.length; depth++) {
+            System.arraycopy(other.killers[depth], 0, killers[depth], 0, killers[depth].length);
+        }
+        for (int player = 0; player < history.length; player++) {
+            System.arraycopy(other.history[player], 0, history[player], 0, history[player].length);
+        }
+    }
+
+    /**
+     * searches the position after one of the computer's moves
+     * @param square cell of the computer's move (int)
+     * @param depth depth of search, counting the move itself (int)
+     * @param alpha optimal score for the computer (int)
+     * @param beta optimal score for the user (int)
+     * @return best score the computer can achieve after the move (int)
+     */
+    public int searchMove(int square, int depth, int alpha, int beta) {
+        searchAborted = limits.isStopped() || cancelled;
+        board.makeMove(square);
+        int score = minimax(depth - 1, board, alpha, beta);
+        board.unmakeMove();
+        return score;
+    }
+
+    /**
+     * searches the position after one of the moves of the player to move, scored for that
+     * player: the computer's score on the computer's turn and minus it on the user's turn
+     * @param square cell of the move (int)
+     * @param depth depth of search, counting the move itself (int)
+     * @param alpha score the move has to beat for the player to move (int)
+     * @return best score the player to move can achieve after the move (int)
+     */
+    public int searchRootMove(int square, int depth, int alpha) {
+        return searchRootMove(square, depth, alpha, infinity);
+    }
+
+    /**
+     * searches the position after one of the moves of the player to move within a window,
+     * scored for that player. Scores outside the window are only bounds: a score at or
+     * below alpha means the move is no better, and one at or above beta means it is at
+     * least that good
+     * @param square cell of the move (int)
+     * @param depth depth of search, counting the move itself (int)
+     * @param alpha score the move has to beat for the player to move (int)
+     * @param beta score the player to move can't expect to reach (int)
+     * @return best score the player to move can achieve after the move (int)
+     */
+    public int searchRootMove(int square, int depth, int alpha, int beta) {
+        if (algorithm == principalVariation) {
+            searchAborted = limits.isStopped() || cancelled;
+            board.makeMove(square);
+            int score = -negamax(depth - 1, -beta, -alpha);
+            board.unmakeMove();
+            return score;
+        }
+        if (board.getUsersTurn()) {
+            return -searchMove(square, depth, -beta, -alpha);
+        }
+        return searchMove(square, depth, alpha, beta);
+    }
+
+    /**
+     * searches a root move that isn't expected to beat the best one so far. With
+     * principal variation search, the move is first searched with a null window that only
+     * tells whether it beats alpha, and searched again with the whole window if it does
+     * @param square cell of the move (int)
+     * @param depth depth of search, counting the move itself (int)
+     * @param alpha score the move has to beat for the player to move (int)
+     * @param beta score the player to move can't expect to reach (int)
+     * @return best score the player to move can achieve after the move (int)
+     */
+    public int scoutRootMove(int square, int depth, int alpha, int beta) {
+        if (algorithm != principalVariation || beta - alpha <= 1) {
+            return searchRootMove(square, depth, alpha, beta);
+        }
+        int score = searchRootMove(square, depth, alpha, alpha + 1);
+        if (score > alpha && score < beta && !searchAborted) {
+            score = searchRootMove(square, depth, alpha, beta);
+        }
+        return score;
+    }
+
+    /**
+     * searches the board with principal variation search and the full window, scored for
+     * the player to move
+     * @param depth depth of search (int)
+     * @return best score the player to move can achieve (int)
+     */
+    public int searchPosition(int depth) {
+        searchAborted = limits.isStopped() || cancelled;
+        return negamax(depth, -infinity, infinity);
+    }
+
+    /**
+     * stops this search from another thread, or lets it run again after being stopped
+     * @param cancelled whether the search should stop (bool)
+     */
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * gets the number of positions searched since the board was set
+     * @return nodes searched (long)
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * adds this search's statistics since the board was set to a total
+     * @param statistics total to add to (SearchStatistics)
+     */
+    public void addStatistics(SearchStatistics statistics) {
+        statistics.add(nodes, leaves, cutoffs, firstMoveCutoffs, tableProbes, tableHits);
+    }
+
+    /**
+     * determines whether the last search ran out of time or nodes before finishing
+     * @return whether the last search was cut short (bool)
+     */
+    public boolean isAborted() {
+        return searchAborted;
+    }
+
+    /**
+     * counts a searched position and checks whether the search has run out of time or nodes
+     * @return whether the search should stop (bool)
+     */
+    private boolean outOfBudget() {
+        nodes++;
+        //checking the shared budget is slow, so only do it every 1024 nodes
+        if ((nodes & 1023) == 0 && (limits.check(1024) || cancelled)) {
+            searchAborted = true;
+        }
+        return searchAborted;
+    }
+
+    /**
+     * predicts what future moves will be best for the user and computer and determines
+     * the best score the computer can achieve. Moves are made and taken back on the board
+     * itself, so it is left unchanged when the search returns
+     * @param depth depth of search (int)
+     * @param board reversi board to search (Board)
+     * @param alpha optimal score for the computer (int)
+     * @param beta optimal score for the user (int)
+     * @return best score the computer can achieve on the next move (int)
+     */
+    private int minimax(int depth, Board board, int alpha, int beta) {
+        //[1, Minimax Algorithm with Alpha-Beta Pruning]
+        if (outOfBudget()) {
+            return 0;
+        }
+        if (depth == 0) {
+            leaves++;
+            return evaluate(board);
+        }
+        //in the opening, symmetric positions share an entry, with the best move stored in the canonical
+        //orientation; later they almost never come up, so the incremental hash is cheaper
+        boolean opening = Symmetry.isOpening(board.getBlackDiscs(), board.getWhiteDiscs());
+        int symmetry = opening ? board.getSymmetry() : 0;
+        long hash = opening ? board.getCanonicalHash(symmetry) : board.getHash();
+        long entry = probe(hash);
+        tableProbes++;
+        int tableMove = -1;
+        if (entry != 0) {
+            tableHits++;
+            tableMove = Symmetry.transformSquare(TranspositionTable.bestMoveOf(entry), Symmetry.inverse(symmetry));
+        }
+        //a search at least as deep is as good as doing this one
+        if (entry != 0 && TranspositionTable.depthOf(entry) >= depth) {
+            int score = TranspositionTable.scoreOf(entry);
+            int bound = TranspositionTable.boundOf(entry);
+            if (bound == TranspositionTable.exact) {
+                return score;
+            }
+            if (bound == TranspositionTable.lowerBound) {
+                alpha = Math.max(alpha, score);
+            }
+            else {
+                beta = Math.min(beta, score);
+            }
+            if (beta <= alpha) {
+                return score;
+            }
+        }
+        int alphaOrig = alpha;
+        int betaOrig = beta;
+        int[] moves = moveLists[depth];
+        int moveCount = loadMoves(board.getValidMoveMask(), moves, depth, tableMove);
+        int bestMove = -1;
+        //minimize computer score
+        int bestScore;
+        if (board.getUsersTurn()) {
+            bestScore = infinity;
+            for (int i = 0; i < moveCount; i++) {
+                board.makeMove(moves[i]);
+                int score = minimax(depth - 1, board, alpha, beta);
+                board.unmakeMove();
+                if (searchAborted) {
+                    return 0;
+                }
+                if (score < bestScore || bestMove == -1) {
+                    bestMove = moves[i];
+                }
+                bestScore = Math.min(bestScore, score);
+                beta = Math.min(bestScore, beta);
+                if (beta <= alpha) {
+                    //don't go down branch that favors user
+                    recordCutoff(moves[i], depth, i == 0);
+                    break;
+                }
+            }
+            //skipped turn or game over
+            if (moveCount == 0) {
+                board.makePass();
+                int score = minimax(depth - 1, board, alpha, beta);
+                board.unmakeMove();
+                if (searchAborted) {
+                    return 0;
+                }
+                bestScore = Math.min(bestScore, score);
+            }
+        }
+        //maximize computer score
+        else {
+            bestScore = -infinity;
+            for (int i = 0; i < moveCount; i++) {
+                board.makeMove(moves[i]);
+                int score = minimax(depth - 1, board, alpha, beta);
+                board.unmakeMove();
+                if (searchAborted) {
+                    return 0;
+                }
+                if (score > bestScore || bestMove == -1) {
+                    bestMove = moves[i];
+                }
+                bestScore = Math.max(bestScore, score);
+                alpha = Math.max(bestScore, alpha);
+                if (beta <= alpha) {
+                    //don't go down branch that favors user
+                    recordCutoff(moves[i], depth, i == 0);
+                    break;
+                }
+            }
+            //skipped turn or game over
+            if (moveCount == 0) {
+                board.makePass();
+                int score = minimax(depth - 1, board, alpha, beta);
+                board.unmakeMove();
+                if (searchAborted) {
+                    return 0;
+                }
+                bestScore = Math.max(bestScore, score);
+            }
+        }
+        int bound = TranspositionTable.exact;
+        if (bestScore <= alphaOrig) {
+            bound = TranspositionTable.upperBound;
+        }
+        else if (bestScore >= betaOrig) {
+            bound = TranspositionTable.lowerBound;
+        }
+        store(hash, depth, bestScore, bound, Symmetry.transformSquare(bestMove, symmetry));
+        return bestScore;
+    }
+
+    /**
+     * searches a position with negamax principal variation search, scored for the player
+     * to move. The first move is searched with the full window and the rest with a null
+     * window around alpha, and a move is searched again with the full window only if the
+     * null window shows it is better. Scores are fail-soft: when every move fails low or one
+     * fails high, the best score found is returned as a bound instead of alpha or beta.
+     * Moves are made and taken back on the board, so it is left unchanged
+     * @param depth depth of search (int)
+     * @param alpha score the player to move already has elsewhere (int)
+     * @param beta score the opponent already has elsewhere, from the player to move's side (int)
+     * @return best score the player to move can achieve (int)
+     */
+    private int negamax(int depth, int alpha, int beta) {
+        if (outOfBudget()) {
+            return 0;
+        }
+        //table entries are stored for the computer, so flip them on the user's turn
+        boolean usersTurn = board.getUsersTurn();
+        int sign = usersTurn ? -1 : 1;
+        if (depth == 0) {
+            leaves++;
+            return sign * evaluate(board);
+        }
+        //in the opening, symmetric positions share an entry, with the best move stored in the canonical
+        //orientation; later they almost never come up, so the incremental hash is cheaper
+        boolean opening = Symmetry.isOpening(board.getBlackDiscs(), board.getWhiteDiscs());
+        int symmetry = opening ? board.getSymmetry() : 0;
+        long hash = opening ? board.getCanonicalHash(symmetry) : board.getHash();
+        long entry = probe(hash);
+        tableProbes++;
+        int tableMove = -1;
+        if (entry != 0) {
+            tableHits++;
+            tableMove = Symmetry.transformSquare(TranspositionTable.bestMoveOf(entry), Symmetry.inverse(symmetry));
+        }
+        if (entry != 0 && TranspositionTable.depthOf(entry) >= depth) {
+            int score = sign * TranspositionTable.scoreOf(entry);
+            int bound = TranspositionTable.boundOf(entry);
+            if (bound == TranspositionTable.exact) {
+                return score;
+            }
+            if ((bound == TranspositionTable.lowerBound) != usersTurn) {
+                alpha = Math.max(alpha, score);
+            }
+            else {
+                beta = Math.min(beta, score);
+            }
+            if (beta <= alpha) {
+                return score;
+            }
+        }
+        if (probCut != null && depth >= ProbCut.minDepth) {
+            int discs = Long.bitCount(board.getBlackDiscs() | board.getWhiteDiscs());
+            int shallow = ProbCut.shallowDepth(depth);
+            //a shallow search with a null window at the predicted bound is enough to cut
+            int high = probCut.highBound(discs, depth, beta);
+            if (beta < infinity && high < infinity && negamax(shallow, high - 1, high) >= high) {
+                return searchAborted ? 0 : beta;
+            }
+            int low = probCut.lowBound(discs, depth, alpha);
+            if (alpha > -infinity && low > -infinity && negamax(shallow, low, low + 1) <= low) {
+                return searchAborted ? 0 : alpha;
+            }
+            if (searchAborted) {
+                return 0;
+            }
+        }
+        int alphaOrig = alpha;
+        int[] moves = moveLists[depth];
+        int moveCount = loadMoves(board.getValidMoveMask(), moves, depth, tableMove);
+        int bestMove = -1;
+        int bestScore = -infinity;
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            int score;
+            if (i == 0) {
+                score = -negamax(depth - 1, -beta, -alpha);
+            }
+            else {
+                score = -negamax(depth - 1, -alpha - 1, -alpha);
+                if (score > alpha && score < beta && !searchAborted) {
+                    score = -negamax(depth - 1, -beta, -alpha);
+                }
+            }
+            board.unmakeMove();
+            if (searchAborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = moves[i];
+            }
+            alpha = Math.max(alpha, score);
+            if (alpha >= beta) {
+                recordCutoff(moves[i], depth, i == 0);
+                break;
+            }
+        }
+        //skipped turn or game over
+        if (moveCount == 0) {
+            board.makePass();
+            bestScore = -negamax(depth - 1, -beta, -alpha);
+            board.unmakeMove();
+            if (searchAborted) {
+                return 0;
+            }
+        }
+        int bound = TranspositionTable.exact;
+        if (bestScore <= alphaOrig) {
+            bound = usersTurn ? TranspositionTable.lowerBound : TranspositionTable.upperBound;
+        }
+        else if (bestScore >= beta) {
+            bound = usersTurn ? TranspositionTable.upperBound : TranspositionTable.lowerBound;
+        }
+        store(hash, depth, sign * bestScore, bound, Symmetry.transformSquare(bestMove, symmetry));
+        return bestScore;
+    }
+
+    /**
+     * looks up a position in the shared table and the scratch table, if there is one
+     * @param hash hash of the position (long)
+     * @return the deeper of the entries for the position, or 0 if there isn't one (long)
+     */
+    private long probe(long hash) {
+        long entry = table.probe(hash);
+        if (scratchTable != null) {
+            long scratchEntry = scratchTable.probe(hash);
+            if (scratchEntry != 0
+                    && (entry == 0 || TranspositionTable.depthOf(scratchEntry) >= TranspositionTable.depthOf(entry))) {
+                return scratchEntry;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * saves the result of a search in the scratch table if there is one, or else the
+     * shared table
+     * @param hash hash of the position (long)
+     * @param depth depth the position was searched to (int)
+     * @param score score found by the search, for the computer (int)
+     * @param bound whether the score is exact, a lower bound or an upper bound (int)
+     * @param bestMove cell of the best move, or -1 if there isn't one (int)
+     */
+    private void store(long hash, int depth, int score, int bound, int bestMove) {
+        if (scratchTable != null) {
+            scratchTable.store(hash, depth, score, bound, bestMove);
+        }
+        else {
+            table.store(hash, depth, score, bound, bestMove);
+        }
+    }
+
+    /**
+     * scores a position at the end of the search
+     * @param board reversi board to score (Board)
+     * @return the computer's score (int)
+     */
+    private int evaluate(Board board) {
+        if (evaluator == null) {
+            return board.getComputerScore();
+        }
+        //the evaluator scores for the player to move, and the computer is black
+        if (board.getUsersTurn()) {
+            return -evaluator.evaluate(board.getWhiteDiscs(), board.getBlackDiscs());
+        }
+        return evaluator.evaluate(board.getBlackDiscs(), board.getWhiteDiscs());
+    }
+
+    /**
+     * copies the cells of a move bitboard into a move list, best-looking moves first:
+     * the transposition table's best move, then corners, killer moves, moves with a high
+     * history score and finally cells next to empty corners. Ties are broken at random
+     * @param moveMask bitboard of valid moves (long)
+     * @param moves list to fill with cell numbers (int[])
+     * @param depth depth of search (int)
+     * @param tableMove best move stored in the transposition table, or -1 (int)
+     * @return number of moves in the list (int)
+     */
+    private int loadMoves(long moveMask, int[] moves, int depth, int tableMove) {
+        int moveCount = 0;
+        while (moveMask != 0) {
+            moves[moveCount] = Long.numberOfTrailingZeros(moveMask);
+            moveCount++;
+            moveMask &= moveMask - 1;
+        }
+        if (!moveOrdering) {
+            //shuffle the same way Collections.shuffle does
+            for (int i = moveCount - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int temp = moves[i];
+                moves[i] = moves[j];
+                moves[j] = temp;
+            }
+            return moveCount;
+        }
+        int[] keys = moveKeys[depth];
+        int[] playerHistory = history[board.getUsersTurn() ? 1 : 0];
+        for (int i = 0; i < moveCount; i++) {
+            int square = moves[i];
+            int key;
+            if (square == tableMove) {
+                key = Integer.MAX_VALUE;
+            }
+            else {
+                //corners score 10 and cells next to empty corners score -10
+                key = board.pieceScore(square / 8, square % 8) << 20;
+                if (square == killers[depth][0] || square == killers[depth][1]) {
+                    key += 1 << 19;
+                }
+                key += Math.min(playerHistory[square], (1 << 19) - 1);
+                //the low bits are random so only ties are decided by chance
+                key = key * 64 + random.nextInt(64);
+            }
+            //insertion sort, highest key first
+            int j = i;
+            while (j > 0 && keys[j - 1] < key) {
+                keys[j] = keys[j - 1];
+                moves[j] = moves[j - 1];
+                j--;
+            }
+            keys[j] = key;
+            moves[j] = square;
+        }
+        return moveCount;
+    }
+
+    /**
+     * remembers a move that caused a cutoff so it is tried early in similar positions
+     * @param square cell of the move (int)
+     * @param depth depth of search where the cutoff happened (int)
+     * @param firstMove whether the move was the first one searched (bool)
+     */
+    private void recordCutoff(int square, int depth, boolean firstMove) {
+        cutoffs++;
+        if (firstMove) {
+            firstMoveCutoffs++;
+        }
+        if (killers[depth][0] != square) {
+            killers[depth][1] = killers[depth][0];
+            killers[depth][0] = square;
+        }
+        int[] playerHistory = history[board.getUsersTurn() ? 1 : 0];
+        playerHistory[square] += depth * depth;
+        if (playerHistory[square] > 1 << 24) {
+            //scale the table down before it overflows
+            for (int i = 0; i < playerHistory.length; i++) {
+                playerHistory[i] /= 2;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package reversi;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SearchLimits: the time and node budget for one computer move, shared by every
+ * thread searching that move
+ * @author Grace Bocek
+ */
+public class SearchLimits {
+    private long startTime;
+    private long deadline;
+    private long nodeLimit;
+    private AtomicLong nodes;
+    private volatile boolean stopped;
+
+    /**
+     * constructor for limits that haven't been started
+     */
+    public SearchLimits() {
+        nodes = new AtomicLong();
+    }
+
+    /**
+     * starts the budget for a new move
+     * @param millis time limit in milliseconds, or 0 for no limit (long)
+     * @param nodeLimit node limit, or 0 for no limit (long)
+     */
+    public void start(long millis, long nodeLimit) {
+        startTime = System.nanoTime();
+        nodes.set(0);
+        extend(millis, nodeLimit);
+    }
+
+    /**
+     * sets a new budget for the move already started, counting the time and nodes it
+     * has used so far, and lets a stopped search go on
+     * @param millis time limit in milliseconds from the start of the move, or 0 for no limit (long)
+     * @param nodeLimit node limit for the whole move, or 0 for no limit (long)
+     */
+    public void extend(long millis, long nodeLimit) {
+        if (millis > 0) {
+            deadline = startTime + millis * 1000000;
+        }
+        else {
+            deadline = Long.MAX_VALUE;
+        }
+        this.nodeLimit = nodeLimit;
+        stopped = false;
+    }
+
+    /**
+     * adds nodes searched by one thread to the total and checks whether the budget
+     * is used up
+     * @param searched nodes searched since the last check (long)
+     * @return whether the search should stop (bool)
+     */
+    public boolean check(long searched) {
+        long total = nodes.addAndGet(searched);
+        if ((nodeLimit > 0 && total > nodeLimit) || System.nanoTime() > deadline) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * stops every thread searching the move
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * determines whether the search has been stopped
+     * @return whether the search has been stopped (bool)
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * gets the number of nodes reported by every thread so far
+     * @return nodes searched (long)
+     */
+    public long getNodes() {
+        return nodes.get();
+    }
+}
@@ -0,0 +1,21 @@
+package reversi;
+
+/**
+ * SearchListener: an interface for receiving search statistics as the computer searches,
+ * for example to log them or send them to a metrics system. Listeners are called on the
+ * thread that calls findBestMove, so they should return quickly
+ * @author Grace Bocek
+ */
+public interface SearchListener {
+    /**
+     * called when a search depth finishes
+     * @param statistics statistics for the move so far (SearchStatistics)
+     */
+    void iterationFinished(SearchStatistics statistics);
+
+    /**
+     * called when the computer has chosen a move
+     * @param statistics statistics for the whole move (SearchStatistics)
+     */
+    void moveFinished(SearchStatistics statistics);
+}
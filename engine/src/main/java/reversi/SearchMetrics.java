@@ -0,0 +1,133 @@
+package reversi;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * SearchMetrics: a search listener that keeps running totals over every computer move,
+ * which can be watched with JConsole or any other JMX client once registered
+ * @author Grace Bocek
+ */
+public class SearchMetrics implements SearchListener, SearchMetricsMXBean {
+    private long moves;
+    private long nodes;
+    private long leaves;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long tableProbes;
+    private long tableHits;
+    private long searchNanos;
+    private int lastDepth;
+    private long lastMoveNanos;
+
+    /**
+     * registers the metrics with the platform MBean server
+     * @param name JMX object name, like "reversi:type=SearchMetrics" (String)
+     * @throws JMException if the name is bad or already taken
+     */
+    public void register(String name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(name));
+    }
+
+    /**
+     * does nothing; only whole moves are added to the totals
+     * @param statistics statistics for the move so far (SearchStatistics)
+     */
+    public void iterationFinished(SearchStatistics statistics) {
+    }
+
+    /**
+     * adds a move to the totals
+     * @param statistics statistics for the whole move (SearchStatistics)
+     */
+    public synchronized void moveFinished(SearchStatistics statistics) {
+        moves++;
+        nodes += statistics.getNodes();
+        leaves += statistics.getLeaves();
+        cutoffs += statistics.getCutoffs();
+        firstMoveCutoffs += statistics.getFirstMoveCutoffs();
+        tableProbes += statistics.getTableProbes();
+        tableHits += statistics.getTableHits();
+        searchNanos += statistics.getElapsedNanos();
+        lastDepth = statistics.getDepth();
+        lastMoveNanos = statistics.getElapsedNanos();
+    }
+
+    public synchronized long getMoves() {
+        return moves;
+    }
+
+    public synchronized long getNodes() {
+        return nodes;
+    }
+
+    public synchronized long getLeaves() {
+        return leaves;
+    }
+
+    public synchronized long getCutoffs() {
+        return cutoffs;
+    }
+
+    public synchronized long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    public synchronized long getTableProbes() {
+        return tableProbes;
+    }
+
+    public synchronized long getTableHits() {
+        return tableHits;
+    }
+
+    public synchronized long getSearchMillis() {
+        return searchNanos / 1000000;
+    }
+
+    public synchronized double getNodesPerSecond() {
+        if (searchNanos == 0) {
+            return 0;
+        }
+        return nodes * 1e9 / searchNanos;
+    }
+
+    public synchronized double getFirstMoveCutoffRate() {
+        if (cutoffs == 0) {
+            return 0;
+        }
+        return (double) firstMoveCutoffs / cutoffs;
+    }
+
+    public synchronized double getTableHitRate() {
+        if (tableProbes == 0) {
+            return 0;
+        }
+        return (double) tableHits / tableProbes;
+    }
+
+    public synchronized int getLastDepth() {
+        return lastDepth;
+    }
+
+    public synchronized double getLastMoveMillis() {
+        return lastMoveNanos / 1e6;
+    }
+
+    /**
+     * sets every total back to 0
+     */
+    public synchronized void reset() {
+        moves = 0;
+        nodes = 0;
+        leaves = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        searchNanos = 0;
+        lastDepth = 0;
+        lastMoveNanos = 0;
+    }
+}
@@ -0,0 +1,77 @@
+package reversi;
+
+/**
+ * SearchMetricsMXBean: the search totals SearchMetrics shows through JMX
+ * @author Grace Bocek
+ */
+public interface SearchMetricsMXBean {
+    /**
+     * @return number of computer moves (long)
+     */
+    long getMoves();
+
+    /**
+     * @return positions searched (long)
+     */
+    long getNodes();
+
+    /**
+     * @return positions scored at the end of the search depth (long)
+     */
+    long getLeaves();
+
+    /**
+     * @return positions where a move was good enough to stop searching the rest (long)
+     */
+    long getCutoffs();
+
+    /**
+     * @return cutoffs caused by the first move searched (long)
+     */
+    long getFirstMoveCutoffs();
+
+    /**
+     * @return transposition table lookups (long)
+     */
+    long getTableProbes();
+
+    /**
+     * @return transposition table lookups that found the position (long)
+     */
+    long getTableHits();
+
+    /**
+     * @return time spent searching in milliseconds (long)
+     */
+    long getSearchMillis();
+
+    /**
+     * @return positions searched per second (double)
+     */
+    double getNodesPerSecond();
+
+    /**
+     * @return share of cutoffs caused by the first move searched (double)
+     */
+    double getFirstMoveCutoffRate();
+
+    /**
+     * @return share of transposition table lookups that found the position (double)
+     */
+    double getTableHitRate();
+
+    /**
+     * @return deepest completed depth of the last move (int)
+     */
+    int getLastDepth();
+
+    /**
+     * @return time spent on the last move in milliseconds (double)
+     */
+    double getLastMoveMillis();
+
+    /**
+     * sets every total back to 0
+     */
+    void reset();
+}
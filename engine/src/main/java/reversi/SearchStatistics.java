@@ -0,0 +1,167 @@
+package reversi;
+
+/**
+ * SearchStatistics: a class that holds statistics about the search for one computer
+ * move, added up from every search thread
+ * @author Grace Bocek
+ */
+public class SearchStatistics {
+    private int depth;
+    private long nodes;
+    private long leaves;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long tableProbes;
+    private long tableHits;
+    private long elapsedNanos;
+    //time from the start of the move to the end of each completed depth
+    private long[] iterationNanos;
+
+    /**
+     * constructor for statistics
+     * @param depth deepest completed search depth (int)
+     * @param elapsedNanos time spent on the move so far in nanoseconds (long)
+     * @param iterationNanos time from the start of the move to the end of each completed
+     * depth, starting with depth 1 (long[])
+     */
+    public SearchStatistics(int depth, long elapsedNanos, long[] iterationNanos) {
+        this.depth = depth;
+        this.elapsedNanos = elapsedNanos;
+        this.iterationNanos = iterationNanos;
+    }
+
+    /**
+     * adds one thread's counts to the totals
+     * @param nodes positions searched (long)
+     * @param leaves positions scored at the end of the search depth (long)
+     * @param cutoffs positions where a move was good enough to stop searching the rest (long)
+     * @param firstMoveCutoffs cutoffs caused by the first move searched (long)
+     * @param tableProbes transposition table lookups (long)
+     * @param tableHits transposition table lookups that found the position (long)
+     */
+    public void add(long nodes, long leaves, long cutoffs, long firstMoveCutoffs, long tableProbes, long tableHits) {
+        this.nodes += nodes;
+        this.leaves += leaves;
+        this.cutoffs += cutoffs;
+        this.firstMoveCutoffs += firstMoveCutoffs;
+        this.tableProbes += tableProbes;
+        this.tableHits += tableHits;
+    }
+
+    /**
+     * gets the deepest completed search depth
+     * @return depth, or 0 if the move came from the opening book (int)
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * gets the number of positions searched
+     * @return nodes searched (long)
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * gets the number of positions scored at the end of the search depth
+     * @return leaf positions (long)
+     */
+    public long getLeaves() {
+        return leaves;
+    }
+
+    /**
+     * gets the number of positions where a move was good enough to stop searching the rest
+     * @return cutoffs (long)
+     */
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * gets the number of cutoffs caused by the first move searched
+     * @return first-move cutoffs (long)
+     */
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * gets the number of transposition table lookups
+     * @return table probes (long)
+     */
+    public long getTableProbes() {
+        return tableProbes;
+    }
+
+    /**
+     * gets the number of transposition table lookups that found the position
+     * @return table hits (long)
+     */
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    /**
+     * gets the time spent on the move
+     * @return time in nanoseconds (long)
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * gets the time from the start of the move to the end of each completed depth
+     * @return times in nanoseconds, starting with depth 1 (long[])
+     */
+    public long[] getIterationNanos() {
+        return iterationNanos.clone();
+    }
+
+    /**
+     * gets the search speed
+     * @return positions searched per second (double)
+     */
+    public double getNodesPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return nodes * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * gets the share of cutoffs caused by the first move searched, which shows how well
+     * moves are ordered
+     * @return fraction between 0 and 1 (double)
+     */
+    public double getFirstMoveCutoffRate() {
+        if (cutoffs == 0) {
+            return 0;
+        }
+        return (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * gets the share of transposition table lookups that found the position
+     * @return fraction between 0 and 1 (double)
+     */
+    public double getTableHitRate() {
+        if (tableProbes == 0) {
+            return 0;
+        }
+        return (double) tableHits / tableProbes;
+    }
+
+    /**
+     * represents the statistics as one line of text
+     * @return statistics string (String)
+     */
+    public String toString() {
+        return "depth " + depth + ", " + nodes + " nodes, " + leaves + " leaves, "
+                + String.format("%.1f", elapsedNanos / 1e6) + " ms, " + String.format("%.0f", getNodesPerSecond())
+                + " nodes/s, " + cutoffs + " cutoffs (" + String.format("%.1f", 100 * getFirstMoveCutoffRate())
+                + "% on the first move), table hits " + String.format("%.1f", 100 * getTableHitRate()) + "%";
+    }
+}
@@ -0,0 +1,317 @@
+package reversi;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SelfPlay: a class that plays batches of computer-vs-computer games on a thread pool
+ * without any console input or output during the games, and reports the results with
+ * games per second and positions searched per second. Engine A plays black in
+ * even-numbered games and white in odd-numbered ones
+ * @author Grace Bocek
+ */
+public class SelfPlay {
+    private int depthA;
+    private int depthB;
+    private long moveTimeLimit;
+    private int randomMoves;
+    private long seed;
+    private int tableMegabytes;
+    private PatternEvaluator evaluatorA;
+    private PatternEvaluator evaluatorB;
+    private ProbCut probCutA;
+    private ProbCut probCutB;
+    //each pool thread reuses its own pair of engines from game to game
+    private ThreadLocal<Reversi[]> engines;
+    private GameRecordWriter recorder;
+
+    /**
+     * constructor for a batch of games
+     * @param depthA search depth of engine A (int)
+     * @param depthB search depth of engine B (int)
+     * @param moveTimeLimit time limit for each move in milliseconds, or 0 for no limit (long)
+     * @param randomMoves number of random moves at the start of each game so games differ (int)
+     * @param seed random seed; the same seed plays the same games (long)
+     * @param tableMegabytes size of each engine's transposition table in MB (int)
+     */
+    public SelfPlay(int depthA, int depthB, long moveTimeLimit, int randomMoves, long seed, int tableMegabytes) {
+        this.depthA = depthA;
+        this.depthB = depthB;
+        this.moveTimeLimit = moveTimeLimit;
+        this.randomMoves = randomMoves;
+        this.seed = seed;
+        this.tableMegabytes = tableMegabytes;
+        evaluatorA = PatternEvaluator.getDefault();
+        evaluatorB = evaluatorA;
+        probCutA = ProbCut.getDefault();
+        probCutB = probCutA;
+        engines = ThreadLocal.withInitial(() -> new Reversi[]{
+            new Reversi(true, this.tableMegabytes), new Reversi(true, this.tableMegabytes)});
+    }
+
+    /**
+     * sets how each engine scores positions at the end of its search
+     * @param evaluatorA engine A's pattern evaluator, or null for piece scores (PatternEvaluator)
+     * @param evaluatorB engine B's pattern evaluator, or null for piece scores (PatternEvaluator)
+     */
+    public void setEvaluators(PatternEvaluator evaluatorA, PatternEvaluator evaluatorB) {
+        this.evaluatorA = evaluatorA;
+        this.evaluatorB = evaluatorB;
+    }
+
+    /**
+     * sets the ProbCut statistics each engine prunes its search with
+     * @param probCutA engine A's ProbCut statistics, or null for a full-width search (ProbCut)
+     * @param probCutB engine B's ProbCut statistics, or null for a full-width search (ProbCut)
+     */
+    public void setProbCuts(ProbCut probCutA, ProbCut probCutB) {
+        this.probCutA = probCutA;
+        this.probCutB = probCutB;
+    }
+
+    /**
+     * sets where every game's moves and result are recorded. Games are written whole as
+     * they finish, so the threads can share the writer
+     * @param recorder game record writer, or null to not record games (GameRecordWriter)
+     */
+    public void setGameRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * plays one game
+     * @param gameIdx number of the game, which picks its colors and random moves (int)
+     * @return result of the game (GameResult)
+     * @throws IOException if the game can't be recorded
+     */
+    public GameResult playGame(int gameIdx) throws IOException {
+        Reversi[] pair = engines.get();
+        Reversi engineA = pair[0];
+        Reversi engineB = pair[1];
+        setUp(engineA, depthA, evaluatorA, probCutA, gameIdx);
+        setUp(engineB, depthB, evaluatorB, probCutB, gameIdx);
+        boolean engineAIsBlack = gameIdx % 2 == 0;
+        Random random = new Random(seed * 1000003 + gameIdx);
+        //black (the computer's color) moves first
+        Board board = new Board(false);
+        long nodes = 0;
+        int moveCount = 0;
+        byte[] moves = new byte[GameRecordWriter.maxMoves];
+        int recordedMoves = 0;
+        boolean lastPlayerSkipped = false;
+        while (!board.gameOver()) {
+            board.findValidMoves();
+            ArrayList<Move> validMoves = board.getValidMoves();
+            if (validMoves.size() == 0) {
+                if (lastPlayerSkipped) {
+                    board.endGame();
+                }
+                else {
+                    board.switchTurn();
+                    moves[recordedMoves] = GameRecordWriter.pass;
+                    recordedMoves++;
+                    lastPlayerSkipped = true;
+                }
+                continue;
+            }
+            lastPlayerSkipped = false;
+            Move move;
+            if (moveCount < randomMoves) {
+                move = validMoves.get(random.nextInt(validMoves.size()));
+            }
+            else {
+                boolean blackToMove = !board.getUsersTurn();
+                Reversi engine = blackToMove == engineAIsBlack ? engineA : engineB;
+                move = engine.findBestMove(board);
+                nodes += engine.getNodesSearched();
+            }
+            board.updateBoard(move);
+            moves[recordedMoves] = (byte) move.getSquare();
+            recordedMoves++;
+            moveCount++;
+        }
+        int[] count = board.count();
+        if (recorder != null) {
+            recorder.writeGame(false, engineAIsBlack ? depthA : depthB, engineAIsBlack ? depthB : depthA,
+                    moveTimeLimit, moves, recordedMoves, count[1], count[0]);
+        }
+        return new GameResult(gameIdx, engineAIsBlack, count[1], count[0], moveCount, nodes);
+    }
+
+    /**
+     * gets an engine ready for a new game
+     * @param engine engine to set up (Reversi)
+     * @param depth search depth (int)
+     * @param evaluator pattern evaluator, or null for piece scores (PatternEvaluator)
+     * @param probCut ProbCut statistics, or null for a full-width search (ProbCut)
+     * @param gameIdx number of the game (int)
+     */
+    private void setUp(Reversi engine, int depth, PatternEvaluator evaluator, ProbCut probCut, int gameIdx) {
+        engine.clearTranspositionTable();
+        engine.setMaxDepth(depth);
+        engine.setEvaluator(evaluator);
+        engine.setProbCut(probCut);
+        engine.setMoveTimeLimit(moveTimeLimit);
+        engine.setSeed(seed * 1000003 + gameIdx);
+    }
+
+    /**
+     * plays a batch of games on a thread pool
+     * @param games number of games (int)
+     * @param threads number of threads (int)
+     * @return results in game order (ArrayList)
+     * @throws Exception if a game fails
+     */
+    public ArrayList<GameResult> playGames(int games, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayList<GameResult> out = new ArrayList<>();
+        try {
+            ArrayList<Future<GameResult>> results = new ArrayList<>();
+            for (int i = 0; i < games; i++) {
+                int gameIdx = i;
+                results.add(pool.submit(() -> playGame(gameIdx)));
+            }
+            for (Future<GameResult> result : results) {
+                out.add(result.get());
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        return out;
+    }
+
+    /**
+     * finds the evaluator named on the command line
+     * @param name "patterns" for the built-in weights, "pieces" for piece scores or a weights file (String)
+     * @return the evaluator, or null for piece scores (PatternEvaluator)
+     * @throws IOException if the weights file can't be read
+     */
+    private static PatternEvaluator evaluator(String name) throws IOException {
+        if (name.equals("pieces")) {
+            return null;
+        }
+        if (name.equals("patterns")) {
+            return PatternEvaluator.getDefault();
+        }
+        return PatternEvaluator.load(name);
+    }
+
+    /**
+     * finds the ProbCut statistics named on the command line. The built-in statistics only
+     * apply to the built-in pattern weights; engines with another evaluator search full-width
+     * with them
+     * @param name "on" for the built-in statistics, "off" for a full-width search or a statistics file (String)
+     * @return the statistics, or null for a full-width search (ProbCut)
+     * @throws IOException if the statistics file can't be read
+     */
+    private static ProbCut probCut(String name) throws IOException {
+        if (name.equals("off")) {
+            return null;
+        }
+        if (name.equals("on")) {
+            return ProbCut.getDefault();
+        }
+        return ProbCut.load(name);
+    }
+
+    /**
+     * runs a batch of games from the command line:
+     * SelfPlay [--games n] [--threads n] [--depth-a n] [--depth-b n] [--time ms]
+     * [--random-moves n] [--seed n] [--hash megabytes] [--out file] [--record file]
+     * [--eval-a patterns|pieces|weights-file] [--eval-b patterns|pieces|weights-file]
+     * [--probcut-a on|off|statistics-file] [--probcut-b on|off|statistics-file]
+     * @param args command line arguments (String[])
+     * @throws Exception if a game fails or the results can't be written
+     */
+    public static void main(String[] args) throws Exception {
+        int games = 100;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int depthA = 4;
+        int depthB = 4;
+        long moveTimeLimit = 0;
+        int randomMoves = 6;
+        long seed = 1;
+        int tableMegabytes = 8;
+        String outFile = null;
+        String recordFile = null;
+        String evalA = "patterns";
+        String evalB = "patterns";
+        String probCutA = "on";
+        String probCutB = "on";
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games": games = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--depth-a": depthA = Integer.parseInt(value); break;
+                case "--depth-b": depthB = Integer.parseInt(value); break;
+                case "--time": moveTimeLimit = Long.parseLong(value); break;
+                case "--random-moves": randomMoves = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--hash": tableMegabytes = Integer.parseInt(value); break;
+                case "--out": outFile = value; break;
+                case "--record": recordFile = value; break;
+                case "--eval-a": evalA = value; break;
+                case "--eval-b": evalB = value; break;
+                case "--probcut-a": probCutA = value; break;
+                case "--probcut-b": probCutB = value; break;
+                default: throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        SelfPlay selfPlay = new SelfPlay(depthA, depthB, moveTimeLimit, randomMoves, seed, tableMegabytes);
+        selfPlay.setEvaluators(evaluator(evalA), evaluator(evalB));
+        selfPlay.setProbCuts(probCut(probCutA), probCut(probCutB));
+        GameRecordWriter recorder = null;
+        if (recordFile != null) {
+            recorder = new GameRecordWriter(recordFile);
+            selfPlay.setGameRecorder(recorder);
+        }
+        long start = System.nanoTime();
+        ArrayList<GameResult> results = selfPlay.playGames(games, threads);
+        if (recorder != null) {
+            recorder.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int winsA = 0;
+        int winsB = 0;
+        long discDifference = 0;
+        long nodes = 0;
+        for (GameResult result : results) {
+            int margin = result.getMarginForA();
+            if (margin > 0) {
+                winsA++;
+            }
+            else if (margin < 0) {
+                winsB++;
+            }
+            discDifference += margin;
+            nodes += result.getNodes();
+        }
+        System.out.println(games + " games, " + threads + " threads, depth " + depthA + " (A) vs " + depthB + " (B)");
+        System.out.println("A wins: " + winsA + "   B wins: " + winsB + "   ties: " + (games - winsA - winsB)
+                + "   average disc difference for A: " + String.format("%.2f", (double) discDifference / games));
+        System.out.println(String.format("%.2f", games / seconds) + " games/s, "
+                + String.format("%.0f", nodes / seconds) + " positions/s, " + String.format("%.1f", seconds) + " s");
+        if (outFile != null) {
+            try (PrintWriter out = new PrintWriter(new FileWriter(outFile))) {
+                out.println(GameResult.csvHeader());
+                for (GameResult result : results) {
+                    out.println(result.toCsv());
+                }
+            }
+            catch (IOException e) {
+                System.out.println("Couldn't write results to " + outFile + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package reversi;
+
+/**
+ * Symmetry: the 8 rotations and reflections of the board as bitboard operations, and
+ * position keys that are the same for every rotation or reflection of a position. A
+ * position's canonical form is the symmetry that gives the smallest bitboards; caches and
+ * the opening book store positions and moves in that orientation, and moves are turned
+ * back with the inverse symmetry when they are read
+ * @author Grace Bocek
+ */
+public final class Symmetry {
+    //number of symmetries, counting the identity
+    public static final int count = 8;
+    //most discs a position can have for the search to key it canonically; symmetric positions
+    //come up through transposed opening moves, and hardly ever after
+    public static final int openingDiscs = 16;
+    //5 and 6 flip the diagonal before and after a flip, so they undo each other
+    private static final int[] inverses = {0, 1, 2, 3, 4, 6, 5, 7};
+
+    private Symmetry() {
+    }
+
+    /**
+     * applies one of the 8 symmetries of the board to a bitboard
+     * @param discs bitboard (long)
+     * @param symmetry 0-3 flips the board top to bottom and left to right, 4-7 does the same
+     *                 after flipping it along the a1-h8 diagonal (int)
+     * @return transformed bitboard (long)
+     */
+    public static long transform(long discs, int symmetry) {
+        if (symmetry >= 4) {
+            discs = flipDiagonal(discs);
+        }
+        return flip(discs, symmetry & 3);
+    }
+
+    /**
+     * flips a bitboard top to bottom, left to right or both
+     * @param discs bitboard (long)
+     * @param flips 1 top to bottom, 2 left to right, 3 both, 0 neither (int)
+     * @return flipped bitboard (long)
+     */
+    private static long flip(long discs, int flips) {
+        switch (flips) {
+            case 1: return Long.reverseBytes(discs);
+            case 2: return Long.reverse(Long.reverseBytes(discs));
+            case 3: return Long.reverse(discs);
+            default: return discs;
+        }
+    }
+
+    /**
+     * flips a bitboard along the a1-h8 diagonal, swapping rows and columns
+     * @param discs bitboard (long)
+     * @return flipped bitboard (long)
+     */
+    private static long flipDiagonal(long discs) {
+        long t = 0x0F0F0F0F00000000L & (discs ^ (discs << 28));
+        discs ^= t ^ (t >>> 28);
+        t = 0x3333000033330000L & (discs ^ (discs << 14));
+        discs ^= t ^ (t >>> 14);
+        t = 0x5500550055005500L & (discs ^ (discs << 7));
+        discs ^= t ^ (t >>> 7);
+        return discs;
+    }
+
+    /**
+     * gets the symmetry that undoes another
+     * @param symmetry symmetry, 0-7 (int)
+     * @return inverse symmetry (int)
+     */
+    public static int inverse(int symmetry) {
+        return inverses[symmetry];
+    }
+
+    /**
+     * moves a cell the way a symmetry moves the board
+     * @param square cell numbered row * 8 + col, or -1 for no move (int)
+     * @param symmetry symmetry, 0-7 (int)
+     * @return transformed cell, or -1 (int)
+     */
+    public static int transformSquare(int square, int symmetry) {
+        if (square < 0 || symmetry == 0) {
+            return square;
+        }
+        return Long.numberOfTrailingZeros(transform(1L << square, symmetry));
+    }
+
+    /**
+     * finds the symmetry that puts a position in its canonical form: the one that makes the
+     * first bitboard smallest, then the second. Every rotation and reflection of a position
+     * has the same canonical form
+     * @param first discs of one side (long)
+     * @param second discs of the other side (long)
+     * @return canonical symmetry, 0-7 (int)
+     */
+    public static int canonical(long first, long second) {
+        int best = 0;
+        long bestFirst = first;
+        long bestSecond = second;
+        long diagonal = flipDiagonal(first);
+        for (int symmetry = 1; symmetry < count; symmetry++) {
+            long transformed = flip(symmetry < 4 ? first : diagonal, symmetry & 3);
+            int order = Long.compareUnsigned(transformed, bestFirst);
+            //the second side only matters when the first is symmetric, which is rare after the opening
+            if (order == 0) {
+                long secondTransformed = transform(second, symmetry);
+                if (Long.compareUnsigned(secondTransformed, bestSecond) < 0) {
+                    best = symmetry;
+                    bestSecond = secondTransformed;
+                }
+            }
+            else if (order < 0) {
+                best = symmetry;
+                bestFirst = transformed;
+                bestSecond = transform(second, symmetry);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * hashes a position after applying a symmetry to it
+     * @param first discs of one side (long)
+     * @param second discs of the other side (long)
+     * @param symmetry symmetry, 0-7; the canonical one gives the position's canonical key (int)
+     * @return hash of the transformed position (long)
+     */
+    public static long key(long first, long second, int symmetry) {
+        long player = transform(first, symmetry);
+        long opponent = transform(second, symmetry);
+        long h = player * 0x9E3779B97F4A7C15L + Long.rotateLeft(opponent * 0xC2B2AE3D27D4EB4FL, 31);
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * determines whether a position is early enough in the game for symmetric positions to
+     * come up in a search, so it's worth keying canonically
+     * @param first discs of one side (long)
+     * @param second discs of the other side (long)
+     * @return whether the position has at most openingDiscs discs (bool)
+     */
+    public static boolean isOpening(long first, long second) {
+        return Long.bitCount(first | second) <= openingDiscs;
+    }
+
+    /**
+     * hashes a position so that every rotation and reflection of it gets the same key
+     * @param first discs of one side (long)
+     * @param second discs of the other side (long)
+     * @return canonical key (long)
+     */
+    public static long canonicalKey(long first, long second) {
+        return key(first, second, canonical(first, second));
+    }
+}
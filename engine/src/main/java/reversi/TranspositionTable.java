@@ -0,0 +1,215 @@
+package reversi;
+
+import java.util.Arrays;
+
+/**
+ * TranspositionTable: a fixed-size table of search results keyed by board hash, so
+ * positions reached by different move orders are only searched once. In the opening the
+ * search keys positions by canonical hash, so rotations and reflections of them share an
+ * entry too, and their best moves are stored in the canonical orientation
+ * @author Grace Bocek
+ */
+public class TranspositionTable {
+    //kinds of scores an entry can hold
+    public static final int exact = 1;
+    public static final int lowerBound = 2;
+    public static final int upperBound = 3;
+    //each entry is a packed data word and its hash XORed with the data, so an entry
+    //half-written by another thread doesn't match any position
+    private static final int bytesPerEntry = 16;
+    //each bucket has a depth-preferred slot and an always-replace slot
+    private static final int entriesPerBucket = 2;
+    private long[] keys;
+    private long[] data;
+    private int bucketMask;
+    //slot the table starts at, when it's part of a bigger table
+    private int firstSlot;
+    //number of the current search, kept in each entry so older searches' entries can be replaced
+    private int generation;
+
+    /**
+     * constructor for a table that takes up at most the given amount of memory
+     * @param megabytes size of the table in MB (int)
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("table size must be at least 1 MB");
+        }
+        long maxBuckets = (long) megabytes * 1024 * 1024 / (bytesPerEntry * entriesPerBucket);
+        //round down to a power of two so a bucket can be picked with a mask
+        int buckets = (int) Long.highestOneBit(Math.min(maxBuckets, 1 << 29));
+        bucketMask = buckets - 1;
+        keys = new long[buckets * entriesPerBucket];
+        data = new long[buckets * entriesPerBucket];
+    }
+
+    /**
+     * constructor for a table that uses one part of another table's memory
+     * @param whole table to take the part from (TranspositionTable)
+     * @param index which part, from 0 (int)
+     * @param parts number of parts the table is split into (int)
+     */
+    private TranspositionTable(TranspositionTable whole, int index, int parts) {
+        keys = whole.keys;
+        data = whole.data;
+        int buckets = Math.max(Integer.highestOneBit((whole.bucketMask + 1) / parts), 1);
+        bucketMask = buckets - 1;
+        firstSlot = whole.firstSlot + index * buckets * entriesPerBucket;
+        generation = whole.generation;
+    }
+
+    /**
+     * splits the table into equal parts and gets one of them. Parts don't share any
+     * entries, so searches storing in different parts can't replace each other's. The part
+     * is in the current generation of the whole table
+     * @param index which part, from 0 (int)
+     * @param parts number of parts, at most the number of buckets (int)
+     * @return the part (TranspositionTable)
+     */
+    public TranspositionTable getPart(int index, int parts) {
+        if (index < 0 || index >= parts || parts > bucketMask + 1) {
+            throw new IllegalArgumentException("no part " + index + " of " + parts);
+        }
+        return new TranspositionTable(this, index, parts);
+    }
+
+    /**
+     * gets the size of the table
+     * @return size of the table in MB, rounded down (int)
+     */
+    public int getMegabytes() {
+        return (int) ((long) (bucketMask + 1) * entriesPerBucket * bytesPerEntry >> 20);
+    }
+
+    /**
+     * looks up a position
+     * @param hash hash of the position (long)
+     * @return packed entry for the position, or 0 if it isn't in the table (long)
+     */
+    public long probe(long hash) {
+        int slot = bucket(hash);
+        long entry = data[slot];
+        if ((keys[slot] ^ entry) == hash && entry != 0) {
+            return entry;
+        }
+        entry = data[slot + 1];
+        if ((keys[slot + 1] ^ entry) == hash && entry != 0) {
+            return entry;
+        }
+        return 0;
+    }
+
+    /**
+     * starts a new search. Entries from earlier searches can still be probed, but the
+     * first slot of a bucket no longer keeps them over newer, shallower ones
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * saves the result of a search. The first slot of a bucket keeps the deepest search
+     * of the current generation, and the second slot takes whatever the first slot
+     * doesn't. Threads can store and probe at the same time without locking
+     * @param hash hash of the position (long)
+     * @param depth depth the position was searched to (int)
+     * @param score score found by the search (int)
+     * @param bound whether the score is exact, a lower bound or an upper bound (int)
+     * @param bestMove cell of the best move, or -1 if there isn't one (int)
+     */
+    public void store(long hash, int depth, int score, int bound, int bestMove) {
+        long entry = (score & 0xFFFFL) | (long) depth << 16 | (long) bound << 24 | (long) (bestMove + 1) << 26
+                | (long) generation << 36;
+        int slot = bucket(hash);
+        long old = data[slot];
+        if ((keys[slot] ^ old) == hash || depth >= depthOf(old) || generationOf(old) != generation) {
+            keys[slot] = hash ^ entry;
+            data[slot] = entry;
+        }
+        else {
+            keys[slot + 1] = hash ^ entry;
+            data[slot + 1] = entry;
+        }
+    }
+
+    /**
+     * empties the table, or just this part of it
+     */
+    public void clear() {
+        int end = firstSlot + (bucketMask + 1) * entriesPerBucket;
+        Arrays.fill(keys, firstSlot, end, 0);
+        Arrays.fill(data, firstSlot, end, 0);
+    }
+
+    /**
+     * stores every entry of this table in another one and empties this one. The entries are
+     * stored in the other table's current generation
+     * @param other table to store the entries in (TranspositionTable)
+     */
+    public void moveInto(TranspositionTable other) {
+        int end = firstSlot + (bucketMask + 1) * entriesPerBucket;
+        for (int slot = firstSlot; slot < end; slot++) {
+            long entry = data[slot];
+            if (entry != 0) {
+                other.store(keys[slot] ^ entry, depthOf(entry), scoreOf(entry), boundOf(entry), bestMoveOf(entry));
+                keys[slot] = 0;
+                data[slot] = 0;
+            }
+        }
+    }
+
+    /**
+     * finds the first slot of the bucket a position belongs in
+     * @param hash hash of the position (long)
+     * @return index of the bucket's first slot (int)
+     */
+    private int bucket(long hash) {
+        //the high bits pick the bucket so the low bits stay independent
+        return firstSlot + ((int) (hash >>> 32) & bucketMask) * entriesPerBucket;
+    }
+
+    /**
+     * gets the score of an entry
+     * @param entry packed entry (long)
+     * @return score (int)
+     */
+    public static int scoreOf(long entry) {
+        return (short) entry;
+    }
+
+    /**
+     * gets the depth of an entry
+     * @param entry packed entry (long)
+     * @return depth the position was searched to (int)
+     */
+    public static int depthOf(long entry) {
+        return (int) (entry >>> 16) & 0xFF;
+    }
+
+    /**
+     * gets the kind of score an entry holds
+     * @param entry packed entry (long)
+     * @return exact, lowerBound or upperBound (int)
+     */
+    public static int boundOf(long entry) {
+        return (int) (entry >>> 24) & 0x3;
+    }
+
+    /**
+     * gets the number of the search that stored an entry
+     * @param entry packed entry (long)
+     * @return generation, 0-255 (int)
+     */
+    private static int generationOf(long entry) {
+        return (int) (entry >>> 36) & 0xFF;
+    }
+
+    /**
+     * gets the best move of an entry
+     * @param entry packed entry (long)
+     * @return cell of the best move, or -1 if there isn't one (int)
+     */
+    public static int bestMoveOf(long entry) {
+        return ((int) (entry >>> 26) & 0x3FF) - 1;
+    }
+}
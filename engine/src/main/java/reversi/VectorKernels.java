@@ -0,0 +1,231 @@
+package reversi;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorKernels: the Vector API versions of PositionBatch's loops. Each lane holds one
+ * position, so the Kogge-Stone fills Board does one position at a time run on as many
+ * positions as the CPU's widest vectors hold. This class is only loaded when the
+ * jdk.incubator.vector module is, so PositionBatch falls back to scalar loops without it
+ * @author Grace Bocek
+ */
+final class VectorKernels {
+    private static final VectorSpecies<Long> species = LongVector.SPECIES_PREFERRED;
+    private static final long notColA = 0xFEFEFEFEFEFEFEFEL;
+    private static final long notColH = 0x7F7F7F7F7F7F7F7FL;
+
+    private VectorKernels() {
+    }
+
+    /**
+     * gets the number of positions handled at once
+     * @return lanes per vector (int)
+     */
+    static int lanes() {
+        return species.length();
+    }
+
+    /**
+     * finds the number of positions at the start of a batch that fill whole vectors; the
+     * rest are left for the scalar loop
+     * @param count number of positions (int)
+     * @return positions handled here (int)
+     */
+    static int loopBound(int count) {
+        return species.loopBound(count);
+    }
+
+    /**
+     * Kogge-Stone fill toward higher cells on every lane, the same as Board.fill. The
+     * shift amount is a constant at every call so the JIT can compile the shifts to
+     * vector instructions
+     * @param gen discs the fill starts from (LongVector)
+     * @param pro cells the fill can pass through, already masked against wrapping (LongVector)
+     * @param amount bit shift of the direction (int)
+     * @return the starting discs and every cell the fill reached (LongVector)
+     */
+    private static LongVector fillUp(LongVector gen, LongVector pro, int amount) {
+        gen = gen.or(pro.and(gen.lanewise(VectorOperators.LSHL, amount)));
+        pro = pro.and(pro.lanewise(VectorOperators.LSHL, amount));
+        gen = gen.or(pro.and(gen.lanewise(VectorOperators.LSHL, amount * 2)));
+        pro = pro.and(pro.lanewise(VectorOperators.LSHL, amount * 2));
+        return gen.or(pro.and(gen.lanewise(VectorOperators.LSHL, amount * 4)));
+    }
+
+    /**
+     * Kogge-Stone fill toward lower cells on every lane
+     * @param gen discs the fill starts from (LongVector)
+     * @param pro cells the fill can pass through, already masked against wrapping (LongVector)
+     * @param amount bit shift of the direction (int)
+     * @return the starting discs and every cell the fill reached (LongVector)
+     */
+    private static LongVector fillDown(LongVector gen, LongVector pro, int amount) {
+        gen = gen.or(pro.and(gen.lanewise(VectorOperators.LSHR, amount)));
+        pro = pro.and(pro.lanewise(VectorOperators.LSHR, amount));
+        gen = gen.or(pro.and(gen.lanewise(VectorOperators.LSHR, amount * 2)));
+        pro = pro.and(pro.lanewise(VectorOperators.LSHR, amount * 2));
+        return gen.or(pro.and(gen.lanewise(VectorOperators.LSHR, amount * 4)));
+    }
+
+    /**
+     * finds the legal moves in every lane, the same as Board.moveMask. The 8 directions
+     * are written out so each shift has a constant amount
+     * @param player discs of the player to move (LongVector)
+     * @param opponent discs of the opponent (LongVector)
+     * @return bitboards of legal moves (LongVector)
+     */
+    private static LongVector moveMask(LongVector player, LongVector opponent) {
+        LongVector empty = player.or(opponent).not();
+        LongVector proA = opponent.and(notColA);
+        LongVector proH = opponent.and(notColH);
+        LongVector moves = fillUp(player, proA, 1).and(opponent).lanewise(VectorOperators.LSHL, 1).and(notColA);
+        moves = moves.or(fillDown(player, proH, 1).and(opponent).lanewise(VectorOperators.LSHR, 1).and(notColH));
+        moves = moves.or(fillUp(player, opponent, 8).and(opponent).lanewise(VectorOperators.LSHL, 8));
+        moves = moves.or(fillDown(player, opponent, 8).and(opponent).lanewise(VectorOperators.LSHR, 8));
+        moves = moves.or(fillUp(player, proA, 9).and(opponent).lanewise(VectorOperators.LSHL, 9).and(notColA));
+        moves = moves.or(fillUp(player, proH, 7).and(opponent).lanewise(VectorOperators.LSHL, 7).and(notColH));
+        moves = moves.or(fillDown(player, proA, 7).and(opponent).lanewise(VectorOperators.LSHR, 7).and(notColA));
+        moves = moves.or(fillDown(player, proH, 9).and(opponent).lanewise(VectorOperators.LSHR, 9).and(notColH));
+        return moves.and(empty);
+    }
+
+    /**
+     * adds a run of opponent pieces to the flips in the lanes where a player piece closes it off
+     * @param flipped flips found so far (LongVector)
+     * @param run run of opponent pieces next to the move (LongVector)
+     * @param end cells one step past the run (LongVector)
+     * @param player discs of the player to move (LongVector)
+     * @return flips with the closed runs added (LongVector)
+     */
+    private static LongVector addClosed(LongVector flipped, LongVector run, LongVector end, LongVector player) {
+        VectorMask<Long> closed = end.and(player).compare(VectorOperators.NE, 0);
+        return flipped.blend(flipped.or(run), closed);
+    }
+
+    /**
+     * finds the pieces a move flips in every lane, the same as Board.flipMask
+     * @param player discs of the player to move (LongVector)
+     * @param opponent discs of the opponent (LongVector)
+     * @param moveBit bit of the move's cell, or 0 (LongVector)
+     * @return bitboards of flipped pieces (LongVector)
+     */
+    private static LongVector flipMask(LongVector player, LongVector opponent, LongVector moveBit) {
+        LongVector proA = opponent.and(notColA);
+        LongVector proH = opponent.and(notColH);
+        LongVector flipped = LongVector.zero(species);
+        LongVector run = fillUp(moveBit, proA, 1).and(opponent);
+        flipped = addClosed(flipped, run, run.lanewise(VectorOperators.LSHL, 1).and(notColA), player);
+        run = fillDown(moveBit, proH, 1).and(opponent);
+        flipped = addClosed(flipped, run, run.lanewise(VectorOperators.LSHR, 1).and(notColH), player);
+        run = fillUp(moveBit, opponent, 8).and(opponent);
+        flipped = addClosed(flipped, run, run.lanewise(VectorOperators.LSHL, 8), player);
+        run = fillDown(moveBit, opponent, 8).and(opponent);
+        flipped = addClosed(flipped, run, run.lanewise(VectorOperators.LSHR, 8), player);
+        run = fillUp(moveBit, proA, 9).and(opponent);
+        flipped = addClosed(flipped, run, run.lanewise(VectorOperators.LSHL, 9).and(notColA), player);
+        run = fillUp(moveBit, proH, 7).and(opponent);
+        flipped = addClosed(flipped, run, run.lanewise(VectorOperators.LSHL, 7).and(notColH), player);
+        run = fillDown(moveBit, proA, 7).and(opponent);
+        flipped = addClosed(flipped, run, run.lanewise(VectorOperators.LSHR, 7).and(notColA), player);
+        run = fillDown(moveBit, proH, 9).and(opponent);
+        return addClosed(flipped, run, run.lanewise(VectorOperators.LSHR, 9).and(notColH), player);
+    }
+
+    /**
+     * finds every cell next to a disc in every lane, the same as Board.neighbors
+     * @param discs bitboards of discs (LongVector)
+     * @return bitboards of neighboring cells (LongVector)
+     */
+    private static LongVector neighbors(LongVector discs) {
+        LongVector sides = discs.lanewise(VectorOperators.LSHL, 1).and(notColA)
+                .or(discs.lanewise(VectorOperators.LSHR, 1).and(notColH));
+        //the rows above and below get the discs and their sides, which covers the diagonals
+        LongVector rows = discs.or(sides);
+        return sides.or(rows.lanewise(VectorOperators.LSHL, 8)).or(rows.lanewise(VectorOperators.LSHR, 8));
+    }
+
+    /**
+     * counts the set bits of every lane with shifts and masks; the bit count operator
+     * isn't in every version of the Vector API
+     * @param bits bitboards (LongVector)
+     * @return number of set bits in each lane (LongVector)
+     */
+    private static LongVector bitCount(LongVector bits) {
+        bits = bits.sub(bits.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+        bits = bits.and(0x3333333333333333L).add(bits.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+        bits = bits.add(bits.lanewise(VectorOperators.LSHR, 4)).and(0x0F0F0F0F0F0F0F0FL);
+        return bits.mul(0x0101010101010101L).lanewise(VectorOperators.LSHR, 56);
+    }
+
+    /**
+     * finds the legal moves of the first loopBound(count) positions
+     * @param players discs of the player to move in each position (long[])
+     * @param opponents discs of the opponent in each position (long[])
+     * @param moves filled with each position's legal moves (long[])
+     * @param count number of positions (int)
+     */
+    static void moveMasks(long[] players, long[] opponents, long[] moves, int count) {
+        for (int i = 0; i < loopBound(count); i += species.length()) {
+            LongVector player = LongVector.fromArray(species, players, i);
+            LongVector opponent = LongVector.fromArray(species, opponents, i);
+            moveMask(player, opponent).intoArray(moves, i);
+        }
+    }
+
+    /**
+     * counts the pieces flipped by a move in each of the first loopBound(count) positions
+     * @param players discs of the player to move in each position (long[])
+     * @param opponents discs of the opponent in each position (long[])
+     * @param moveBits bit of the move's cell in each position (long[])
+     * @param flips filled with the number of pieces each move flips (int[])
+     * @param count number of positions (int)
+     */
+    static void flipCounts(long[] players, long[] opponents, long[] moveBits, int[] flips, int count) {
+        long[] lane = new long[species.length()];
+        for (int i = 0; i < loopBound(count); i += species.length()) {
+            LongVector player = LongVector.fromArray(species, players, i);
+            LongVector opponent = LongVector.fromArray(species, opponents, i);
+            LongVector moveBit = LongVector.fromArray(species, moveBits, i);
+            LongVector flipped = flipMask(player, opponent, moveBit);
+            bitCount(flipped).intoArray(lane, 0);
+            copy(lane, flips, i);
+        }
+    }
+
+    /**
+     * finds the mobility and frontier differences PatternEvaluator adds to its pattern
+     * weights for the first loopBound(count) positions
+     * @param players discs of the player to move in each position (long[])
+     * @param opponents discs of the opponent in each position (long[])
+     * @param mobility filled with the player's valid moves minus the opponent's (int[])
+     * @param frontier filled with the player's frontier discs minus the opponent's (int[])
+     * @param count number of positions (int)
+     */
+    static void mobilityAndFrontier(long[] players, long[] opponents, int[] mobility, int[] frontier, int count) {
+        long[] lane = new long[species.length()];
+        for (int i = 0; i < loopBound(count); i += species.length()) {
+            LongVector player = LongVector.fromArray(species, players, i);
+            LongVector opponent = LongVector.fromArray(species, opponents, i);
+            bitCount(moveMask(player, opponent)).sub(bitCount(moveMask(opponent, player))).intoArray(lane, 0);
+            copy(lane, mobility, i);
+            LongVector edge = neighbors(player.or(opponent).not());
+            bitCount(player.and(edge)).sub(bitCount(opponent.and(edge))).intoArray(lane, 0);
+            copy(lane, frontier, i);
+        }
+    }
+
+    /**
+     * copies one vector's worth of small counts into an int array
+     * @param lane counts from each lane (long[])
+     * @param out array to copy into (int[])
+     * @param offset index of the first lane's position (int)
+     */
+    private static void copy(long[] lane, int[] out, int offset) {
+        for (int j = 0; j < lane.length; j++) {
+            out[offset + j] = (int) lane[j];
+        }
+    }
+}
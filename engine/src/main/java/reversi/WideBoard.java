@@ -0,0 +1,721 @@
+package reversi;
+
+import java.util.SplittableRandom;
+
+/**
+ * WideBoard: a class that represents the board in a reversi game of any even size from
+ * 4 x 4 to 26 x 26. Each player's discs are a bitset packed into longs, cell row * size + col
+ * in bit cell % 64 of word cell / 64, and moves are found for every cell at once with
+ * multi-word shifts, the same way Board does with one long
+ * @author Grace Bocek
+ */
+public class WideBoard {
+    public static final int minSize = 4;
+    public static final int maxSize = 26;
+    private static final char white = 'O';
+    private static final char black = 'X';
+    private static final char empty = '-';
+    private int size;
+    private int cellCount;
+    private int words;
+    private long[] whiteDiscs;
+    private long[] blackDiscs;
+    private boolean usersTurn;
+    private boolean gameOver;
+    private int whiteCount;
+    private int blackCount;
+    //bit shift for each of the 8 directions: right, left, down, up and the four diagonals
+    private int[] shifts;
+    //cells that a disc shifted in each direction can land on without wrapping around a row
+    private long[][] wrapMasks;
+    private long[] cellMask;
+    //the four corners and the three cells next to each of them
+    private int[] corners;
+    private long[][] cornerRegions;
+    private long[] cornerMask;
+    //Zobrist keys for each cell and player; the same for every board of a size
+    private long[] whiteKeys;
+    private long[] blackKeys;
+    private long usersTurnKey;
+    private long hash;
+    //undo stack for makeMove/unmakeMove, deep enough for every move and pass of a game
+    private long[][] undoFlips;
+    private int[] undoSquares;
+    private int[] undoCounts;
+    private long[] undoHashes;
+    private int undoTop;
+    //scratch bitsets so move generation doesn't allocate
+    private long[] gen;
+    private long[] pro;
+    private long[] shifted;
+    private long[] run;
+    private long[] moves;
+    private long[] validMoves;
+
+    /**
+     * constructor for a new board where the user moves first
+     * @param size number of rows and columns, even and from 4 to 26 (int)
+     */
+    public WideBoard(int size) {
+        this(size, true);
+    }
+
+    /**
+     * constructor for a new board
+     * @param size number of rows and columns, even and from 4 to 26 (int)
+     * @param usersTurn whether the user moves first (bool)
+     */
+    public WideBoard(int size, boolean usersTurn) {
+        setUp(size);
+        int mid = size / 2 - 1;
+        setBit(whiteDiscs, mid * size + mid);
+        setBit(whiteDiscs, (mid + 1) * size + mid + 1);
+        setBit(blackDiscs, mid * size + mid + 1);
+        setBit(blackDiscs, (mid + 1) * size + mid);
+        whiteCount = 2;
+        blackCount = 2;
+        this.usersTurn = usersTurn;
+        hash = computeHash();
+    }
+
+    /**
+     * constructor for a copy of an old board
+     * @param old board to be copied (WideBoard)
+     */
+    public WideBoard(WideBoard old) {
+        setUp(old.size);
+        System.arraycopy(old.whiteDiscs, 0, whiteDiscs, 0, words);
+        System.arraycopy(old.blackDiscs, 0, blackDiscs, 0, words);
+        whiteCount = old.whiteCount;
+        blackCount = old.blackCount;
+        usersTurn = old.usersTurn;
+        gameOver = old.gameOver;
+        hash = old.hash;
+    }
+
+    /**
+     * constructor for a board from a position string: size * size cells row by row, each
+     * 'O', 'X' or '-', followed by the piece of the player to move. Spaces and line breaks
+     * are ignored, and the size comes from the number of cells
+     * @param position position string (String)
+     */
+    public WideBoard(String position) {
+        String cells = position.replaceAll("\\s", "");
+        int boardSize = (int) Math.round(Math.sqrt(cells.length() - 1));
+        if (boardSize * boardSize != cells.length() - 1) {
+            throw new IllegalArgumentException("position needs size * size cells and a player to move: " + position);
+        }
+        setUp(boardSize);
+        for (int i = 0; i < cellCount; i++) {
+            char piece = cells.charAt(i);
+            if (piece == white) {
+                setBit(whiteDiscs, i);
+            }
+            else if (piece == black) {
+                setBit(blackDiscs, i);
+            }
+            else if (piece != empty) {
+                throw new IllegalArgumentException("unknown piece '" + piece + "' in position: " + position);
+            }
+        }
+        char toMove = cells.charAt(cellCount);
+        if (toMove != white && toMove != black) {
+            throw new IllegalArgumentException("unknown player to move '" + toMove + "' in position: " + position);
+        }
+        whiteCount = bitCount(whiteDiscs);
+        blackCount = bitCount(blackDiscs);
+        usersTurn = toMove == white;
+        gameOver = whiteCount + blackCount == cellCount;
+        hash = computeHash();
+    }
+
+    /**
+     * makes the bitsets, masks, keys and undo stack for an empty board
+     * @param size number of rows and columns (int)
+     */
+    private void setUp(int size) {
+        if (size < minSize || size > maxSize || size % 2 != 0) {
+            throw new IllegalArgumentException("board size must be even and from " + minSize + " to "
+                    + maxSize + ": " + size);
+        }
+        this.size = size;
+        cellCount = size * size;
+        words = (cellCount + 63) / 64;
+        whiteDiscs = new long[words];
+        blackDiscs = new long[words];
+        cellMask = new long[words];
+        long[] notFirstCol = new long[words];
+        long[] notLastCol = new long[words];
+        for (int i = 0; i < cellCount; i++) {
+            setBit(cellMask, i);
+            if (i % size != 0) {
+                setBit(notFirstCol, i);
+            }
+            if (i % size != size - 1) {
+                setBit(notLastCol, i);
+            }
+        }
+        shifts = new int[]{1, -1, size, -size, size + 1, size - 1, -(size - 1), -(size + 1)};
+        wrapMasks = new long[][]{notFirstCol, notLastCol, cellMask, cellMask,
+            notFirstCol, notLastCol, notFirstCol, notLastCol};
+        int n = size - 1;
+        corners = new int[]{0, n, n * size, n * size + n};
+        cornerRegions = new long[4][words];
+        cornerMask = new long[words];
+        //each corner's neighbors are one row and one column inward
+        int[] rowSteps = {1, 1, -1, -1};
+        int[] colSteps = {1, -1, 1, -1};
+        for (int i = 0; i < 4; i++) {
+            setBit(cornerMask, corners[i]);
+            setBit(cornerRegions[i], corners[i] + colSteps[i]);
+            setBit(cornerRegions[i], corners[i] + rowSteps[i] * size);
+            setBit(cornerRegions[i], corners[i] + rowSteps[i] * size + colSteps[i]);
+        }
+        //fixed seed for each size so hashes are the same every run
+        SplittableRandom keyRandom = new SplittableRandom(0x5EED + size);
+        whiteKeys = new long[cellCount];
+        blackKeys = new long[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            whiteKeys[i] = keyRandom.nextLong();
+            blackKeys[i] = keyRandom.nextLong();
+        }
+        usersTurnKey = keyRandom.nextLong();
+        int maxUndo = cellCount * 2;
+        undoFlips = new long[maxUndo][words];
+        undoSquares = new int[maxUndo];
+        undoCounts = new int[maxUndo];
+        undoHashes = new long[maxUndo];
+        gen = new long[words];
+        pro = new long[words];
+        shifted = new long[words];
+        run = new long[words];
+        moves = new long[words];
+        validMoves = new long[words];
+    }
+
+    /**
+     * sets a cell's bit in a bitset
+     * @param bits bitset (long[])
+     * @param cell cell number (int)
+     */
+    private static void setBit(long[] bits, int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+
+    /**
+     * determines whether a cell's bit is set in a bitset
+     * @param bits bitset (long[])
+     * @param cell cell number (int)
+     * @return whether the bit is set (bool)
+     */
+    static boolean testBit(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * counts the set bits in a bitset
+     * @param bits bitset (long[])
+     * @return number of set bits (int)
+     */
+    static int bitCount(long[] bits) {
+        int out = 0;
+        for (long word : bits) {
+            out += Long.bitCount(word);
+        }
+        return out;
+    }
+
+    /**
+     * shifts every bit of a bitset toward higher cells (positive amounts) or lower cells
+     * (negative amounts), carrying bits between words. Bits shifted past either end are dropped
+     * @param src bitset to shift (long[])
+     * @param amount number of cells to shift by (int)
+     * @param dst bitset to write the result to; must not be src (long[])
+     */
+    private static void shift(long[] src, int amount, long[] dst) {
+        int n = src.length;
+        if (amount >= 0) {
+            int wordShift = amount >>> 6;
+            int bitShift = amount & 63;
+            for (int i = n - 1; i >= 0; i--) {
+                int from = i - wordShift;
+                long word = from >= 0 ? src[from] << bitShift : 0;
+                if (bitShift != 0 && from >= 1) {
+                    word |= src[from - 1] >>> (64 - bitShift);
+                }
+                dst[i] = word;
+            }
+        }
+        else {
+            amount = -amount;
+            int wordShift = amount >>> 6;
+            int bitShift = amount & 63;
+            for (int i = 0; i < n; i++) {
+                int from = i + wordShift;
+                long word = from < n ? src[from] >>> bitShift : 0;
+                if (bitShift != 0 && from + 1 < n) {
+                    word |= src[from + 1] << (64 - bitShift);
+                }
+                dst[i] = word;
+            }
+        }
+    }
+
+    /**
+     * spreads discs in a direction through a run of propagator cells, doubling the
+     * distance covered at each step (Kogge-Stone parallel prefix fill). The fill is left in gen
+     * @param start discs the fill starts from (long[])
+     * @param propagators cells the fill can pass through (long[])
+     * @param dir index of the direction (int)
+     */
+    private void fill(long[] start, long[] propagators, int dir) {
+        long[] wrap = wrapMasks[dir];
+        for (int i = 0; i < words; i++) {
+            gen[i] = start[i];
+            pro[i] = propagators[i] & wrap[i];
+        }
+        int amount = shifts[dir];
+        //a run can be at most size - 2 discs long
+        int reach = 0;
+        for (int step = 1; reach < size - 2; step *= 2) {
+            shift(gen, amount * step, shifted);
+            for (int i = 0; i < words; i++) {
+                gen[i] |= pro[i] & shifted[i];
+            }
+            reach += step;
+            if (reach < size - 2) {
+                shift(pro, amount * step, shifted);
+                for (int i = 0; i < words; i++) {
+                    pro[i] &= shifted[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * finds every empty cell where the player can sandwich at least one opponent piece
+     * @param player discs of the player to move (long[])
+     * @param opponent discs of the opponent (long[])
+     * @param out bitset to fill with the legal moves (long[])
+     */
+    private void moveMask(long[] player, long[] opponent, long[] out) {
+        for (int i = 0; i < words; i++) {
+            out[i] = 0;
+        }
+        for (int dir = 0; dir < 8; dir++) {
+            //runs of opponent pieces that start next to a player piece
+            fill(player, opponent, dir);
+            for (int i = 0; i < words; i++) {
+                run[i] = gen[i] & opponent[i];
+            }
+            shift(run, shifts[dir], shifted);
+            long[] wrap = wrapMasks[dir];
+            for (int i = 0; i < words; i++) {
+                out[i] |= shifted[i] & wrap[i] & ~(player[i] | opponent[i]);
+            }
+        }
+    }
+
+    /**
+     * finds the opponent pieces flipped by placing a piece on a cell
+     * @param player discs of the player to move (long[])
+     * @param opponent discs of the opponent (long[])
+     * @param cell cell where the piece is placed (int)
+     * @param out bitset to fill with the flipped pieces (long[])
+     */
+    private void flipMask(long[] player, long[] opponent, int cell, long[] out) {
+        for (int i = 0; i < words; i++) {
+            out[i] = 0;
+            moves[i] = 0;
+        }
+        setBit(moves, cell);
+        for (int dir = 0; dir < 8; dir++) {
+            fill(moves, opponent, dir);
+            boolean anyRun = false;
+            for (int i = 0; i < words; i++) {
+                run[i] = gen[i] & opponent[i];
+                anyRun |= run[i] != 0;
+            }
+            if (!anyRun) {
+                continue;
+            }
+            //the run is only sandwiched if a player piece closes it off
+            shift(run, shifts[dir], shifted);
+            long[] wrap = wrapMasks[dir];
+            boolean closed = false;
+            for (int i = 0; i < words; i++) {
+                closed |= (shifted[i] & wrap[i] & player[i]) != 0;
+            }
+            if (closed) {
+                for (int i = 0; i < words; i++) {
+                    out[i] |= run[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * fills a bitset with the valid moves for the current player
+     * @param out bitset of at least getWords() longs to fill (long[])
+     */
+    public void getValidMoveMask(long[] out) {
+        if (usersTurn) {
+            moveMask(whiteDiscs, blackDiscs, out);
+        }
+        else {
+            moveMask(blackDiscs, whiteDiscs, out);
+        }
+    }
+
+    /**
+     * fills an array with the cells of the current player's valid moves, lowest first,
+     * without allocating anything
+     * @param out array of at least size * size cells to fill (int[])
+     * @return number of valid moves (int)
+     */
+    public int getValidMoves(int[] out) {
+        getValidMoveMask(validMoves);
+        int moveCount = 0;
+        for (int i = 0; i < words; i++) {
+            long word = validMoves[i];
+            while (word != 0) {
+                out[moveCount] = i * 64 + Long.numberOfTrailingZeros(word);
+                moveCount++;
+                word &= word - 1;
+            }
+        }
+        return moveCount;
+    }
+
+    /**
+     * determines whether the current player has a valid move
+     * @return whether there is a valid move (bool)
+     */
+    public boolean hasValidMove() {
+        getValidMoveMask(validMoves);
+        for (long word : validMoves) {
+            if (word != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * places a piece for the current player in place, flipping sandwiched pieces and
+     * passing the turn, and remembers enough to take it back with unmakeMove
+     * @param cell cell of the placed piece, numbered row * size + col (int)
+     */
+    public void makeMove(int cell) {
+        pushUndo(cell);
+        long[] moveFlips = undoFlips[undoTop - 1];
+        long[] player = usersTurn ? whiteDiscs : blackDiscs;
+        long[] opponent = usersTurn ? blackDiscs : whiteDiscs;
+        long[] playerKeys = usersTurn ? whiteKeys : blackKeys;
+        flipMask(player, opponent, cell, moveFlips);
+        int flipped = 0;
+        for (int i = 0; i < words; i++) {
+            long word = moveFlips[i];
+            player[i] |= word;
+            opponent[i] &= ~word;
+            flipped += Long.bitCount(word);
+            while (word != 0) {
+                int square = i * 64 + Long.numberOfTrailingZeros(word);
+                hash ^= whiteKeys[square] ^ blackKeys[square];
+                word &= word - 1;
+            }
+        }
+        setBit(player, cell);
+        hash ^= playerKeys[cell];
+        if (usersTurn) {
+            whiteCount += flipped + 1;
+            blackCount -= flipped;
+        }
+        else {
+            blackCount += flipped + 1;
+            whiteCount -= flipped;
+        }
+        if (whiteCount + blackCount == cellCount) {
+            gameOver = true;
+        }
+        switchTurn();
+    }
+
+    /**
+     * skips the current player's turn in place, remembering enough to take it back
+     * with unmakeMove
+     */
+    public void makePass() {
+        pushUndo(-1);
+        switchTurn();
+    }
+
+    /**
+     * takes back the last move or pass made with makeMove or makePass
+     */
+    public void unmakeMove() {
+        undoTop--;
+        hash = undoHashes[undoTop];
+        int info = undoCounts[undoTop];
+        whiteCount = info & 0x3FF;
+        blackCount = (info >>> 10) & 0x3FF;
+        usersTurn = (info & (1 << 20)) != 0;
+        gameOver = (info & (1 << 21)) != 0;
+        int cell = undoSquares[undoTop];
+        if (cell < 0) {
+            return;
+        }
+        long[] moveFlips = undoFlips[undoTop];
+        long[] player = usersTurn ? whiteDiscs : blackDiscs;
+        long[] opponent = usersTurn ? blackDiscs : whiteDiscs;
+        player[cell >>> 6] &= ~(1L << cell);
+        for (int i = 0; i < words; i++) {
+            player[i] &= ~moveFlips[i];
+            opponent[i] |= moveFlips[i];
+        }
+    }
+
+    /**
+     * records the move, counts and turn before a move is made
+     * @param cell cell of the move, or -1 for a pass (int)
+     */
+    private void pushUndo(int cell) {
+        int info = whiteCount | blackCount << 10;
+        if (usersTurn) {
+            info |= 1 << 20;
+        }
+        if (gameOver) {
+            info |= 1 << 21;
+        }
+        undoSquares[undoTop] = cell;
+        undoCounts[undoTop] = info;
+        undoHashes[undoTop] = hash;
+        undoTop++;
+    }
+
+    /**
+     * switches turns between the user and the computer
+     */
+    public void switchTurn() {
+        usersTurn = !usersTurn;
+        hash ^= usersTurnKey;
+    }
+
+    /**
+     * computes the Zobrist hash of the board from scratch
+     * @return hash of the discs and the player to move (long)
+     */
+    private long computeHash() {
+        long out = usersTurn ? usersTurnKey : 0;
+        for (int i = 0; i < cellCount; i++) {
+            if (testBit(whiteDiscs, i)) {
+                out ^= whiteKeys[i];
+            }
+            else if (testBit(blackDiscs, i)) {
+                out ^= blackKeys[i];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * gets the Zobrist hash of the board, which is kept up to date as moves are made
+     * @return hash of the discs and the player to move (long)
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * determines the computer's score the same way Board.pieceScore does: 10 for a
+     * corner, -10 next to an empty corner and 1 for any other piece, with the user's
+     * pieces counting against the computer. Every cell is scored at once with masks
+     * @return the computer's score (int)
+     */
+    public int getComputerScore() {
+        int score = 0;
+        for (int i = 0; i < words; i++) {
+            score += Long.bitCount(blackDiscs[i]) - Long.bitCount(whiteDiscs[i]);
+            score += 9 * (Long.bitCount(blackDiscs[i] & cornerMask[i]) - Long.bitCount(whiteDiscs[i] & cornerMask[i]));
+        }
+        for (int c = 0; c < 4; c++) {
+            if (testBit(whiteDiscs, corners[c]) || testBit(blackDiscs, corners[c])) {
+                continue;
+            }
+            long[] region = cornerRegions[c];
+            for (int i = 0; i < words; i++) {
+                score -= 11 * (Long.bitCount(blackDiscs[i] & region[i]) - Long.bitCount(whiteDiscs[i] & region[i]));
+            }
+        }
+        return score;
+    }
+
+    /**
+     * determines whether a cell is a corner
+     * @param cell cell number (int)
+     * @return whether the cell is a corner (bool)
+     */
+    public boolean isCorner(int cell) {
+        return testBit(cornerMask, cell);
+    }
+
+    /**
+     * gets the user's (white) pieces as a bitset, with bit row * size + col set for each piece
+     * @return bitset of white pieces; not a copy, so it must not be changed (long[])
+     */
+    public long[] getWhiteDiscs() {
+        return whiteDiscs;
+    }
+
+    /**
+     * gets the computer's (black) pieces as a bitset, with bit row * size + col set for each piece
+     * @return bitset of black pieces; not a copy, so it must not be changed (long[])
+     */
+    public long[] getBlackDiscs() {
+        return blackDiscs;
+    }
+
+    /**
+     * gets the number of rows and columns
+     * @return board size (int)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * gets the number of longs in each bitset
+     * @return words per bitset (int)
+     */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * determines whether it's the user's turn
+     * @return whether it's the user's turn (bool)
+     */
+    public boolean getUsersTurn() {
+        return usersTurn;
+    }
+
+    /**
+     * counts the number of black and white pieces on the board
+     * @return the number of white and black pieces on the board (int[])
+     */
+    public int[] count() {
+        return new int[]{whiteCount, blackCount};
+    }
+
+    /**
+     * ends the reversi game
+     */
+    public void endGame() {
+        gameOver = true;
+    }
+
+    /**
+     * determines whether the reversi game is over
+     * @return whether the game is over (bool)
+     */
+    public boolean gameOver() {
+        return gameOver;
+    }
+
+    /**
+     * names a cell the way Move.toString does, like "4-c" or "12-k"
+     * @param cell cell number (int)
+     * @return name of the cell (String)
+     */
+    public String moveName(int cell) {
+        return (cell / size + 1) + "-" + (char) (cell % size + 'a');
+    }
+
+    /**
+     * reads a cell named the way moveName writes it, or as a cell number
+     * @param text move text (String)
+     * @return cell number (int)
+     * @throws IllegalArgumentException if the text isn't a cell on this board
+     */
+    public int parseMove(String text) {
+        int dash = text.indexOf('-');
+        if (dash > 0 && dash == text.length() - 2) {
+            try {
+                int row = Integer.parseInt(text.substring(0, dash)) - 1;
+                int col = text.charAt(dash + 1) - 'a';
+                if (row >= 0 && row < size && col >= 0 && col < size) {
+                    return row * size + col;
+                }
+            }
+            catch (NumberFormatException e) {
+                //fall through to the error below
+            }
+        }
+        int cell;
+        try {
+            cell = Integer.parseInt(text);
+        }
+        catch (NumberFormatException e) {
+            cell = -1;
+        }
+        if (cell < 0 || cell >= cellCount) {
+            throw new IllegalArgumentException("bad move " + text);
+        }
+        return cell;
+    }
+
+    /**
+     * gets the piece in a cell
+     * @param cell cell number (int)
+     * @return piece in the cell (char)
+     */
+    private char cell(int cell) {
+        if (testBit(whiteDiscs, cell)) {
+            return white;
+        }
+        if (testBit(blackDiscs, cell)) {
+            return black;
+        }
+        return empty;
+    }
+
+    /**
+     * represents the board as a position string that the WideBoard(String) constructor reads
+     * @return position string (String)
+     */
+    public String toPositionString() {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < cellCount; i++) {
+            out.append(cell(i));
+        }
+        out.append(' ');
+        out.append(usersTurn ? white : black);
+        return out.toString();
+    }
+
+    /**
+     * represents the reversi board as a string, with row numbers padded so the columns
+     * line up past row 9
+     * @return reversi string representation
+     */
+    public String toString() {
+        int width = String.valueOf(size).length();
+        StringBuilder header = new StringBuilder(" ".repeat(width + 1));
+        for (int i = 0; i < size; i++) {
+            header.append((char) (i + 'a')).append(' ');
+        }
+        header.append('\n');
+        StringBuilder out = new StringBuilder(header);
+        for (int row = 0; row < size; row++) {
+            String number = String.valueOf(row + 1);
+            out.append(" ".repeat(width - number.length())).append(number).append(' ');
+            for (int col = 0; col < size; col++) {
+                out.append(cell(row * size + col)).append(' ');
+            }
+            out.append(number).append('\n');
+        }
+        out.append(header);
+        out.append("\n" + white + " count: " + whiteCount + "   " + black + " count: " + blackCount + "\n");
+        return out.toString();
+    }
+}
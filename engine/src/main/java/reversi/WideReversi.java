@@ -0,0 +1,365 @@
+package reversi;
+
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * WideReversi: a class that simulates a game of Reversi on a board of any even size in the
+ * terminal. The user plays against the computer, which searches one level deeper at a time
+ * with alpha-beta negamax until its time runs out. The opening book, pattern evaluator and
+ * endgame solver only know 8 x 8 boards, so the computer scores positions with the same
+ * piece scores as Board.pieceScore
+ * @author Grace Bocek
+ */
+public class WideReversi {
+    //more than any score; scores are stored in the transposition table as shorts
+    private static final int infinity = 30000;
+    private static final long defaultMoveTimeLimit = 1000;
+    private static final int defaultTableMegabytes = 16;
+    private WideBoard board;
+    private boolean userSkip;
+    private boolean computerSkip;
+    private int[] validMoves;
+    private int validMoveCount;
+    private TranspositionTable table;
+    private SearchLimits limits;
+    private long moveTimeLimit;
+    private int maxDepth;
+    private Random random;
+    //move list and sort keys for each search depth, reused so the search doesn't allocate
+    private int[][] moveLists;
+    private int[][] moveKeys;
+    private long nodes;
+    private boolean searchAborted;
+    private int lastScore;
+
+    /**
+     * Constructor for a game of reversi
+     * @param size number of rows and columns, even and from 4 to 26 (int)
+     * @param userFirst whether the user moves first (bool)
+     */
+    public WideReversi(int size, boolean userFirst) {
+        board = new WideBoard(size, userFirst);
+        validMoves = new int[size * size];
+        table = new TranspositionTable(defaultTableMegabytes);
+        limits = new SearchLimits();
+        moveTimeLimit = defaultMoveTimeLimit;
+        maxDepth = Search.maxDepth;
+        random = new Random();
+        moveLists = new int[Search.maxDepth + 1][size * size];
+        moveKeys = new int[Search.maxDepth + 1][size * size];
+    }
+
+    /**
+     * sets how long the computer can search each move
+     * @param millis time limit in milliseconds, or 0 for no limit (long)
+     */
+    public void setMoveTimeLimit(long millis) {
+        moveTimeLimit = millis;
+    }
+
+    /**
+     * sets the deepest the computer searches each move
+     * @param depth maximum depth of search (int)
+     */
+    public void setMaxDepth(int depth) {
+        maxDepth = Math.min(depth, Search.maxDepth);
+    }
+
+    /**
+     * seeds the random order equal moves are searched in
+     * @param seed random seed (long)
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * plays a match of reversi
+     */
+    public void play() {
+        System.out.println(board);
+        while (!board.gameOver()) {
+            if (board.getUsersTurn()) {
+                userMove();
+            }
+            else {
+                computerMove();
+            }
+        }
+        System.out.println("Game Over");
+        int[] count = board.count();
+        if (count[0] > count[1]) {
+            System.out.println("You win!");
+        }
+        else if (count[0] < count[1]) {
+            System.out.println("You lose!");
+        }
+        else {
+            System.out.println("Tie!");
+        }
+    }
+
+    /**
+     * determines whether both players are out of moves and ends the game if so
+     * @param message what to print if empty cells are left (String)
+     * @return whether the game ended (bool)
+     */
+    private boolean checkBothSkip(String message) {
+        if (!computerSkip || !userSkip) {
+            return false;
+        }
+        board.endGame();
+        int[] count = board.count();
+        if (count[0] + count[1] != board.getSize() * board.getSize()) {
+            //empty cells left
+            System.out.println(message);
+            System.out.println();
+        }
+        return true;
+    }
+
+    /**
+     * plays a piece for the user
+     */
+    private void userMove() {
+        validMoveCount = board.getValidMoves(validMoves);
+        userSkip = validMoveCount == 0;
+        if (checkBothSkip("No valid moves.")) {
+            return;
+        }
+        if (userSkip) {
+            System.out.println("No valid moves. You skip a turn.");
+            System.out.println();
+            board.switchTurn();
+            return;
+        }
+        System.out.print("Valid moves: ");
+        for (int i = 0; i < validMoveCount; i++) {
+            System.out.print((i + 1) + ". " + board.moveName(validMoves[i]) + "   ");
+        }
+        System.out.println();
+        Scanner scan = new Scanner(System.in);
+        int choice = 0;
+        while (choice < 1 || choice > validMoveCount) {
+            System.out.print("Enter 1" + (validMoveCount > 1 ? "-" + validMoveCount : "") + ": ");
+            String input = scan.next();
+            scan.nextLine();
+            try {
+                choice = Integer.parseInt(input);
+            }
+            catch (NumberFormatException e) {
+                choice = 0;
+            }
+        }
+        board.makeMove(validMoves[choice - 1]);
+        System.out.println();
+        System.out.println(board);
+    }
+
+    /**
+     * plays a piece for the computer
+     */
+    private void computerMove() {
+        validMoveCount = board.getValidMoves(validMoves);
+        computerSkip = validMoveCount == 0;
+        if (checkBothSkip("No valid computer moves.")) {
+            return;
+        }
+        if (computerSkip) {
+            System.out.println("No valid moves. Computer skips a turn.");
+            System.out.println();
+            board.switchTurn();
+            return;
+        }
+        int move = findBestMove(board);
+        System.out.println("Computer move: " + board.moveName(move));
+        board.makeMove(move);
+        System.out.println();
+        System.out.println(board);
+    }
+
+    /**
+     * determines which valid move is best for the player to move by searching one level
+     * deeper at a time until the time limit runs out
+     * @param position board where the player to move has a valid move; it is left unchanged (WideBoard)
+     * @return cell of the best valid move from the deepest completed search (int)
+     */
+    public int findBestMove(WideBoard position) {
+        table.newSearch();
+        limits.start(moveTimeLimit, 0);
+        nodes = 0;
+        searchAborted = false;
+        int[] rootMoves = new int[position.getSize() * position.getSize()];
+        int moveCount = position.getValidMoves(rootMoves);
+        int[] count = position.count();
+        int empties = position.getSize() * position.getSize() - count[0] - count[1];
+        WideBoard saved = board;
+        board = position;
+        try {
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                int iterationBest = -1;
+                int bestScore = -infinity;
+                for (int i = 0; i < moveCount; i++) {
+                    board.makeMove(rootMoves[i]);
+                    int score = -negamax(depth - 1, -infinity, -bestScore);
+                    board.unmakeMove();
+                    if (searchAborted) {
+                        break;
+                    }
+                    if (score > bestScore || iterationBest == -1) {
+                        bestScore = score;
+                        iterationBest = i;
+                    }
+                }
+                if (searchAborted) {
+                    break;
+                }
+                //the best move goes first at the next depth
+                int best = rootMoves[iterationBest];
+                System.arraycopy(rootMoves, 0, rootMoves, 1, iterationBest);
+                rootMoves[0] = best;
+                lastScore = bestScore;
+                //nothing is left to search once every line reaches the end of the game
+                if (depth >= empties) {
+                    break;
+                }
+            }
+        }
+        finally {
+            board = saved;
+        }
+        return rootMoves[0];
+    }
+
+    /**
+     * gets the score of the last move found, for the player who made it
+     * @return score (int)
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * gets the number of positions searched for the last move
+     * @return nodes searched (long)
+     */
+    public long getNodesSearched() {
+        return nodes;
+    }
+
+    /**
+     * searches a position with alpha-beta negamax, scored for the player to move. Moves
+     * are made and taken back on the board, so it is left unchanged
+     * @param depth depth of search (int)
+     * @param alpha score the player to move already has elsewhere (int)
+     * @param beta score the opponent already has elsewhere, from the player to move's side (int)
+     * @return best score the player to move can achieve (int)
+     */
+    private int negamax(int depth, int alpha, int beta) {
+        nodes++;
+        //checking the shared budget is slow, so only do it every 1024 nodes
+        if ((nodes & 1023) == 0 && limits.check(1024)) {
+            searchAborted = true;
+        }
+        if (searchAborted) {
+            return 0;
+        }
+        int sign = board.getUsersTurn() ? -1 : 1;
+        if (depth == 0 || board.gameOver()) {
+            return sign * board.getComputerScore();
+        }
+        //entries are stored for the player to move, so they don't need flipping
+        long hash = board.getHash();
+        long entry = table.probe(hash);
+        int tableMove = -1;
+        if (entry != 0) {
+            tableMove = TranspositionTable.bestMoveOf(entry);
+            if (TranspositionTable.depthOf(entry) >= depth) {
+                int score = TranspositionTable.scoreOf(entry);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.exact
+                        || (bound == TranspositionTable.lowerBound && score >= beta)
+                        || (bound == TranspositionTable.upperBound && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        int[] moves = moveLists[depth];
+        int moveCount = loadMoves(moves, depth, tableMove);
+        if (moveCount == 0) {
+            board.makePass();
+            int score;
+            if (board.hasValidMove()) {
+                score = -negamax(depth - 1, -beta, -alpha);
+            }
+            else {
+                //neither player can move, so the game is over
+                score = -sign * board.getComputerScore();
+            }
+            board.unmakeMove();
+            return score;
+        }
+        int alphaOrig = alpha;
+        int bestScore = -infinity;
+        int bestMove = moves[0];
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            int score = -negamax(depth - 1, -beta, -alpha);
+            board.unmakeMove();
+            if (searchAborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = moves[i];
+            }
+            alpha = Math.max(alpha, score);
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        int bound = TranspositionTable.exact;
+        if (bestScore <= alphaOrig) {
+            bound = TranspositionTable.upperBound;
+        }
+        else if (bestScore >= beta) {
+            bound = TranspositionTable.lowerBound;
+        }
+        table.store(hash, depth, bestScore, bound, bestMove);
+        return bestScore;
+    }
+
+    /**
+     * fills a move list with the valid moves, best-looking first: the transposition
+     * table's best move, then corners. Ties are broken at random
+     * @param moves list to fill with cell numbers (int[])
+     * @param depth depth of search (int)
+     * @param tableMove best move stored in the transposition table, or -1 (int)
+     * @return number of moves in the list (int)
+     */
+    private int loadMoves(int[] moves, int depth, int tableMove) {
+        int moveCount = board.getValidMoves(moves);
+        int[] keys = moveKeys[depth];
+        for (int i = 0; i < moveCount; i++) {
+            int cell = moves[i];
+            int key = random.nextInt(1 << 16);
+            if (cell == tableMove) {
+                key = Integer.MAX_VALUE;
+            }
+            else if (board.isCorner(cell)) {
+                key += 1 << 20;
+            }
+            //insertion sort, highest key first
+            int j = i;
+            while (j > 0 && keys[j - 1] < key) {
+                keys[j] = keys[j - 1];
+                moves[j] = moves[j - 1];
+                j--;
+            }
+            keys[j] = key;
+            moves[j] = cell;
+        }
+        return moveCount;
+    }
+}
@@ -0,0 +1,67 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BoardTest: checks that the hash and score kept up to date by makeMove, makePass and
+ * unmakeMove match a board built from scratch at every position of random games
+ * @author Grace Bocek
+ */
+class BoardTest {
+    @Test
+    void makeAndUnmakeKeepHashAndScore() {
+        Random random = new Random(7);
+        int[] moves = new int[64];
+        for (int game = 0; game < 200; game++) {
+            Board board = new Board(game % 2 == 0);
+            long[] hashes = new long[128];
+            int[] scores = new int[128];
+            String[] positions = new String[128];
+            int plies = 0;
+            while (true) {
+                Board fresh = new Board(board.toPositionString());
+                assertEquals(fresh.getHash(), board.getHash(), "hash after " + plies + " moves");
+                assertEquals(fresh.getComputerScore(), board.getComputerScore(), "score after " + plies + " moves");
+                hashes[plies] = board.getHash();
+                scores[plies] = board.getComputerScore();
+                positions[plies] = board.toPositionString();
+                int moveCount = board.getValidMoves(moves);
+                if (moveCount > 0) {
+                    board.makeMove(moves[random.nextInt(moveCount)]);
+                }
+                else {
+                    board.makePass();
+                    if (board.getValidMoves(moves) == 0) {
+                        //neither player can move, so the game is over
+                        board.unmakeMove();
+                        break;
+                    }
+                }
+                plies++;
+            }
+            for (int i = plies - 1; i >= 0; i--) {
+                board.unmakeMove();
+                assertEquals(hashes[i], board.getHash(), "hash after taking back to move " + i);
+                assertEquals(scores[i], board.getComputerScore(), "score after taking back to move " + i);
+                assertEquals(positions[i], board.toPositionString());
+            }
+        }
+    }
+
+    @Test
+    void copyHasTheSameHashAndScore() {
+        Board board = new Board(false);
+        int[] moves = new int[64];
+        Random random = new Random(3);
+        for (int i = 0; i < 20; i++) {
+            board.makeMove(moves[random.nextInt(board.getValidMoves(moves))]);
+        }
+        Board copy = new Board(board);
+        assertEquals(board.getHash(), copy.getHash());
+        assertEquals(board.getComputerScore(), copy.getComputerScore());
+        assertEquals(board.toPositionString(), copy.toPositionString());
+    }
+}
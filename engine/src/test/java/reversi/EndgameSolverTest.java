@@ -0,0 +1,143 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * EndgameSolverTest: checks the endgame solver against a plain minimax over every move
+ * on positions from random games with 10 or fewer empty cells
+ * @author Grace Bocek
+ */
+class EndgameSolverTest {
+    @Test
+    void solverMatchesBruteForce() {
+        Random random = new Random(11);
+        SearchLimits limits = new SearchLimits();
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(16), limits);
+        for (int i = 0; i < 40; i++) {
+            long[] position = randomPosition(random, 6 + i % 5);
+            long player = position[0];
+            long opponent = position[1];
+            int expected = bruteForce(player, opponent, false);
+            limits.start(0, 0);
+            assertEquals(expected, solver.solve(player, opponent, EndgameSolver.exact), "position " + i);
+            limits.start(0, 0);
+            int sign = Integer.signum(solver.solve(player, opponent, EndgameSolver.winLossDraw));
+            assertEquals(Integer.signum(expected), sign, "win, loss or draw of position " + i);
+        }
+    }
+
+    @Test
+    void rootMoveHasTheBestScore() {
+        Random random = new Random(5);
+        SearchLimits limits = new SearchLimits();
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(16), limits);
+        for (int i = 0; i < 20; i++) {
+            long[] position = randomPosition(random, 8 + i % 3);
+            long player = position[0];
+            long opponent = position[1];
+            long moveMask = Board.moveMask(player, opponent);
+            if (moveMask == 0) {
+                continue;
+            }
+            int[] rootMoves = new int[Long.bitCount(moveMask)];
+            for (int j = 0; j < rootMoves.length; j++) {
+                rootMoves[j] = Long.numberOfTrailingZeros(moveMask);
+                moveMask &= moveMask - 1;
+            }
+            //black is the player to move
+            Board board = new Board(toPositionString(player, opponent));
+            limits.start(0, 0);
+            int best = rootMoves[solver.solveRoot(board, rootMoves, EndgameSolver.exact)];
+            long moveBit = 1L << best;
+            long flips = Board.flipMask(player, opponent, moveBit);
+            int expected = bruteForce(player, opponent, false);
+            assertEquals(expected, solver.getLastScore(), "score of position " + i);
+            assertEquals(expected, -bruteForce(opponent ^ flips, player | moveBit | flips, false),
+                    "move " + Move.of(best) + " of position " + i);
+        }
+    }
+
+    /**
+     * plays random moves from the start until only a few empty cells are left
+     * @param random random moves (Random)
+     * @param empties number of empty cells to stop at (int)
+     * @return discs of the player to move and of the opponent (long[])
+     */
+    private static long[] randomPosition(Random random, int empties) {
+        while (true) {
+            long player = 0x0000000810000000L;
+            long opponent = 0x0000001008000000L;
+            boolean passed = false;
+            while (64 - Long.bitCount(player | opponent) > empties) {
+                long moves = Board.moveMask(player, opponent);
+                if (moves == 0) {
+                    if (passed) {
+                        break;
+                    }
+                    passed = true;
+                    long temp = player;
+                    player = opponent;
+                    opponent = temp;
+                    continue;
+                }
+                passed = false;
+                for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+                    moves &= moves - 1;
+                }
+                long moveBit = Long.lowestOneBit(moves);
+                long flips = Board.flipMask(player, opponent, moveBit);
+                long next = opponent ^ flips;
+                opponent = player | moveBit | flips;
+                player = next;
+            }
+            if (64 - Long.bitCount(player | opponent) == empties) {
+                return new long[]{player, opponent};
+            }
+        }
+    }
+
+    /**
+     * finds the final disc difference for the player to move by trying every move. The
+     * empty cells left at the end go to the winner
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param passed whether the opponent just skipped a turn (bool)
+     * @return final disc difference for the player to move (int)
+     */
+    private static int bruteForce(long player, long opponent, boolean passed) {
+        long moves = Board.moveMask(player, opponent);
+        if (moves == 0) {
+            if (passed) {
+                int score = Long.bitCount(player) - Long.bitCount(opponent);
+                int empties = 64 - Long.bitCount(player | opponent);
+                return score > 0 ? score + empties : score < 0 ? score - empties : 0;
+            }
+            return -bruteForce(opponent, player, true);
+        }
+        int best = -EndgameSolver.maxScore;
+        while (moves != 0) {
+            long moveBit = Long.lowestOneBit(moves);
+            long flips = Board.flipMask(player, opponent, moveBit);
+            best = Math.max(best, -bruteForce(opponent ^ flips, player | moveBit | flips, false));
+            moves &= moves - 1;
+        }
+        return best;
+    }
+
+    /**
+     * writes a position with black to move as a position string
+     * @param black discs of black (long)
+     * @param white discs of white (long)
+     * @return position string (String)
+     */
+    private static String toPositionString(long black, long white) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            out.append((black & 1L << i) != 0 ? 'X' : (white & 1L << i) != 0 ? 'O' : '-');
+        }
+        return out.append(" X").toString();
+    }
+}
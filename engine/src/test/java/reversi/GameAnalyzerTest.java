@@ -0,0 +1,69 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * GameAnalyzerTest: checks that a run resumed from a checkpoint, after being cut off
+ * partway through a game, writes the same annotations as a run that wasn't interrupted
+ * @author Grace Bocek
+ */
+class GameAnalyzerTest {
+    private static final int games = 6;
+    //only the opening of each game is kept, so no position is left to the endgame solver
+    private static final int plies = 16;
+
+    @Test
+    void resumedRunWritesTheSameAnnotations() throws Exception {
+        File records = File.createTempFile("games", ".rec");
+        records.deleteOnExit();
+        Random random = new Random(53);
+        try (GameRecordWriter writer = new GameRecordWriter(records.getPath())) {
+            for (int game = 0; game < games; game++) {
+                Board board = new Board(game % 2 == 0);
+                byte[] moves = GameRecordTest.playRandomGame(board, random);
+                int[] count = board.count();
+                writer.writeGame(game % 2 == 0, 0, 0, 0, moves, plies, count[1], count[0]);
+            }
+        }
+        String[] gameFiles = {records.getPath()};
+        Path full = tempFile("full");
+        GameAnalyzer analyzer = new GameAnalyzer(2, 0, 1);
+        assertEquals(games, analyzer.analyze(gameFiles, full.toString(), null, 2, 3));
+        String annotations = new String(Files.readAllBytes(full), StandardCharsets.US_ASCII);
+        assertEquals(1 + games * plies, annotations.split("\n").length);
+
+        //a run stopped in game 3: the checkpoint is at the end of game 2, and half a line of game 3 was written
+        int finished = 3;
+        int end = annotations.indexOf("\n" + finished + ",") + 1;
+        Path resumed = tempFile("resumed");
+        Files.write(resumed, annotations.substring(0, end + 10).getBytes(StandardCharsets.US_ASCII));
+        Path checkpoint = tempFile("checkpoint");
+        Files.write(checkpoint, (finished + " " + end + "\n").getBytes(StandardCharsets.US_ASCII));
+        analyzer = new GameAnalyzer(2, 0, 1);
+        assertEquals(games - finished, analyzer.analyze(gameFiles, resumed.toString(), checkpoint.toString(), 2, 3));
+        assertEquals((games - finished) * plies, analyzer.getPositions());
+        assertEquals(annotations, new String(Files.readAllBytes(resumed), StandardCharsets.US_ASCII));
+        assertEquals(games + " " + annotations.length(),
+                new String(Files.readAllBytes(checkpoint), StandardCharsets.US_ASCII).trim());
+    }
+
+    /**
+     * makes an empty temporary file that is deleted when the tests finish
+     * @param name start of the file name (String)
+     * @return path of the file (Path)
+     * @throws IOException if the file can't be made
+     */
+    private static Path tempFile(String name) throws IOException {
+        File file = File.createTempFile(name, ".tmp");
+        file.deleteOnExit();
+        return file.toPath();
+    }
+}
@@ -0,0 +1,163 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * GameRecordTest: writes random games to a game record file, both whole and one move at
+ * a time, and checks that the reader gives back every game as it was written, including
+ * after a game cut short at the end of the file
+ * @author Grace Bocek
+ */
+class GameRecordTest {
+    private static final int games = 50;
+
+    @Test
+    void gamesReadBackAsWritten() throws IOException {
+        File file = File.createTempFile("games", ".rec");
+        file.deleteOnExit();
+        Random random = new Random(2);
+        byte[][] moves = new byte[games][];
+        int[][] counts = new int[games][];
+        try (GameRecordWriter writer = new GameRecordWriter(file.getPath())) {
+            for (int game = 0; game < games; game++) {
+                Board board = new Board(game % 2 == 0);
+                moves[game] = playRandomGame(board, random);
+                counts[game] = board.count();
+                if (game % 3 == 0) {
+                    writer.startGame(game % 2 == 0, game % 5, game % 7, 1000 + game);
+                    for (byte move : moves[game]) {
+                        writer.writeMove(move);
+                    }
+                    writer.endGame(counts[game][1], counts[game][0]);
+                }
+                else {
+                    writer.writeGame(game % 2 == 0, game % 5, game % 7, 1000 + game, moves[game], moves[game].length,
+                            counts[game][1], counts[game][0]);
+                }
+            }
+        }
+        try (GameRecordReader reader = new GameRecordReader(file.getPath())) {
+            for (int game = 0; game < games; game++) {
+                assertTrue(reader.next(), "game " + game);
+                assertEquals(game % 2 == 0, reader.getUserFirst());
+                assertEquals(game % 5, reader.getBlackDepth());
+                assertEquals(game % 7, reader.getWhiteDepth());
+                assertEquals(1000 + game, reader.getMoveTimeLimit());
+                assertEquals(moves[game].length, reader.getMoveCount());
+                for (int i = 0; i < moves[game].length; i++) {
+                    assertEquals(moves[game][i], reader.getMove(i), "move " + i + " of game " + game);
+                }
+                assertEquals(counts[game][1], reader.getBlackCount());
+                assertEquals(counts[game][0], reader.getWhiteCount());
+                Board replayed = reader.replay(reader.getMoveCount());
+                assertEquals(counts[game][0], replayed.count()[0]);
+                assertEquals(counts[game][1], replayed.count()[1]);
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void gameCutShortIsRemovedBeforeAppending() throws IOException {
+        File file = File.createTempFile("games", ".rec");
+        file.deleteOnExit();
+        Random random = new Random(4);
+        byte[] first = playRandomGame(new Board(true), random);
+        byte[] second = playRandomGame(new Board(false), random);
+        //header bytes of 0xFF (depth 255, a time limit of 65535) don't confuse the reader
+        try (GameRecordWriter writer = new GameRecordWriter(file.getPath())) {
+            writer.writeGame(true, 255, 255, 65535, first, first.length, 40, 24);
+            writer.writeGame(false, 3, 4, 0, second, second.length, 30, 34);
+        }
+        //a crash partway through writing the second game
+        long cut = file.length() - 10;
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(cut);
+        }
+        byte[] third = playRandomGame(new Board(false), random);
+        try (GameRecordWriter writer = new GameRecordWriter(file.getPath())) {
+            writer.writeGame(false, 5, 6, 100, third, third.length, 20, 44);
+        }
+        try (GameRecordReader reader = new GameRecordReader(file.getPath())) {
+            assertTrue(reader.next());
+            assertEquals(255, reader.getBlackDepth());
+            assertEquals(65535, reader.getMoveTimeLimit());
+            assertEquals(first.length, reader.getMoveCount());
+            assertTrue(reader.next());
+            assertEquals(5, reader.getBlackDepth());
+            assertEquals(third.length, reader.getMoveCount());
+            for (int i = 0; i < third.length; i++) {
+                assertEquals(third[i], reader.getMove(i));
+            }
+            assertEquals(44, reader.getWhiteCount());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void abortedGameIsNotWritten() throws IOException {
+        File file = File.createTempFile("games", ".rec");
+        file.deleteOnExit();
+        byte[] moves = playRandomGame(new Board(false), new Random(6));
+        try (GameRecordWriter writer = new GameRecordWriter(file.getPath())) {
+            writer.startGame(true, 1, 0, 0);
+            writer.writeMove(19);
+            writer.abortGame();
+            assertFalse(writer.isInGame());
+            writer.startGame(false, 2, 0, 0);
+            for (byte move : moves) {
+                writer.writeMove(move);
+            }
+            writer.endGame(33, 31);
+        }
+        try (GameRecordReader reader = new GameRecordReader(file.getPath())) {
+            assertTrue(reader.next());
+            assertEquals(2, reader.getBlackDepth());
+            assertEquals(moves.length, reader.getMoveCount());
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * plays random moves until neither player can move
+     * @param board board to play on (Board)
+     * @param random random moves (Random)
+     * @return cells of the moves, or GameRecordWriter.pass for skipped turns (byte[])
+     */
+    static byte[] playRandomGame(Board board, Random random) {
+        byte[] moves = new byte[GameRecordWriter.maxMoves];
+        int moveCount = 0;
+        int[] valid = new int[64];
+        boolean lastPlayerSkipped = false;
+        while (true) {
+            int validCount = board.getValidMoves(valid);
+            if (validCount == 0) {
+                if (lastPlayerSkipped) {
+                    //the second skip isn't recorded; the game is just over
+                    moveCount--;
+                    board.switchTurn();
+                    break;
+                }
+                board.switchTurn();
+                moves[moveCount++] = GameRecordWriter.pass;
+                lastPlayerSkipped = true;
+                continue;
+            }
+            lastPlayerSkipped = false;
+            int square = valid[random.nextInt(validCount)];
+            board.updateBoard(Move.of(square));
+            moves[moveCount++] = (byte) square;
+        }
+        byte[] out = new byte[moveCount];
+        System.arraycopy(moves, 0, out, 0, moveCount);
+        return out;
+    }
+}
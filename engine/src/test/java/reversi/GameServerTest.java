@@ -0,0 +1,89 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * GameServerTest: plays a whole game against a server over a socket, checking the replies
+ * to good and bad commands, and that the finished game is recorded as it was played
+ * @author Grace Bocek
+ */
+class GameServerTest {
+
+    @Test
+    void sessionPlaysAGameAndRecordsIt() throws IOException {
+        File file = File.createTempFile("games", ".rec");
+        file.deleteOnExit();
+        GameServer server = new GameServer(0, 2, 16, 20, 1);
+        GameRecordWriter recorder = new GameRecordWriter(file.getPath());
+        server.setGameRecorder(recorder);
+        new Thread(server::serve).start();
+        String position;
+        try (Socket socket = new Socket("localhost", server.getPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+            assertEquals("ERR no game; send NEW first", send(in, out, "BOARD"));
+            //the computer moves first, so the reply has its move
+            String[] reply = send(in, out, "NEW second 5").split(" ");
+            assertEquals("OK", reply[0]);
+            assertNotEquals("-", reply[1]);
+            assertEquals("play", reply[4]);
+            assertEquals("ERR 1-a isn't a valid move", send(in, out, "MOVE 1-a"));
+            assertEquals("ERR unknown command JUMP", send(in, out, "JUMP"));
+            assertEquals("OK - " + reply[2] + " " + reply[3] + " play", send(in, out, "BOARD"));
+            Random random = new Random(47);
+            int[] moves = new int[64];
+            while (reply[4].equals("play")) {
+                Board board = new Board(reply[2] + " " + reply[3]);
+                assertTrue(board.getUsersTurn(), "the user should be to move");
+                int moveCount = board.getValidMoves(moves);
+                Move move = Move.of(moves[random.nextInt(moveCount)]);
+                reply = send(in, out, "MOVE " + move).split(" ");
+                assertEquals("OK", reply[0], String.join(" ", reply));
+            }
+            position = reply[2];
+            assertEquals("ERR not your turn", send(in, out, "MOVE 4-c"));
+            assertEquals("BYE", send(in, out, "QUIT"));
+        }
+        finally {
+            server.close();
+        }
+        recorder.close();
+        try (GameRecordReader reader = new GameRecordReader(file.getPath())) {
+            assertTrue(reader.next());
+            assertFalse(reader.getUserFirst());
+            assertEquals(5, reader.getMoveTimeLimit());
+            Board replayed = reader.replay(reader.getMoveCount());
+            assertEquals(position, replayed.toPositionString().substring(0, 64));
+            int[] count = replayed.count();
+            assertEquals(count[1], reader.getBlackCount());
+            assertEquals(count[0], reader.getWhiteCount());
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * sends a command to the server and reads its reply
+     * @param in reader for the server's replies (BufferedReader)
+     * @param out writer for commands (PrintWriter)
+     * @param command command line (String)
+     * @return reply line (String)
+     * @throws IOException if the connection fails
+     */
+    private static String send(BufferedReader in, PrintWriter out, String command) throws IOException {
+        out.println(command);
+        return in.readLine();
+    }
+}
@@ -0,0 +1,94 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * OpeningBookTest: writes opening books to temporary files and checks that every position
+ * is found with its move and score, and that the computer plays book moves in every
+ * rotation and reflection of a book position
+ * @author Grace Bocek
+ */
+class OpeningBookTest {
+    @Test
+    void writtenPositionsAreFound() throws IOException {
+        Random random = new Random(9);
+        int count = 1000;
+        long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            hashes[i] = random.nextLong();
+        }
+        Arrays.sort(hashes);
+        int[] moves = new int[count];
+        int[] scores = new int[count];
+        for (int i = 0; i < count; i++) {
+            moves[i] = random.nextInt(64);
+            scores[i] = random.nextInt(2001) - 1000;
+        }
+        File file = File.createTempFile("book", ".bin");
+        file.deleteOnExit();
+        OpeningBook.write(file.getPath(), hashes, moves, scores, count);
+        OpeningBook book = new OpeningBook(file.getPath());
+        assertEquals(count, book.size());
+        for (int i = 0; i < count; i++) {
+            int entry = book.find(hashes[i]);
+            assertEquals(i, entry);
+            assertEquals(moves[i], book.getMove(entry));
+            assertEquals(scores[i], book.getScore(entry));
+        }
+        for (int i = 0; i < 1000; i++) {
+            long hash = random.nextLong();
+            if (Arrays.binarySearch(hashes, hash) < 0) {
+                assertEquals(-1, book.find(hash));
+            }
+        }
+    }
+
+    @Test
+    void bookMovesAreTurnedBack() throws IOException {
+        //black's reply to white's first move, stored in the canonical orientation
+        Board position = new Board(true);
+        int[] firstMoves = new int[64];
+        int firstMoveCount = position.getValidMoves(firstMoves);
+        position.updateBoard(Move.of(firstMoves[0]));
+        int[] replies = new int[64];
+        int reply = replies[position.getValidMoves(replies) - 1];
+        File file = File.createTempFile("book", ".bin");
+        file.deleteOnExit();
+        OpeningBook.write(file.getPath(), new long[]{position.getCanonicalHash()},
+                new int[]{Symmetry.transformSquare(reply, position.getSymmetry())}, new int[]{7}, 1);
+        Reversi reversi = new Reversi(false, 1);
+        reversi.setOpeningBook(new OpeningBook(file.getPath()));
+        //the 4 first moves all give the same position turned or reflected
+        assertEquals(4, firstMoveCount);
+        for (int i = 0; i < firstMoveCount; i++) {
+            Board board = new Board(true);
+            board.updateBoard(Move.of(firstMoves[i]));
+            int symmetry = findSymmetry(position, board);
+            Move move = reversi.findBestMove(board);
+            assertEquals(Symmetry.transformSquare(reply, symmetry), move.getSquare(), "after " + Move.of(firstMoves[i]));
+            assertEquals(7, reversi.getLastScore());
+        }
+    }
+
+    /**
+     * finds the symmetry that turns one position into another
+     * @param from position to turn (Board)
+     * @param to turned position (Board)
+     * @return symmetry, 0-7 (int)
+     */
+    private static int findSymmetry(Board from, Board to) {
+        for (int symmetry = 0; symmetry < Symmetry.count; symmetry++) {
+            if (Symmetry.transform(from.getBlackDiscs(), symmetry) == to.getBlackDiscs()
+                    && Symmetry.transform(from.getWhiteDiscs(), symmetry) == to.getWhiteDiscs()) {
+                return symmetry;
+            }
+        }
+        throw new IllegalStateException("positions aren't symmetric");
+    }
+}
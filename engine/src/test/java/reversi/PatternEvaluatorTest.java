@@ -0,0 +1,152 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * PatternEvaluatorTest: checks the pattern indices against a slow version that reads
+ * every pattern cell by cell, and the evaluation against the weights those indices pick
+ * @author Grace Bocek
+ */
+class PatternEvaluatorTest {
+
+    @Test
+    void indicesMatchCellByCellReading() {
+        Random random = new Random(59);
+        int[] indices = new int[PatternEvaluator.featureCount];
+        for (int i = 0; i < 2000; i++) {
+            long player = random.nextLong();
+            long opponent = random.nextLong() & ~player;
+            PatternEvaluator.patterns(player, opponent, null, indices);
+            assertArrayEquals(slowIndices(player, opponent), indices, "position " + i);
+        }
+    }
+
+    @Test
+    void evaluationAddsUpThePatternWeights() {
+        Random random = new Random(61);
+        short[][] weights = new short[3][PatternEvaluator.stageWeights];
+        for (short[] stage : weights) {
+            for (int i = 0; i < stage.length; i++) {
+                stage[i] = (short) (random.nextInt(201) - 100);
+            }
+        }
+        PatternEvaluator evaluator = new PatternEvaluator(weights);
+        int[] moves = new int[64];
+        for (int game = 0; game < 20; game++) {
+            Board board = new Board(game % 2 == 0);
+            while (!board.gameOver()) {
+                long player = board.getUsersTurn() ? board.getWhiteDiscs() : board.getBlackDiscs();
+                long opponent = board.getUsersTurn() ? board.getBlackDiscs() : board.getWhiteDiscs();
+                short[] stage = weights[PatternEvaluator.stageOf(Long.bitCount(player | opponent), weights.length)];
+                int sum = stage[PatternEvaluator.biasIdx]
+                        + stage[PatternEvaluator.mobilityIdx] * PatternEvaluator.mobility(player, opponent)
+                        + stage[PatternEvaluator.frontierIdx] * PatternEvaluator.frontier(player, opponent);
+                for (int idx : slowIndices(player, opponent)) {
+                    sum += stage[idx];
+                }
+                int expected = Math.max(-64, Math.min(64,
+                        Math.floorDiv(sum + PatternEvaluator.unitsPerDisc / 2, PatternEvaluator.unitsPerDisc)));
+                assertEquals(expected, evaluator.evaluate(player, opponent), board.toPositionString());
+                int moveCount = board.getValidMoves(moves);
+                if (moveCount == 0) {
+                    board.makePass();
+                    if (board.getValidMoves(moves) == 0) {
+                        break;
+                    }
+                    continue;
+                }
+                board.makeMove(moves[random.nextInt(moveCount)]);
+            }
+        }
+    }
+
+    /**
+     * finds the weight index of every pattern by reading its cells one at a time, in the
+     * same order PatternEvaluator.patterns does: for each of the 4 orientations that put a
+     * corner at a1, the 3x3 corner, the 4 short diagonals, then the top edge and left edge
+     * (orientations 0 and 3) and the long diagonal (orientations 0 and 2)
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @return the featureCount indices (int[])
+     */
+    private static int[] slowIndices(long player, long opponent) {
+        int[] indices = new int[PatternEvaluator.featureCount];
+        int n = 0;
+        for (int orientation = 0; orientation < 4; orientation++) {
+            int[] cells = new int[9];
+            for (int j = 0; j < 9; j++) {
+                cells[j] = cell(j / 3, j % 3, orientation);
+            }
+            indices[n++] = PatternEvaluator.cornerOffset + index(player, opponent, cells);
+            for (int k = 1; k < 5; k++) {
+                indices[n++] = PatternEvaluator.diagonalOffsets[k] + index(player, opponent, diagonal(k, orientation));
+            }
+            if (orientation == 0 || orientation == 3) {
+                int[] top = new int[8];
+                int[] left = new int[8];
+                for (int j = 0; j < 8; j++) {
+                    top[j] = cell(0, j, orientation);
+                    left[j] = cell(j, 0, orientation);
+                }
+                indices[n++] = PatternEvaluator.edgeOffset + index(player, opponent, top);
+                indices[n++] = PatternEvaluator.edgeOffset + index(player, opponent, left);
+            }
+            if (orientation == 0 || orientation == 2) {
+                indices[n++] = PatternEvaluator.diagonalOffsets[0] + index(player, opponent, diagonal(0, orientation));
+            }
+        }
+        assertEquals(PatternEvaluator.featureCount, n);
+        return indices;
+    }
+
+    /**
+     * finds the cells of a diagonal parallel to a1-h8, top to bottom
+     * @param k how many cells right of a1-h8 the diagonal is (int)
+     * @param orientation 0 as is, 1 flipped top to bottom, 2 flipped left to right, 3 both (int)
+     * @return cell numbers (int[])
+     */
+    private static int[] diagonal(int k, int orientation) {
+        int[] cells = new int[8 - k];
+        for (int r = 0; r < cells.length; r++) {
+            cells[r] = cell(r, r + k, orientation);
+        }
+        return cells;
+    }
+
+    /**
+     * finds the cell that is at a row and column once the board is turned
+     * @param row row on the turned board (int)
+     * @param col column on the turned board (int)
+     * @param orientation 0 as is, 1 flipped top to bottom, 2 flipped left to right, 3 both (int)
+     * @return cell number on the real board (int)
+     */
+    private static int cell(int row, int col, int orientation) {
+        if ((orientation & 1) != 0) {
+            row = 7 - row;
+        }
+        if ((orientation & 2) != 0) {
+            col = 7 - col;
+        }
+        return row * 8 + col;
+    }
+
+    /**
+     * reads cells as a base-3 number, the first cell lowest: 0 empty, 1 player, 2 opponent
+     * @param player discs of the player to move (long)
+     * @param opponent discs of the opponent (long)
+     * @param cells cell numbers (int[])
+     * @return index (int)
+     */
+    private static int index(long player, long opponent, int[] cells) {
+        int index = 0;
+        for (int j = cells.length - 1; j >= 0; j--) {
+            int digit = (player >>> cells[j] & 1) != 0 ? 1 : (opponent >>> cells[j] & 1) != 0 ? 2 : 0;
+            index = index * 3 + digit;
+        }
+        return index;
+    }
+}
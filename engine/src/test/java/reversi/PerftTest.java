@@ -0,0 +1,38 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * PerftTest: checks move generation against the known number of positions reachable
+ * from the start
+ * @author Grace Bocek
+ */
+class PerftTest {
+    //positions reachable from the start in 0-9 moves
+    private static final long[] startCounts = {1, 4, 12, 56, 244, 1396, 8200, 55092, 390216, 3005288};
+
+    @Test
+    void countsFromTheStart() {
+        Perft perft = new Perft(0, false);
+        for (int depth = 1; depth <= 9; depth++) {
+            assertEquals(startCounts[depth], perft.count(new Board(false), depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    void tableGivesTheSameCounts() {
+        Perft perft = new Perft(16, false);
+        for (int depth = 1; depth <= 9; depth++) {
+            assertEquals(startCounts[depth], perft.count(new Board(false), depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    void movesMatchTheRayWalkingGenerator() {
+        //verify throws if any position's moves or flips differ from the simple generator
+        Perft perft = new Perft(0, true);
+        assertEquals(startCounts[6], perft.count(new Board(false), 6));
+    }
+}
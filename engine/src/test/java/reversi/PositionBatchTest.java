@@ -0,0 +1,102 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * PositionBatchTest: checks every batch operation against Board and PatternEvaluator one
+ * position at a time. The build runs it once with the Vector API and once with
+ * reversi.scalar set, so both paths have to give the scalar results
+ * @author Grace Bocek
+ */
+class PositionBatchTest {
+    //not a multiple of any vector length, so the scalar loop after the vectors runs too
+    private static final int positionCount = 1003;
+    private long[] players = new long[positionCount];
+    private long[] opponents = new long[positionCount];
+    private int[] squares = new int[positionCount];
+
+    /**
+     * fills the batch with positions from random games, with a random cell in each
+     */
+    PositionBatchTest() {
+        Random random = new Random(1);
+        int[] valid = new int[64];
+        int n = 0;
+        while (n < positionCount) {
+            Board board = new Board(false);
+            int moveCount = board.getValidMoves(valid);
+            while (moveCount > 0 && n < positionCount) {
+                players[n] = board.getUsersTurn() ? board.getWhiteDiscs() : board.getBlackDiscs();
+                opponents[n] = board.getUsersTurn() ? board.getBlackDiscs() : board.getWhiteDiscs();
+                //any cell, so occupied cells and cells that aren't moves are checked too
+                squares[n] = random.nextInt(64);
+                n++;
+                board.makeMove(valid[random.nextInt(moveCount)]);
+                moveCount = board.getValidMoves(valid);
+            }
+        }
+    }
+
+    @Test
+    void scalarWhenTurnedOff() {
+        if (Boolean.getBoolean("reversi.scalar")) {
+            assertFalse(PositionBatch.isVectorized());
+        }
+    }
+
+    @Test
+    void moveMasksMatchBoard() {
+        long[] expected = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            expected[i] = Board.moveMask(players[i], opponents[i]);
+        }
+        long[] moves = new long[positionCount];
+        PositionBatch.moveMasks(players, opponents, moves, positionCount);
+        assertArrayEquals(expected, moves);
+    }
+
+    @Test
+    void flipCountsMatchBoard() {
+        int[] expected = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            long moveBit = 1L << squares[i];
+            if (((players[i] | opponents[i]) & moveBit) == 0) {
+                expected[i] = Long.bitCount(Board.flipMask(players[i], opponents[i], moveBit));
+            }
+        }
+        int[] flips = new int[positionCount];
+        PositionBatch.flipCounts(players, opponents, squares, flips, positionCount);
+        assertArrayEquals(expected, flips);
+    }
+
+    @Test
+    void mobilityAndFrontierMatchPatternEvaluator() {
+        int[] expectedMobility = new int[positionCount];
+        int[] expectedFrontier = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            expectedMobility[i] = PatternEvaluator.mobility(players[i], opponents[i]);
+            expectedFrontier[i] = PatternEvaluator.frontier(players[i], opponents[i]);
+        }
+        int[] mobility = new int[positionCount];
+        int[] frontier = new int[positionCount];
+        PositionBatch.mobilityAndFrontier(players, opponents, mobility, frontier, positionCount);
+        assertArrayEquals(expectedMobility, mobility);
+        assertArrayEquals(expectedFrontier, frontier);
+    }
+
+    @Test
+    void evaluationsMatchPatternEvaluator() {
+        PatternEvaluator evaluator = PatternEvaluator.getDefault();
+        int[] expected = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            expected[i] = evaluator.evaluate(players[i], opponents[i]);
+        }
+        int[] scores = new int[positionCount];
+        PositionBatch.evaluate(evaluator, players, opponents, scores, positionCount);
+        assertArrayEquals(expected, scores);
+    }
+}
@@ -0,0 +1,236 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ReversiTest: checks that a search stopped partway through an iteration plays the move
+ * of the last depth it finished, the same move a search limited to that depth plays, that
+ * the built-in ProbCut statistics are only used with the evaluator they fit, that root
+ * splitting finds the same moves and scores with one thread as with several, that Lazy
+ * SMP finds the same exact scores as one thread near the end of the game, and that
+ * principal variation search finds the same moves and scores as alpha-beta
+ * @author Grace Bocek
+ */
+class ReversiTest {
+    private static final long seed = 17;
+
+    @Test
+    void stoppedSearchPlaysTheLastCompletedDepthsMove() {
+        Random random = new Random(13);
+        int[] moves = new int[64];
+        int checked = 0;
+        for (int game = 0; game < 12; game++) {
+            Board position = new Board(game % 2 == 0);
+            for (int ply = 0; ply < 10 + game; ply++) {
+                position.makeMove(moves[random.nextInt(position.getValidMoves(moves))]);
+            }
+            for (long nodeLimit = 1000; nodeLimit <= 64000; nodeLimit *= 4) {
+                Reversi stopped = newEngine();
+                stopped.setNodeLimit(nodeLimit);
+                Move move = stopped.findBestMove(new Board(position.toPositionString()));
+                int depth = stopped.getStatistics().getDepth();
+                if (depth == 0) {
+                    continue;
+                }
+                Reversi fixed = newEngine();
+                fixed.setMaxDepth(depth);
+                Move expected = fixed.findBestMove(new Board(position.toPositionString()));
+                assertEquals(expected.getSquare(), move.getSquare(),
+                        "game " + game + " stopped after " + nodeLimit + " nodes at depth " + depth);
+                checked++;
+            }
+        }
+        assertTrue(checked > 20, "too few searches finished a depth");
+    }
+
+    @Test
+    void builtInProbCutOnlyPrunesWithTheBuiltInEvaluator() {
+        Board position = new Board(false);
+        int[] moves = new int[64];
+        Random random = new Random(19);
+        for (int ply = 0; ply < 16; ply++) {
+            position.makeMove(moves[random.nextInt(position.getValidMoves(moves))]);
+        }
+        long fullWidth = nodesAtDepth(position, null, true, 8);
+        assertEquals(fullWidth, nodesAtDepth(position, ProbCut.getDefault(), true, 8));
+        //the other order, with the statistics the engine starts with
+        Reversi reversi = newEngine();
+        reversi.setMaxDepth(8);
+        reversi.setEvaluator(null);
+        reversi.findBestMove(new Board(position.toPositionString()));
+        assertEquals(fullWidth, reversi.getNodesSearched());
+        assertTrue(nodesAtDepth(position, ProbCut.getDefault(), false, 8) < nodesAtDepth(position, null, false, 8),
+                "the built-in statistics prune with the built-in evaluator");
+    }
+
+    @Test
+    void rootSplittingDoesNotDependOnTheNumberOfThreads() {
+        Random random = new Random(23);
+        int[] moves = new int[64];
+        for (int game = 0; game < 3; game++) {
+            Reversi single = newEngine();
+            Reversi parallel = newEngine();
+            parallel.setThreads(4);
+            single.setMaxDepth(7);
+            parallel.setMaxDepth(7);
+            Board position = new Board(false);
+            //both engines play the same game, so what they keep between moves is checked too
+            while (!position.gameOver() && Long.bitCount(position.getBlackDiscs() | position.getWhiteDiscs()) < 40) {
+                int moveCount = position.getValidMoves(moves);
+                if (moveCount == 0) {
+                    position.makePass();
+                    continue;
+                }
+                if (position.getUsersTurn()) {
+                    position.makeMove(moves[random.nextInt(moveCount)]);
+                    continue;
+                }
+                Move expected = single.findBestMove(new Board(position.toPositionString()));
+                Move move = parallel.findBestMove(new Board(position.toPositionString()));
+                String where = "game " + game + " at " + position.toPositionString();
+                assertEquals(expected.getSquare(), move.getSquare(), where);
+                assertEquals(single.getLastScore(), parallel.getLastScore(), where);
+                position.makeMove(expected.getSquare());
+            }
+        }
+    }
+
+    @Test
+    void lazySmpFindsTheSameExactScoresAsOneThread() {
+        Random random = new Random(29);
+        int[] moves = new int[64];
+        int checked = 0;
+        for (int game = 0; game < 6; game++) {
+            Board position = new Board(game % 2 == 0);
+            while (Long.bitCount(position.getBlackDiscs() | position.getWhiteDiscs()) < 54 && !position.gameOver()) {
+                int moveCount = position.getValidMoves(moves);
+                if (moveCount == 0) {
+                    position.makePass();
+                }
+                else {
+                    position.makeMove(moves[random.nextInt(moveCount)]);
+                }
+            }
+            if (position.gameOver() || position.getValidMoves(moves) == 0) {
+                continue;
+            }
+            //deep enough to reach the end of every line, so there is only one right score
+            int expected = exactScore(position, newEndgameEngine());
+            Reversi lazy = newEndgameEngine();
+            lazy.setThreads(4);
+            lazy.setParallelMode(Reversi.lazySmp);
+            Move move = lazy.findBestMove(new Board(position.toPositionString()));
+            String where = "game " + game + " at " + position.toPositionString();
+            assertEquals(expected, lazy.getLastScore(), where);
+            //the move has to be worth that score too
+            Board next = new Board(position.toPositionString());
+            next.makeMove(move.getSquare());
+            if (next.getValidMoves(moves) != 0) {
+                assertEquals(-expected, exactScore(next, newEndgameEngine()), where + " after " + move);
+            }
+            checked++;
+        }
+        assertTrue(checked >= 4, "too few positions had a move to search");
+    }
+
+    @Test
+    void principalVariationSearchMatchesAlphaBeta() {
+        Random random = new Random(67);
+        int[] moves = new int[64];
+        int checked = 0;
+        for (int game = 0; game < 8; game++) {
+            Board position = new Board(game % 2 == 0);
+            for (int ply = 0; ply < 8 + 5 * game && !position.gameOver(); ply++) {
+                int moveCount = position.getValidMoves(moves);
+                if (moveCount == 0) {
+                    position.makePass();
+                }
+                else {
+                    position.makeMove(moves[random.nextInt(moveCount)]);
+                }
+            }
+            if (position.gameOver() || position.getValidMoves(moves) == 0) {
+                continue;
+            }
+            Reversi alphaBeta = newEngine();
+            Reversi principalVariation = newEngine();
+            alphaBeta.setSearchAlgorithm(Search.alphaBeta);
+            principalVariation.setSearchAlgorithm(Search.principalVariation);
+            //ProbCut only prunes in principal variation search, and the solver would answer for both
+            for (Reversi reversi : new Reversi[] {alphaBeta, principalVariation}) {
+                reversi.setProbCut(null);
+                reversi.setEndgameEmpties(0);
+                reversi.setMaxDepth(6);
+            }
+            Move expected = alphaBeta.findBestMove(new Board(position.toPositionString()));
+            Move move = principalVariation.findBestMove(new Board(position.toPositionString()));
+            String where = "game " + game + " at " + position.toPositionString();
+            assertEquals(expected.getSquare(), move.getSquare(), where);
+            assertEquals(alphaBeta.getLastScore(), principalVariation.getLastScore(), where);
+            checked++;
+        }
+        assertTrue(checked >= 6, "too few positions had a move to search");
+    }
+
+    /**
+     * makes a one-thread engine that searches to the end of the game with piece scores and
+     * without ProbCut or the endgame solver, so its scores are exact
+     * @return engine (Reversi)
+     */
+    private static Reversi newEndgameEngine() {
+        Reversi reversi = newEngine();
+        reversi.setEvaluator(null);
+        reversi.setProbCut(null);
+        reversi.setEndgameEmpties(0);
+        return reversi;
+    }
+
+    /**
+     * finds the exact score of a position near the end of the game
+     * @param position position with a valid move for the player to move (Board)
+     * @param reversi engine from newEndgameEngine (Reversi)
+     * @return score of the best move, for the player to move (int)
+     */
+    private static int exactScore(Board position, Reversi reversi) {
+        int empties = Board.cellCount - Long.bitCount(position.getBlackDiscs() | position.getWhiteDiscs());
+        //passes use up depth too
+        reversi.setMaxDepth(empties + 10);
+        reversi.findBestMove(new Board(position.toPositionString()));
+        return reversi.getLastScore();
+    }
+
+    /**
+     * counts the nodes a search to a fixed depth visits
+     * @param position position to search (Board)
+     * @param probCut ProbCut statistics to set, or null to turn ProbCut off (ProbCut)
+     * @param pieceScores whether to score positions by piece scores instead of the built-in weights (bool)
+     * @param depth search depth (int)
+     * @return nodes searched (long)
+     */
+    private static long nodesAtDepth(Board position, ProbCut probCut, boolean pieceScores, int depth) {
+        Reversi reversi = newEngine();
+        reversi.setMaxDepth(depth);
+        reversi.setProbCut(probCut);
+        if (pieceScores) {
+            reversi.setEvaluator(null);
+        }
+        reversi.findBestMove(new Board(position.toPositionString()));
+        return reversi.getNodesSearched();
+    }
+
+    /**
+     * makes an engine that searches one thread with no time limit, so only the node
+     * limit or the depth limit stops it
+     * @return engine (Reversi)
+     */
+    private static Reversi newEngine() {
+        Reversi reversi = new Reversi(false, 4);
+        reversi.setSeed(seed);
+        reversi.setMoveTimeLimit(0);
+        return reversi;
+    }
+}
@@ -0,0 +1,85 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SymmetryTest: checks that each symmetry is undone by its inverse, that cells turn the
+ * same way as bitboards, and that every rotation and reflection of a position gets the
+ * same canonical key and the same valid moves, turned
+ * @author Grace Bocek
+ */
+class SymmetryTest {
+
+    @Test
+    void inversesUndoEachSymmetry() {
+        Random random = new Random(41);
+        for (int i = 0; i < 100; i++) {
+            long discs = random.nextLong();
+            for (int symmetry = 0; symmetry < Symmetry.count; symmetry++) {
+                long transformed = Symmetry.transform(discs, symmetry);
+                assertEquals(discs, Symmetry.transform(transformed, Symmetry.inverse(symmetry)), "symmetry " + symmetry);
+                assertEquals(Long.bitCount(discs), Long.bitCount(transformed));
+            }
+        }
+    }
+
+    @Test
+    void cellsTurnWithTheBoard() {
+        for (int symmetry = 0; symmetry < Symmetry.count; symmetry++) {
+            long seen = 0;
+            for (int square = 0; square < 64; square++) {
+                int turned = Symmetry.transformSquare(square, symmetry);
+                assertEquals(Symmetry.transform(1L << square, symmetry), 1L << turned);
+                assertEquals(square, Symmetry.transformSquare(turned, Symmetry.inverse(symmetry)));
+                seen |= 1L << turned;
+            }
+            assertEquals(-1L, seen, "symmetry " + symmetry + " isn't one to one");
+            assertEquals(-1, Symmetry.transformSquare(-1, symmetry));
+        }
+    }
+
+    @Test
+    void symmetricPositionsShareAKeyAndTheirMoves() {
+        Random random = new Random(43);
+        int[] moves = new int[64];
+        for (int game = 0; game < 20; game++) {
+            Board board = new Board(game % 2 == 0);
+            for (int ply = 0; ply < 4 + game; ply++) {
+                int moveCount = board.getValidMoves(moves);
+                if (moveCount == 0) {
+                    break;
+                }
+                board.makeMove(moves[random.nextInt(moveCount)]);
+            }
+            long black = board.getBlackDiscs();
+            long white = board.getWhiteDiscs();
+            for (int symmetry = 0; symmetry < Symmetry.count; symmetry++) {
+                Board turned = turn(board, symmetry);
+                assertEquals(Symmetry.canonicalKey(black, white),
+                        Symmetry.canonicalKey(turned.getBlackDiscs(), turned.getWhiteDiscs()));
+                assertEquals(board.getCanonicalHash(), turned.getCanonicalHash());
+                assertEquals(Symmetry.transform(board.getValidMoveMask(), symmetry), turned.getValidMoveMask());
+            }
+        }
+    }
+
+    /**
+     * makes a board with a symmetry applied to another one
+     * @param board board to turn (Board)
+     * @param symmetry symmetry, 0-7 (int)
+     * @return turned board (Board)
+     */
+    private static Board turn(Board board, int symmetry) {
+        long black = Symmetry.transform(board.getBlackDiscs(), symmetry);
+        long white = Symmetry.transform(board.getWhiteDiscs(), symmetry);
+        StringBuilder position = new StringBuilder();
+        for (int square = 0; square < 64; square++) {
+            position.append((black >>> square & 1) != 0 ? 'X' : (white >>> square & 1) != 0 ? 'O' : '-');
+        }
+        position.append(board.getUsersTurn() ? " O" : " X");
+        return new Board(position.toString());
+    }
+}
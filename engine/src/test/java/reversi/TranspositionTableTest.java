@@ -0,0 +1,71 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * TranspositionTableTest: checks that entries read back as stored, that the deepest
+ * entry of a bucket is only kept over shallower ones during the search that stored it, and
+ * that parts of a table keep their entries apart until they're moved into another table
+ * @author Grace Bocek
+ */
+class TranspositionTableTest {
+    //the high half of a hash picks the bucket, so these all share one
+    private static final long bucket = 5L << 32;
+
+    @Test
+    void entriesReadBackAsStored() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(bucket | 1, 12, -345, TranspositionTable.lowerBound, 63);
+        long entry = table.probe(bucket | 1);
+        assertEquals(12, TranspositionTable.depthOf(entry));
+        assertEquals(-345, TranspositionTable.scoreOf(entry));
+        assertEquals(TranspositionTable.lowerBound, TranspositionTable.boundOf(entry));
+        assertEquals(63, TranspositionTable.bestMoveOf(entry));
+        assertEquals(0, table.probe(bucket | 2));
+    }
+
+    @Test
+    void deepEntriesAgeOut() {
+        TranspositionTable table = new TranspositionTable(1);
+        //an endgame entry, deeper than any search
+        table.store(bucket | 1, 80, 10, TranspositionTable.exact, 0);
+        table.store(bucket | 2, 3, 20, TranspositionTable.exact, 1);
+        table.store(bucket | 3, 4, 30, TranspositionTable.exact, 2);
+        //shallower entries of the same search go to the always-replace slot
+        assertNotEquals(0, table.probe(bucket | 1));
+        assertEquals(0, table.probe(bucket | 2));
+        assertNotEquals(0, table.probe(bucket | 3));
+        table.newSearch();
+        table.store(bucket | 4, 2, 40, TranspositionTable.exact, 3);
+        //the next search can replace it
+        assertEquals(0, table.probe(bucket | 1));
+        assertEquals(40, TranspositionTable.scoreOf(table.probe(bucket | 4)));
+        assertNotEquals(0, table.probe(bucket | 3));
+    }
+
+    @Test
+    void partsKeepTheirEntriesApart() {
+        TranspositionTable split = new TranspositionTable(1);
+        TranspositionTable first = split.getPart(0, 3);
+        TranspositionTable second = split.getPart(1, 3);
+        first.store(bucket | 1, 6, 11, TranspositionTable.exact, 7);
+        second.store(bucket | 2, 5, 22, TranspositionTable.upperBound, 8);
+        //the same bucket in another part is a different one
+        assertEquals(11, TranspositionTable.scoreOf(first.probe(bucket | 1)));
+        assertEquals(0, second.probe(bucket | 1));
+        assertEquals(0, first.probe(bucket | 2));
+        TranspositionTable shared = new TranspositionTable(1);
+        split.moveInto(shared);
+        assertEquals(0, first.probe(bucket | 1));
+        assertEquals(0, second.probe(bucket | 2));
+        long entry = shared.probe(bucket | 2);
+        assertEquals(5, TranspositionTable.depthOf(entry));
+        assertEquals(22, TranspositionTable.scoreOf(entry));
+        assertEquals(TranspositionTable.upperBound, TranspositionTable.boundOf(entry));
+        assertEquals(8, TranspositionTable.bestMoveOf(entry));
+        assertEquals(11, TranspositionTable.scoreOf(shared.probe(bucket | 1)));
+    }
+}
@@ -0,0 +1,94 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * WideBoardTest: checks that an 8 x 8 WideBoard plays the same as Board, that taking
+ * moves back restores boards of other sizes and their hashes, and that move names read back
+ * @author Grace Bocek
+ */
+class WideBoardTest {
+
+    @Test
+    void eightByEightPlaysLikeBoard() {
+        Random random = new Random(31);
+        int[] wideMoves = new int[64];
+        int[] moves = new int[64];
+        for (int game = 0; game < 20; game++) {
+            WideBoard wide = new WideBoard(8, game % 2 == 0);
+            Board board = new Board(game % 2 == 0);
+            while (!board.gameOver()) {
+                assertEquals(board.toPositionString(), wide.toPositionString());
+                assertEquals(board.getComputerScore(), wide.getComputerScore());
+                int moveCount = board.getValidMoves(moves);
+                int wideMoveCount = wide.getValidMoves(wideMoves);
+                assertArrayEquals(Arrays.copyOf(moves, moveCount), Arrays.copyOf(wideMoves, wideMoveCount),
+                        board.toPositionString());
+                if (moveCount == 0) {
+                    board.makePass();
+                    wide.makePass();
+                    if (board.getValidMoves(moves) == 0) {
+                        break;
+                    }
+                    continue;
+                }
+                int move = moves[random.nextInt(moveCount)];
+                board.makeMove(move);
+                wide.makeMove(move);
+            }
+            assertArrayEquals(board.count(), wide.count());
+        }
+    }
+
+    @Test
+    void unmakeMoveRestoresTheBoard() {
+        Random random = new Random(37);
+        for (int size : new int[] {WideBoard.minSize, 10, WideBoard.maxSize}) {
+            WideBoard board = new WideBoard(size, false);
+            int[] moves = new int[size * size];
+            String[] positions = new String[2 * size * size];
+            long[] hashes = new long[positions.length];
+            int plies = 0;
+            int passes = 0;
+            while (passes < 2 && plies < positions.length) {
+                positions[plies] = board.toPositionString();
+                hashes[plies] = board.getHash();
+                //the hash kept as moves are made is the same as one worked out from scratch
+                assertEquals(new WideBoard(positions[plies]).getHash(), hashes[plies], "size " + size);
+                int moveCount = board.getValidMoves(moves);
+                if (moveCount == 0) {
+                    board.makePass();
+                    passes++;
+                }
+                else {
+                    board.makeMove(moves[random.nextInt(moveCount)]);
+                    passes = 0;
+                }
+                plies++;
+            }
+            assertTrue(plies > size * size / 2, "size " + size + " game ended early");
+            while (plies > 0) {
+                board.unmakeMove();
+                plies--;
+                assertEquals(positions[plies], board.toPositionString(), "size " + size);
+                assertEquals(hashes[plies], board.getHash(), "size " + size);
+            }
+        }
+    }
+
+    @Test
+    void moveNamesReadBack() {
+        WideBoard board = new WideBoard(WideBoard.maxSize);
+        for (int cell = 0; cell < WideBoard.maxSize * WideBoard.maxSize; cell++) {
+            assertEquals(cell, board.parseMove(board.moveName(cell)));
+            assertEquals(cell, board.parseMove(Integer.toString(cell)));
+        }
+        assertEquals("26-z", board.moveName(WideBoard.maxSize * WideBoard.maxSize - 1));
+    }
+}